@@ -0,0 +1,304 @@
+package hr.fer.zemris.java.cstr.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import hr.fer.zemris.java.cstr.CString;
+
+/**
+ * Measures the operations of {@link CString} on strings from 16 characters up
+ * to 16 MB and compares them with the same operations of {@link String} and
+ * {@link StringBuilder}. Benchmarks are run with the GC profiler, so the
+ * number of bytes allocated per operation is reported next to its time.
+ * <p>
+ * Text consists of random letters from {@code 'a'} to {@code 'y'}, so the
+ * searched string {@code "zzzz"} is never found and the whole text has to be
+ * scanned.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx2g" })
+public class CStringBenchmark {
+
+    /**
+     * Number of characters of the text.
+     */
+    @Param({ "16", "1024", "65536", "16777216" })
+    public int size;
+
+    /**
+     * Characters of the text.
+     */
+    private char[] chars;
+
+    /**
+     * Text as a {@code String}.
+     */
+    private String string;
+
+    /**
+     * Equal copy of {@link #string}.
+     */
+    private String stringCopy;
+
+    /**
+     * Text as a {@code CString}.
+     */
+    private CString cstring;
+
+    /**
+     * Equal copy of {@link #cstring}.
+     */
+    private CString cstringCopy;
+
+    /**
+     * String which is never found in the text.
+     */
+    private String missing;
+
+    /**
+     * {@link #missing} as a {@code CString}.
+     */
+    private CString cmissing;
+
+    /**
+     * String which is found many times in the text.
+     */
+    private String target;
+
+    /**
+     * {@link #target} as a {@code CString}.
+     */
+    private CString ctarget;
+
+    /**
+     * Replacement for {@link #target}.
+     */
+    private String replacement;
+
+    /**
+     * {@link #replacement} as a {@code CString}.
+     */
+    private CString creplacement;
+
+    /**
+     * Generates the text.
+     */
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+
+        chars = new char[size];
+        for (int i = 0; i < size; i++) {
+            chars[i] = (char) ('a' + random.nextInt(25));
+        }
+
+        string = new String(chars);
+        stringCopy = new String(chars);
+        cstring = new CString(chars);
+        cstringCopy = new CString(chars);
+
+        missing = "zzzz";
+        cmissing = new CString(missing);
+        target = "ab";
+        ctarget = new CString(target);
+        replacement = "xyz";
+        creplacement = new CString(replacement);
+    }
+
+    /**
+     * Constructs a {@code CString} from characters.
+     * 
+     * @return the constructed string
+     */
+    @Benchmark
+    public CString construct() {
+        return new CString(chars);
+    }
+
+    /**
+     * Constructs a {@code String} from characters.
+     * 
+     * @return the constructed string
+     */
+    @Benchmark
+    public String constructString() {
+        return new String(chars);
+    }
+
+    /**
+     * Takes the middle half of a {@code CString}.
+     * 
+     * @return the substring
+     */
+    @Benchmark
+    public CString substring() {
+        return cstring.substring(size / 4, size / 4 * 3);
+    }
+
+    /**
+     * Takes the middle half of a {@code String}.
+     * 
+     * @return the substring
+     */
+    @Benchmark
+    public String substringString() {
+        return string.substring(size / 4, size / 4 * 3);
+    }
+
+    /**
+     * Searches a {@code CString} for a missing string.
+     * 
+     * @return {@code false}
+     */
+    @Benchmark
+    public boolean contains() {
+        return cstring.contains(cmissing);
+    }
+
+    /**
+     * Searches a {@code String} for a missing string.
+     * 
+     * @return {@code false}
+     */
+    @Benchmark
+    public boolean containsString() {
+        return string.contains(missing);
+    }
+
+    /**
+     * Replaces a character of a {@code CString}.
+     * 
+     * @return the resulting string
+     */
+    @Benchmark
+    public CString replaceAllChar() {
+        return cstring.replaceAll('a', 'z');
+    }
+
+    /**
+     * Replaces a character of a {@code String}.
+     * 
+     * @return the resulting string
+     */
+    @Benchmark
+    public String replaceAllCharString() {
+        return string.replace('a', 'z');
+    }
+
+    /**
+     * Replaces a string in a {@code CString}.
+     * 
+     * @return the resulting string
+     */
+    @Benchmark
+    public CString replaceAllString() {
+        return cstring.replaceAll(ctarget, creplacement);
+    }
+
+    /**
+     * Replaces a string in a {@code String}.
+     * 
+     * @return the resulting string
+     */
+    @Benchmark
+    public String replaceAllStringString() {
+        return string.replace(target, replacement);
+    }
+
+    /**
+     * Concatenates two {@code CString} objects.
+     * 
+     * @return the concatenation
+     */
+    @Benchmark
+    public CString add() {
+        return cstring.add(cstringCopy);
+    }
+
+    /**
+     * Concatenates two {@code String} objects.
+     * 
+     * @return the concatenation
+     */
+    @Benchmark
+    public String addString() {
+        return string.concat(stringCopy);
+    }
+
+    /**
+     * Concatenates two {@code String} objects with a {@code StringBuilder} of
+     * the exact capacity.
+     * 
+     * @return the concatenation
+     */
+    @Benchmark
+    public String addStringBuilder() {
+        return new StringBuilder(size * 2)
+                .append(string)
+                .append(stringCopy)
+                .toString();
+    }
+
+    /**
+     * Compares two equal {@code CString} objects.
+     * 
+     * @return {@code true}
+     */
+    @Benchmark
+    public boolean equalsCopy() {
+        return cstring.equals(cstringCopy);
+    }
+
+    /**
+     * Compares two equal {@code String} objects.
+     * 
+     * @return {@code true}
+     */
+    @Benchmark
+    public boolean equalsCopyString() {
+        return string.equals(stringCopy);
+    }
+
+    /**
+     * Runs the benchmarks of this class with the GC profiler. Benchmarks are
+     * built by {@code benchmarks/pom.xml}.
+     * 
+     * @param args
+     *            Command-line argument
+     * @throws RunnerException
+     *             if benchmarks can't be run
+     */
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(CStringBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(options).run();
+    }
+
+}
@@ -0,0 +1,42 @@
+package hr.fer.zemris.java.graphics.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the raster, shape and scene benchmarks with the GC profiler, which
+ * adds the allocation rate and the number of garbage collections to every
+ * result. Benchmarks are built by {@code benchmarks/pom.xml} and should be
+ * run from the project directory, so that scenes from the {@code examples}
+ * directory can be found. A regular expression given as the first argument
+ * selects the benchmarks to run.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+public class BenchmarkMain {
+
+    /**
+     * Starting point of a program.
+     * 
+     * @param args
+     *            Command-line argument
+     * @throws RunnerException
+     *             if benchmarks can't be run
+     */
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0]
+                : BenchmarkMain.class.getPackage().getName() + ".*";
+
+        Options options = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(options).run();
+    }
+
+}
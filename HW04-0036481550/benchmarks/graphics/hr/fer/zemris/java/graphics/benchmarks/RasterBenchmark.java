@@ -0,0 +1,183 @@
+package hr.fer.zemris.java.graphics.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hr.fer.zemris.java.graphics.raster.BWRaster;
+import hr.fer.zemris.java.graphics.raster.BWRasterBits;
+import hr.fer.zemris.java.graphics.raster.BWRasterConcurrent;
+import hr.fer.zemris.java.graphics.raster.BWRasterMem;
+import hr.fer.zemris.java.graphics.raster.BWRasterTiled;
+
+/**
+ * Measures the throughput of single pixel operations and of clearing for
+ * every raster implementation, in normal and in flip mode.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RasterBenchmark {
+
+    /**
+     * Number of pixels touched by a single invocation.
+     */
+    private static final int PIXELS = 4096;
+
+    /**
+     * Type of the raster.
+     */
+    @Param({ "mem", "bits", "tiled", "concurrent" })
+    public String rasterType;
+
+    /**
+     * Width and height of the raster.
+     */
+    @Param({ "256", "1024", "4096" })
+    public int size;
+
+    /**
+     * Flag showing if raster is in flip mode.
+     */
+    @Param({ "false", "true" })
+    public boolean flip;
+
+    /**
+     * Raster being measured.
+     */
+    private BWRaster raster;
+
+    /**
+     * The X coordinates of the touched pixels.
+     */
+    private int[] xs;
+
+    /**
+     * The Y coordinates of the touched pixels.
+     */
+    private int[] ys;
+
+    /**
+     * Creates the raster and random coordinates of the touched pixels.
+     */
+    @Setup
+    public void setup() {
+        raster = newRaster(rasterType, size, size);
+        if (flip) {
+            raster.enableFlipMode();
+        }
+
+        Random random = new Random(42);
+        xs = new int[PIXELS];
+        ys = new int[PIXELS];
+        for (int i = 0; i < PIXELS; i++) {
+            xs[i] = random.nextInt(size);
+            ys[i] = random.nextInt(size);
+        }
+    }
+
+    /**
+     * Turns on pixels at random positions.
+     */
+    @Benchmark
+    @OperationsPerInvocation(PIXELS)
+    public void turnOn() {
+        for (int i = 0; i < PIXELS; i++) {
+            raster.turnOn(xs[i], ys[i]);
+        }
+    }
+
+    /**
+     * Reads pixels at random positions.
+     * 
+     * @return number of turned on pixels
+     */
+    @Benchmark
+    @OperationsPerInvocation(PIXELS)
+    public int isTurnedOn() {
+        int count = 0;
+        for (int i = 0; i < PIXELS; i++) {
+            if (raster.isTurnedOn(xs[i], ys[i])) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Turns on whole rows with spans.
+     */
+    @Benchmark
+    public void turnOnSpan() {
+        for (int y = 0; y < size; y++) {
+            raster.turnOnSpan(0, size, y);
+        }
+    }
+
+    /**
+     * Turns on pixels at random positions and clears the raster, which costs
+     * only as much as the changed rows for rasters tracking them.
+     */
+    @Benchmark
+    @OperationsPerInvocation(PIXELS)
+    public void turnOnAndClear() {
+        turnOn();
+        raster.clear();
+    }
+
+    /**
+     * Turns on all pixels and clears the raster.
+     */
+    @Benchmark
+    public void fillAndClear() {
+        turnOnSpan();
+        raster.clear();
+    }
+
+    /**
+     * Creates a raster of the given type.
+     * 
+     * @param type
+     *            type of the raster, one of {@code mem}, {@code bits},
+     *            {@code tiled} and {@code concurrent}
+     * @param width
+     *            width of the raster
+     * @param height
+     *            height of the raster
+     * @return the new raster
+     */
+    static BWRaster newRaster(String type, int width, int height) {
+        switch (type) {
+            case "mem":
+                return new BWRasterMem(width, height);
+            case "bits":
+                return new BWRasterBits(width, height);
+            case "tiled":
+                return new BWRasterTiled(width, height);
+            case "concurrent":
+                return new BWRasterConcurrent(width, height);
+            default:
+                throw new IllegalArgumentException(
+                        "Raster \"" + type + "\" doesn't exists!");
+        }
+    }
+
+}
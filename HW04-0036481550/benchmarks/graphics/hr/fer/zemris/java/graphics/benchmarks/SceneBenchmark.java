@@ -0,0 +1,162 @@
+package hr.fer.zemris.java.graphics.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hr.fer.zemris.java.graphics.io.BinarySceneLoader;
+import hr.fer.zemris.java.graphics.io.BinarySceneWriter;
+import hr.fer.zemris.java.graphics.io.SceneHandler;
+import hr.fer.zemris.java.graphics.io.SceneReader;
+import hr.fer.zemris.java.graphics.io.SceneRenderer;
+import hr.fer.zemris.java.graphics.raster.BWRaster;
+
+/**
+ * Measures clearing a raster and drawing a whole scene on it through
+ * {@link SceneRenderer}, exactly like {@code Demo} draws it. Scenes are read
+ * from files in the format of the {@code examples} directory, relative to the
+ * working directory, or generated randomly. They are kept in the binary
+ * format of {@link BinarySceneWriter}, so decoding adds little to the
+ * measured time.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SceneBenchmark {
+
+    /**
+     * Number of shapes of a random scene.
+     */
+    private static final int RANDOM_SHAPES = 5000;
+
+    /**
+     * Path of the scene file or {@code random}.
+     */
+    @Param({ "examples/example1.txt", "examples/example2.txt", "random" })
+    public String scene;
+
+    /**
+     * Type of the raster.
+     */
+    @Param({ "mem", "bits", "tiled" })
+    public String rasterType;
+
+    /**
+     * Width and height of the raster.
+     */
+    @Param({ "1024" })
+    public int size;
+
+    /**
+     * Raster on which the scene is drawn.
+     */
+    private BWRaster raster;
+
+    /**
+     * Commands of the scene in the binary format.
+     */
+    private ByteBuffer commands;
+
+    /**
+     * Creates the raster and reads or generates the scene.
+     * 
+     * @throws IOException
+     *             if scene can't be read
+     */
+    @Setup
+    public void setup() throws IOException {
+        raster = RasterBenchmark.newRaster(rasterType, size, size);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinarySceneWriter writer = new BinarySceneWriter(
+                Channels.newChannel(out));
+        if (scene.equals("random")) {
+            randomScene(writer, size);
+        } else {
+            SceneReader.read(Paths.get(scene), writer);
+        }
+        writer.flush();
+
+        commands = ByteBuffer.wrap(out.toByteArray());
+    }
+
+    /**
+     * Clears the raster and draws the scene.
+     * 
+     * @return number of commands of the scene
+     * @throws IOException
+     *             if scene can't be decoded
+     */
+    @Benchmark
+    public int render() throws IOException {
+        raster.clear();
+        raster.disableFlipMode();
+
+        return BinarySceneLoader.load(
+                commands.duplicate(),
+                new SceneRenderer(raster));
+    }
+
+    /**
+     * Generates a scene of random shapes which toggles flip mode now and
+     * then.
+     * 
+     * @param handler
+     *            handler receiving commands of the scene
+     * @param size
+     *            width and height of the raster
+     */
+    private static void randomScene(SceneHandler handler, int size) {
+        Random random = new Random(42);
+
+        for (int i = 0; i < RANDOM_SHAPES; i++) {
+            int x = random.nextInt(size);
+            int y = random.nextInt(size);
+
+            switch (random.nextInt(5)) {
+                case 0:
+                    handler.rectangle(x, y, 1 + random.nextInt(100),
+                            1 + random.nextInt(100));
+                    break;
+                case 1:
+                    handler.ellipse(x, y, random.nextInt(60),
+                            random.nextInt(60));
+                    break;
+                case 2:
+                    handler.circle(x, y, random.nextInt(50));
+                    break;
+                case 3:
+                    handler.triangle(x, y, x + random.nextInt(100),
+                            y + random.nextInt(100), x - random.nextInt(100),
+                            y + random.nextInt(100));
+                    break;
+                default:
+                    handler.flip();
+                    break;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,153 @@
+package hr.fer.zemris.java.graphics.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hr.fer.zemris.java.graphics.raster.BWRaster;
+import hr.fer.zemris.java.graphics.shapes.Circle;
+import hr.fer.zemris.java.graphics.shapes.CompiledShape;
+import hr.fer.zemris.java.graphics.shapes.Ellipse;
+import hr.fer.zemris.java.graphics.shapes.GeometricShape;
+import hr.fer.zemris.java.graphics.shapes.Line;
+import hr.fer.zemris.java.graphics.shapes.Rectangle;
+import hr.fer.zemris.java.graphics.shapes.Triangle;
+
+/**
+ * Measures the cost of drawing a single shape of every type at several sizes,
+ * in normal and in flip mode. Shapes are centered on a raster big enough for
+ * the biggest of them.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShapeBenchmark {
+
+    /**
+     * Width and height of the raster.
+     */
+    private static final int RASTER_SIZE = 4096;
+
+    /**
+     * Type of the shape.
+     */
+    @Param({ "rectangle", "ellipse", "circle", "triangle", "line" })
+    public String shapeType;
+
+    /**
+     * Width and height of the bounds of the shape.
+     */
+    @Param({ "16", "256", "2048" })
+    public int size;
+
+    /**
+     * Type of the raster.
+     */
+    @Param({ "mem", "bits" })
+    public String rasterType;
+
+    /**
+     * Flag showing if raster is in flip mode.
+     */
+    @Param({ "false", "true" })
+    public boolean flip;
+
+    /**
+     * Raster on which shape is drawn.
+     */
+    private BWRaster raster;
+
+    /**
+     * Shape being measured.
+     */
+    private GeometricShape shape;
+
+    /**
+     * Compiled form of the shape.
+     */
+    private CompiledShape compiled;
+
+    /**
+     * Creates the raster and the shape.
+     */
+    @Setup
+    public void setup() {
+        raster = RasterBenchmark.newRaster(
+                rasterType,
+                RASTER_SIZE,
+                RASTER_SIZE);
+        if (flip) {
+            raster.enableFlipMode();
+        }
+
+        int center = RASTER_SIZE / 2;
+        int half = size / 2;
+        switch (shapeType) {
+            case "rectangle":
+                shape = new Rectangle(center - half, center - half, size,
+                        size);
+                break;
+            case "ellipse":
+                shape = new Ellipse(center, center, half, half / 2);
+                break;
+            case "circle":
+                shape = new Circle(center, center, half);
+                break;
+            case "triangle":
+                shape = new Triangle(center - half, center + half, center,
+                        center - half, center + half, center + half / 2);
+                break;
+            case "line":
+                shape = new Line(center - half, center - half / 3,
+                        center + half, center + half / 3);
+                break;
+            default:
+                throw new IllegalArgumentException(
+                        "Shape \"" + shapeType + "\" doesn't exists!");
+        }
+        compiled = shape.compile();
+    }
+
+    /**
+     * Draws the shape.
+     */
+    @Benchmark
+    public void draw() {
+        shape.draw(raster);
+    }
+
+    /**
+     * Draws the compiled form of the shape.
+     */
+    @Benchmark
+    public void drawCompiled() {
+        compiled.draw(raster);
+    }
+
+    /**
+     * Checks if the center of the shape is contained in it.
+     * 
+     * @return {@code true} if center is contained in the shape
+     */
+    @Benchmark
+    public boolean containsPoint() {
+        return shape.containsPoint(RASTER_SIZE / 2, RASTER_SIZE / 2);
+    }
+
+}
@@ -0,0 +1,252 @@
+package hr.fer.zemris.java.graphics.io;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * {@code BinarySceneLoader} reads scenes written by {@link BinarySceneWriter}
+ * and passes their commands to a {@link SceneHandler}, for example a
+ * {@link SceneRenderer} which draws them. Commands are decoded straight from
+ * a buffer, which is usually a memory-mapped file, without creating any
+ * objects. Files bigger than a single mapping are mapped one window at a
+ * time.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+public final class BinarySceneLoader {
+
+    /**
+     * Maximal number of parameters of a command.
+     */
+    private static final int MAX_PARAMETERS = 6;
+
+    /**
+     * Maximal number of bytes of a single command.
+     */
+    static final int MAX_COMMAND_LENGTH =
+            1 + MAX_PARAMETERS * VarInt.MAX_LENGTH;
+
+    /**
+     * Maximal number of bytes of the file mapped at once.
+     */
+    private static final int WINDOW_SIZE = 1 << 30;
+
+    /**
+     * Prevents creating instances of this class.
+     */
+    private BinarySceneLoader() {
+    }
+
+    /**
+     * Maps the given file into memory and loads the scene from it. Files of
+     * any size are supported, as they are mapped in windows of at most
+     * {@link #WINDOW_SIZE} bytes.
+     * 
+     * @param file
+     *            file containing the scene
+     * @param handler
+     *            handler receiving commands of the scene
+     * @return number of commands read
+     * @throws IOException
+     *             if file can't be read or it is not a valid scene
+     */
+    public static int load(Path file, SceneHandler handler)
+            throws IOException {
+        if (file == null || handler == null) {
+            throw new IllegalArgumentException(
+                    "You can't provide null as argument!");
+        }
+
+        try (FileChannel channel = FileChannel.open(
+                file,
+                StandardOpenOption.READ)) {
+            return load(channel, handler, WINDOW_SIZE);
+        }
+    }
+
+    /**
+     * Loads the scene from the channel by mapping it in consecutive windows
+     * of the given size. Every window except the last one is decoded only
+     * while a whole command is guaranteed to fit into it, and the next window
+     * starts at the first command which hasn't been decoded.
+     * 
+     * @param channel
+     *            channel of the file containing the scene
+     * @param handler
+     *            handler receiving commands of the scene
+     * @param window
+     *            size of a window in bytes, at least
+     *            {@link #MAX_COMMAND_LENGTH}
+     * @return number of commands read
+     * @throws IOException
+     *             if file can't be read or it is not a valid scene
+     */
+    static int load(FileChannel channel, SceneHandler handler, int window)
+            throws IOException {
+        long size = channel.size();
+        long position = 0;
+        long count = 0;
+        int[] p = new int[MAX_PARAMETERS];
+
+        do {
+            long length = Math.min(window, size - position);
+            boolean last = position + length == size;
+            ByteBuffer buffer = channel.map(
+                    MapMode.READ_ONLY,
+                    position,
+                    length);
+
+            if (position == 0) {
+                readMagic(buffer);
+            }
+            count += loadCommands(buffer, handler, p, last);
+            position += buffer.position();
+
+            if (count > Integer.MAX_VALUE) {
+                throw new IOException("Scene has too many commands!");
+            }
+        } while (position < size);
+
+        return (int) count;
+    }
+
+    /**
+     * Loads the scene from the remaining bytes of the buffer and passes its
+     * commands to the handler in order. The buffer is read to its limit.
+     * 
+     * @param buffer
+     *            buffer containing the scene
+     * @param handler
+     *            handler receiving commands of the scene
+     * @return number of commands read
+     * @throws IOException
+     *             if the buffer doesn't contain a valid scene
+     */
+    public static int load(ByteBuffer buffer, SceneHandler handler)
+            throws IOException {
+        if (buffer == null || handler == null) {
+            throw new IllegalArgumentException(
+                    "You can't provide null as argument!");
+        }
+
+        readMagic(buffer);
+        return loadCommands(buffer, handler, new int[MAX_PARAMETERS], true);
+    }
+
+    /**
+     * Reads the bytes at the start of a scene.
+     * 
+     * @param buffer
+     *            buffer containing the scene
+     * @throws IOException
+     *             if the buffer doesn't start with the magic bytes
+     */
+    private static void readMagic(ByteBuffer buffer) throws IOException {
+        byte[] magic = BinarySceneWriter.MAGIC;
+        if (buffer.remaining() < magic.length) {
+            throw new IOException("Buffer doesn't contain a scene!");
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if (buffer.get() != magic[i]) {
+                throw new IOException("Buffer doesn't contain a scene!");
+            }
+        }
+    }
+
+    /**
+     * Decodes commands from the buffer and passes them to the handler in
+     * order. If the buffer is the last part of the scene it is read to its
+     * limit, otherwise decoding stops as soon as fewer than
+     * {@link #MAX_COMMAND_LENGTH} bytes remain, so that no command is split.
+     * 
+     * @param buffer
+     *            buffer containing commands of the scene
+     * @param handler
+     *            handler receiving commands of the scene
+     * @param p
+     *            array which receives the parameters of a command
+     * @param last
+     *            {@code true} if buffer contains the end of the scene
+     * @return number of commands read
+     * @throws IOException
+     *             if the buffer doesn't contain valid commands
+     */
+    private static int loadCommands(
+            ByteBuffer buffer,
+            SceneHandler handler,
+            int[] p,
+            boolean last) throws IOException {
+        int count = 0;
+
+        while (last ? buffer.hasRemaining()
+                : buffer.remaining() >= MAX_COMMAND_LENGTH) {
+            int opcode = buffer.get();
+
+            switch (opcode) {
+                case BinarySceneWriter.RECTANGLE:
+                    readParameters(buffer, p, 4);
+                    handler.rectangle(p[0], p[1], p[2], p[3]);
+                    break;
+                case BinarySceneWriter.SQUARE:
+                    readParameters(buffer, p, 3);
+                    handler.square(p[0], p[1], p[2]);
+                    break;
+                case BinarySceneWriter.ELLIPSE:
+                    readParameters(buffer, p, 4);
+                    handler.ellipse(p[0], p[1], p[2], p[3]);
+                    break;
+                case BinarySceneWriter.CIRCLE:
+                    readParameters(buffer, p, 3);
+                    handler.circle(p[0], p[1], p[2]);
+                    break;
+                case BinarySceneWriter.TRIANGLE:
+                    readParameters(buffer, p, 6);
+                    handler.triangle(p[0], p[1], p[2], p[3], p[4], p[5]);
+                    break;
+                case BinarySceneWriter.FLIP:
+                    handler.flip();
+                    break;
+                default:
+                    throw new IOException("Unknown opcode " + opcode + "!");
+            }
+
+            count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * Reads the given number of parameters of a command.
+     * 
+     * @param buffer
+     *            buffer containing the scene
+     * @param parameters
+     *            array which receives the parameters
+     * @param count
+     *            number of parameters
+     * @throws IOException
+     *             if parameters are not valid or the buffer ends before them
+     */
+    private static void readParameters(
+            ByteBuffer buffer,
+            int[] parameters,
+            int count) throws IOException {
+        try {
+            for (int i = 0; i < count; i++) {
+                parameters[i] = VarInt.getSigned(buffer);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Unexpected end of scene!", e);
+        }
+    }
+
+}
@@ -0,0 +1,202 @@
+package hr.fer.zemris.java.graphics.io;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * {@code BinarySceneWriter} writes the commands of a scene in a compact
+ * binary format. Format starts with the {@link #MAGIC} bytes followed by the
+ * commands until the end of input. Every command is a single opcode byte
+ * followed by its parameters in the order of {@link SceneHandler}, each
+ * written by {@link VarInt#putSigned(ByteBuffer, int)}. Flip has no
+ * parameters.
+ * <p>
+ * Bytes are written to the channel through a buffer of fixed size, so
+ * {@link #flush()} must be called after the last command.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see BinarySceneLoader
+ */
+public class BinarySceneWriter implements SceneHandler, Flushable {
+
+    /**
+     * Bytes at the beginning of every binary scene.
+     */
+    public static final byte[] MAGIC = { 'B', 'W', 'S', 'C' };
+
+    /**
+     * Opcode of a rectangle.
+     */
+    static final int RECTANGLE = 1;
+
+    /**
+     * Opcode of a square.
+     */
+    static final int SQUARE = 2;
+
+    /**
+     * Opcode of an ellipse.
+     */
+    static final int ELLIPSE = 3;
+
+    /**
+     * Opcode of a circle.
+     */
+    static final int CIRCLE = 4;
+
+    /**
+     * Opcode of a triangle.
+     */
+    static final int TRIANGLE = 5;
+
+    /**
+     * Opcode of flip.
+     */
+    static final int FLIP = 6;
+
+    /**
+     * Capacity of the buffer in bytes.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Maximal number of bytes of a command.
+     */
+    private static final int MAX_COMMAND_LENGTH = 1 + 6 * VarInt.MAX_LENGTH;
+
+    /**
+     * Channel to which commands are written.
+     */
+    private WritableByteChannel channel;
+
+    /**
+     * Buffer holding bytes which haven't been written yet.
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * Constructs a {@code BinarySceneWriter} which writes to the given
+     * channel, starting with the {@link #MAGIC} bytes.
+     * 
+     * @param channel
+     *            channel to which commands are written
+     */
+    public BinarySceneWriter(WritableByteChannel channel) {
+        if (channel == null) {
+            throw new IllegalArgumentException(
+                    "You can't provide null as argument!");
+        }
+
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        this.buffer.put(MAGIC);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void rectangle(int x, int y, int width, int height) {
+        start(RECTANGLE);
+        VarInt.putSigned(buffer, x);
+        VarInt.putSigned(buffer, y);
+        VarInt.putSigned(buffer, width);
+        VarInt.putSigned(buffer, height);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void square(int x, int y, int size) {
+        start(SQUARE);
+        VarInt.putSigned(buffer, x);
+        VarInt.putSigned(buffer, y);
+        VarInt.putSigned(buffer, size);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void ellipse(int x, int y, int horizontal, int vertical) {
+        start(ELLIPSE);
+        VarInt.putSigned(buffer, x);
+        VarInt.putSigned(buffer, y);
+        VarInt.putSigned(buffer, horizontal);
+        VarInt.putSigned(buffer, vertical);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void circle(int x, int y, int radius) {
+        start(CIRCLE);
+        VarInt.putSigned(buffer, x);
+        VarInt.putSigned(buffer, y);
+        VarInt.putSigned(buffer, radius);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void triangle(int x1, int y1, int x2, int y2, int x3, int y3) {
+        start(TRIANGLE);
+        VarInt.putSigned(buffer, x1);
+        VarInt.putSigned(buffer, y1);
+        VarInt.putSigned(buffer, x2);
+        VarInt.putSigned(buffer, y2);
+        VarInt.putSigned(buffer, x3);
+        VarInt.putSigned(buffer, y3);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void flip() {
+        start(FLIP);
+    }
+
+    /**
+     * Writes all buffered bytes to the channel.
+     * 
+     * @throws IOException
+     *             if writing fails
+     */
+    @Override
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Makes room for a command in the buffer and writes its opcode.
+     * 
+     * @param opcode
+     *            opcode of the command
+     * @throws UncheckedIOException
+     *             if buffered bytes can't be written
+     */
+    private void start(int opcode) {
+        if (buffer.remaining() < MAX_COMMAND_LENGTH) {
+            try {
+                flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        buffer.put((byte) opcode);
+    }
+
+}
@@ -0,0 +1,196 @@
+package hr.fer.zemris.java.graphics.io;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import hr.fer.zemris.java.graphics.raster.BWRasterBits;
+import hr.fer.zemris.java.graphics.raster.PackedBWRaster;
+
+/**
+ * {@code PBMRasterLoader} reads binary Netpbm bitmaps (P4 format), such as
+ * the ones written by {@link hr.fer.zemris.java.graphics.views.PBMRasterView}.
+ * Ones (black pixels) become turned on pixels.
+ * <p>
+ * The file is memory-mapped and its rows are copied into the raster eight
+ * bytes at a time, without touching single pixels.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+public class PBMRasterLoader {
+
+    /**
+     * Loads the bitmap from the given file into a new {@link BWRasterBits}.
+     * 
+     * @param file
+     *            path of the file
+     * @return raster containing the bitmap
+     * @throws IOException
+     *             if file can't be read or is not a valid P4 bitmap
+     */
+    public static BWRasterBits load(Path file) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException(
+                    "You can't provide null as argument!");
+        }
+
+        try (FileChannel channel = FileChannel.open(
+                file,
+                StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Bitmap is too big!");
+            }
+
+            MappedByteBuffer buffer = channel.map(
+                    MapMode.READ_ONLY,
+                    0,
+                    channel.size());
+            buffer.order(ByteOrder.BIG_ENDIAN);
+
+            if (buffer.remaining() < 2 || buffer.get() != 'P'
+                    || buffer.get() != '4') {
+                throw new IOException("File is not a P4 bitmap!");
+            }
+
+            // magic number must be separated from the width
+            if (!buffer.hasRemaining()
+                    || !isSeparator(buffer.get(buffer.position()))) {
+                throw new IOException("Invalid bitmap header!");
+            }
+
+            int width = readNumber(buffer);
+            int height = readNumber(buffer);
+            if (!buffer.hasRemaining() || !isWhitespace(buffer.get())) {
+                throw new IOException("Invalid bitmap header!");
+            }
+
+            int rowBytes = (width + 7) >>> 3;
+            if (buffer.remaining() < (long) rowBytes * height) {
+                throw new IOException("Bitmap is truncated!");
+            }
+
+            BWRasterBits raster = new BWRasterBits(width, height);
+            for (int y = 0; y < height; y++) {
+                readRow(buffer, raster, y, rowBytes);
+            }
+            return raster;
+        }
+    }
+
+    /**
+     * Copies a row of the bitmap from the buffer into the raster. Bytes are
+     * read as big-endian words and reversed, because the first pixel of a
+     * byte in the bitmap is its highest bit, but the first pixel of a word is
+     * its lowest bit.
+     * 
+     * @param buffer
+     *            buffer positioned at the start of the row
+     * @param raster
+     *            raster into which the row is copied
+     * @param y
+     *            the Y coordinate of the row
+     * @param rowBytes
+     *            number of bytes in the row
+     */
+    private static void readRow(
+            MappedByteBuffer buffer,
+            PackedBWRaster raster,
+            int y,
+            int rowBytes) {
+        int index = raster.wordIndex(0, y);
+
+        for (; rowBytes >= 8; rowBytes -= 8, index++) {
+            raster.setWord(index, Long.reverse(buffer.getLong()));
+        }
+
+        if (rowBytes > 0) {
+            long word = 0L;
+            for (int i = 0; i < 8; i++) {
+                word <<= 8;
+                if (i < rowBytes) {
+                    word |= buffer.get() & 0xFFL;
+                }
+            }
+            raster.setWord(index, Long.reverse(word));
+        }
+    }
+
+    /**
+     * Reads a positive decimal number from the header, skipping whitespace
+     * and comments before it.
+     * 
+     * @param buffer
+     *            buffer positioned in the header
+     * @return the number
+     * @throws IOException
+     *             if there is no valid number in the buffer
+     */
+    private static int readNumber(MappedByteBuffer buffer) throws IOException {
+        byte b = 0;
+        while (buffer.hasRemaining()) {
+            b = buffer.get();
+            if (b == '#') {
+                while (buffer.hasRemaining() && b != '\n' && b != '\r') {
+                    b = buffer.get();
+                }
+            } else if (!isWhitespace(b)) {
+                break;
+            }
+        }
+
+        long number = 0;
+        int digits = 0;
+        while (b >= '0' && b <= '9') {
+            number = number * 10 + (b - '0');
+            if (number > Integer.MAX_VALUE) {
+                throw new IOException("Number in header is too big!");
+            }
+            digits++;
+
+            if (!buffer.hasRemaining()) {
+                break;
+            }
+            b = buffer.get();
+        }
+
+        if (digits == 0 || number == 0) {
+            throw new IOException("Invalid bitmap header!");
+        }
+
+        // the character after the number is consumed by the caller
+        if (!(b >= '0' && b <= '9')) {
+            buffer.position(buffer.position() - 1);
+        }
+        return (int) number;
+    }
+
+    /**
+     * Checks if the given byte is whitespace or the start of a comment.
+     * 
+     * @param b
+     *            the byte
+     * @return {@code true} if byte separates fields of the header;
+     *         {@code false} otherwise
+     */
+    private static boolean isSeparator(byte b) {
+        return isWhitespace(b) || b == '#';
+    }
+
+    /**
+     * Checks if the given byte is a whitespace character of the header.
+     * 
+     * @param b
+     *            the byte
+     * @return {@code true} if byte is whitespace; {@code false} otherwise
+     */
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r' || b == 0x0B
+                || b == '\f';
+    }
+
+}
@@ -0,0 +1,224 @@
+package hr.fer.zemris.java.graphics.io;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+import hr.fer.zemris.java.graphics.raster.BWRaster;
+import hr.fer.zemris.java.graphics.raster.BWRasterBits;
+import hr.fer.zemris.java.graphics.raster.Bounds;
+import hr.fer.zemris.java.graphics.views.RLERasterView;
+
+/**
+ * {@code RLERasterDecoder} reads rasters written by {@link RLERasterView}.
+ * A raster can either be reconstructed as a new raster or drawn on an
+ * existing one at any position.
+ * <p>
+ * Bytes are read from the channel through a buffer of fixed size and every
+ * run of turned on pixels is drawn as a single span as soon as it is read, so
+ * memory used doesn't depend on the size of the raster.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+public class RLERasterDecoder {
+
+    /**
+     * Capacity of the buffer in bytes.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Channel from which runs are read.
+     */
+    private ReadableByteChannel channel;
+
+    /**
+     * Buffer holding bytes read from the channel.
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * Flag showing if the end of the channel has been reached.
+     */
+    private boolean end;
+
+    /**
+     * Width of the encoded raster.
+     */
+    private int width;
+
+    /**
+     * Height of the encoded raster.
+     */
+    private int height;
+
+    /**
+     * Creates a new {@code RLERasterDecoder} which reads from the given
+     * channel and reads the header of the encoded raster.
+     * 
+     * @param channel
+     *            channel from which runs are read
+     * @throws IOException
+     *             if reading fails or the channel doesn't start with a valid
+     *             header
+     */
+    public RLERasterDecoder(ReadableByteChannel channel) throws IOException {
+        if (channel == null) {
+            throw new IllegalArgumentException(
+                    "You can't provide null as argument!");
+        }
+
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        this.buffer.flip();
+
+        fill(RLERasterView.MAGIC.length);
+        if (buffer.remaining() < RLERasterView.MAGIC.length) {
+            throw new IOException("Channel doesn't contain a raster!");
+        }
+        for (byte b : RLERasterView.MAGIC) {
+            if (buffer.get() != b) {
+                throw new IOException("Channel doesn't contain a raster!");
+            }
+        }
+
+        this.width = readNumber();
+        this.height = readNumber();
+        if (width <= 0 || height <= 0) {
+            throw new IOException("Invalid raster size!");
+        }
+    }
+
+    /**
+     * Returns the width of the encoded raster.
+     * 
+     * @return the width of the encoded raster
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the height of the encoded raster.
+     * 
+     * @return the height of the encoded raster
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Reads the encoded raster into a new {@link BWRasterBits}.
+     * 
+     * @return raster containing the encoded pixels
+     * @throws IOException
+     *             if reading fails or the runs are not valid
+     */
+    public BWRaster decode() throws IOException {
+        if ((long) ((width + 63) >>> 6) * height > Integer.MAX_VALUE) {
+            throw new IOException("Raster is too big!");
+        }
+
+        BWRaster raster = new BWRasterBits(width, height);
+        decodeInto(raster, 0, 0);
+
+        return raster;
+    }
+
+    /**
+     * Reads the encoded raster and draws it on the given raster with its
+     * upper left corner at the given position. Turned on pixels are drawn
+     * like the pixels of a shape, respecting flip mode of the raster, and
+     * turned off pixels leave the raster unchanged. Pixels outside of the
+     * drawable region of the raster are skipped.
+     * 
+     * @param raster
+     *            raster on which pixels are drawn
+     * @param x
+     *            the X coordinate of the upper left corner
+     * @param y
+     *            the Y coordinate of the upper left corner
+     * @throws IOException
+     *             if reading fails or the runs are not valid
+     */
+    public void decodeInto(BWRaster raster, int x, int y) throws IOException {
+        if (raster == null) {
+            throw new IllegalArgumentException(
+                    "You can't provide null as argument!");
+        }
+
+        Bounds clip = raster.getBounds();
+        for (int row = 0; row < height; row++) {
+            long rowY = (long) y + row;
+            boolean visible = rowY >= clip.getY() && rowY < clip.getMaxY();
+            boolean on = false;
+
+            for (int column = 0; column < width;) {
+                int length = readNumber();
+                if (length > width - column) {
+                    throw new IOException("Runs are longer than the row!");
+                }
+
+                if (on && visible && length > 0) {
+                    long x0 = Math.max((long) x + column, clip.getX());
+                    long x1 = Math.min(
+                            (long) x + column + length,
+                            clip.getMaxX());
+                    if (x0 < x1) {
+                        raster.turnOnSpan((int) x0, (int) x1, (int) rowY);
+                    }
+                }
+
+                column += length;
+                on = !on;
+            }
+        }
+    }
+
+    /**
+     * Reads a number from the channel.
+     * 
+     * @return the number
+     * @throws IOException
+     *             if reading fails or the number is not valid
+     */
+    private int readNumber() throws IOException {
+        fill(VarInt.MAX_LENGTH);
+
+        try {
+            return VarInt.get(buffer);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Unexpected end of channel!", e);
+        }
+    }
+
+    /**
+     * Reads bytes from the channel until the buffer contains at least the
+     * given number of bytes or the end of the channel is reached.
+     * 
+     * @param count
+     *            wanted number of bytes in the buffer
+     * @throws IOException
+     *             if reading fails
+     */
+    private void fill(int count) throws IOException {
+        if (buffer.remaining() >= count || end) {
+            return;
+        }
+
+        buffer.compact();
+        while (buffer.position() < count && !end) {
+            end = channel.read(buffer) < 0;
+        }
+        buffer.flip();
+
+        if (buffer.remaining() == 0) {
+            throw new IOException("Unexpected end of channel!");
+        }
+    }
+
+}
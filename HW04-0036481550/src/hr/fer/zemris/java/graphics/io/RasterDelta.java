@@ -0,0 +1,410 @@
+package hr.fer.zemris.java.graphics.io;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import hr.fer.zemris.java.graphics.raster.BWRaster;
+import hr.fer.zemris.java.graphics.raster.Bounds;
+import hr.fer.zemris.java.graphics.raster.PackedBWRaster;
+
+/**
+ * {@code RasterDelta} is an immutable list of spans of pixels which differ
+ * between two rasters of the same size. Applying the delta to the first
+ * raster flips exactly these pixels and turns it into the second one, so
+ * consecutive frames can be sent as the pixels which changed between them.
+ * <p>
+ * Only the union of the dirty regions of both rasters is compared, because
+ * every pixel outside of the dirty region of a raster is turned off. Words of
+ * two {@link PackedBWRaster}s are compared as a whole, so the cost of
+ * computing a delta depends on the area which has been drawn on and the cost
+ * of applying and sending it depends only on the number of changed spans.
+ * <p>
+ * Delta is encoded as its width, height and number of spans followed by the
+ * spans. Every span is written as the number of rows skipped since the
+ * previous span, its distance from the end of the previous span in the same
+ * row, or from the start of the row, and its length. All numbers are written
+ * in the format of {@link VarInt}.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+public final class RasterDelta {
+
+    /**
+     * Width of the compared rasters.
+     */
+    private final int width;
+
+    /**
+     * Height of the compared rasters.
+     */
+    private final int height;
+
+    /**
+     * Spans stored as triples of row, first (inclusive) and last (exclusive)
+     * X coordinate, sorted by row and position in the row.
+     */
+    private final int[] spans;
+
+    /**
+     * Number of spans.
+     */
+    private final int count;
+
+    /**
+     * Constructs a {@code RasterDelta} from the given spans.
+     * 
+     * @param width
+     *            width of the compared rasters
+     * @param height
+     *            height of the compared rasters
+     * @param spans
+     *            spans stored as triples of row, first and last X coordinate
+     * @param count
+     *            number of spans
+     */
+    private RasterDelta(int width, int height, int[] spans, int count) {
+        this.width = width;
+        this.height = height;
+        this.spans = spans;
+        this.count = count;
+    }
+
+    /**
+     * Computes the delta which turns the first raster into the second one.
+     * 
+     * @param from
+     *            the first raster
+     * @param to
+     *            the second raster
+     * @return the delta between rasters
+     * @throws IllegalArgumentException
+     *             if rasters are not of the same size
+     */
+    public static RasterDelta between(BWRaster from, BWRaster to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException(
+                    "You can't provide null as argument!");
+        } else if (from.getWidth() != to.getWidth()
+                || from.getHeight() != to.getHeight()) {
+            throw new IllegalArgumentException(
+                    "Rasters must be of the same size!");
+        }
+
+        Builder builder = new Builder();
+        Bounds region = from.getDirtyRegion().union(to.getDirtyRegion())
+                .intersection(new Bounds(0, 0, from.getWidth(),
+                        from.getHeight()));
+
+        for (int y = region.getY(); y < region.getMaxY(); y++) {
+            if (from instanceof PackedBWRaster
+                    && to instanceof PackedBWRaster) {
+                compareRow(
+                        (PackedBWRaster) from,
+                        (PackedBWRaster) to,
+                        region,
+                        y,
+                        builder);
+            } else {
+                compareRow(from, to, region, y, builder);
+            }
+        }
+
+        return new RasterDelta(
+                from.getWidth(),
+                from.getHeight(),
+                builder.spans,
+                builder.count);
+    }
+
+    /**
+     * Adds spans of the row y in which pixels of the rasters differ.
+     * 
+     * @param from
+     *            the first raster
+     * @param to
+     *            the second raster
+     * @param region
+     *            region which is compared
+     * @param y
+     *            the Y coordinate of the row
+     * @param builder
+     *            builder collecting the spans
+     */
+    private static void compareRow(
+            BWRaster from,
+            BWRaster to,
+            Bounds region,
+            int y,
+            Builder builder) {
+        int start = -1;
+
+        for (int x = region.getX(); x < region.getMaxX(); x++) {
+            boolean differs = from.isTurnedOn(x, y) != to.isTurnedOn(x, y);
+
+            if (differs && start < 0) {
+                start = x;
+            } else if (!differs && start >= 0) {
+                builder.add(y, start, x);
+                start = -1;
+            }
+        }
+
+        if (start >= 0) {
+            builder.add(y, start, region.getMaxX());
+        }
+    }
+
+    /**
+     * Adds spans of the row y in which pixels of the packed rasters differ.
+     * Words are compared with exclusive or and spans are read from the bits
+     * of the result.
+     * 
+     * @param from
+     *            the first raster
+     * @param to
+     *            the second raster
+     * @param region
+     *            region which is compared
+     * @param y
+     *            the Y coordinate of the row
+     * @param builder
+     *            builder collecting the spans
+     */
+    private static void compareRow(
+            PackedBWRaster from,
+            PackedBWRaster to,
+            Bounds region,
+            int y,
+            Builder builder) {
+        int first = from.wordIndex(region.getX(), y);
+        int last = from.wordIndex(region.getMaxX() - 1, y);
+        int base = region.getX() & ~63;
+
+        boolean inside = false;
+        int start = 0;
+
+        for (int index = first; index <= last; index++, base += 64) {
+            long diff = from.getWord(index) ^ to.getWord(index);
+            int position = 0;
+
+            while (true) {
+                // bits where the current span ends or the next one starts
+                long edges = (inside ? ~diff : diff) & (-1L << position);
+                if (edges == 0L) {
+                    break;
+                }
+
+                position = Long.numberOfTrailingZeros(edges);
+                if (inside) {
+                    builder.add(y, start, base + position);
+                } else {
+                    start = base + position;
+                }
+                inside = !inside;
+            }
+        }
+
+        if (inside) {
+            builder.add(y, start, Math.min(base, from.getWidth()));
+        }
+    }
+
+    /**
+     * Returns the width of the compared rasters.
+     * 
+     * @return the width of the compared rasters
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the height of the compared rasters.
+     * 
+     * @return the height of the compared rasters
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the number of spans of this delta.
+     * 
+     * @return the number of spans
+     */
+    public int getSpanCount() {
+        return count;
+    }
+
+    /**
+     * Checks if rasters were equal.
+     * 
+     * @return {@code true} if this delta has no spans; {@code false}
+     *         otherwise
+     */
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Returns the number of pixels which differ between the rasters.
+     * 
+     * @return the number of changed pixels
+     */
+    public long getChangedPixels() {
+        long pixels = 0;
+        for (int i = 0; i < count * 3; i += 3) {
+            pixels += spans[i + 2] - spans[i + 1];
+        }
+        return pixels;
+    }
+
+    /**
+     * Applies this delta to the given raster by flipping all of its spans.
+     * Applied to the first of the compared rasters it makes it equal to the
+     * second one. Flip mode of the raster doesn't matter.
+     * 
+     * @param raster
+     *            raster to be patched
+     * @throws IllegalArgumentException
+     *             if raster is not of the same size as compared rasters
+     */
+    public void apply(BWRaster raster) {
+        if (raster == null) {
+            throw new IllegalArgumentException(
+                    "You can't provide null as argument!");
+        } else if (raster.getWidth() != width
+                || raster.getHeight() != height) {
+            throw new IllegalArgumentException(
+                    "Raster must be of the same size as the delta!");
+        }
+
+        for (int i = 0; i < count * 3; i += 3) {
+            raster.flipSpan(spans[i + 1], spans[i + 2], spans[i]);
+        }
+    }
+
+    /**
+     * Encodes this delta into a new buffer, ready to be read.
+     * 
+     * @return buffer containing the encoded delta
+     */
+    public ByteBuffer encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(
+                VarInt.MAX_LENGTH * (3 + count * 3));
+
+        VarInt.put(buffer, width);
+        VarInt.put(buffer, height);
+        VarInt.put(buffer, count);
+
+        int row = 0;
+        int end = 0;
+        for (int i = 0; i < count * 3; i += 3) {
+            if (spans[i] != row) {
+                end = 0;
+            }
+
+            VarInt.put(buffer, spans[i] - row);
+            VarInt.put(buffer, spans[i + 1] - end);
+            VarInt.put(buffer, spans[i + 2] - spans[i + 1]);
+
+            row = spans[i];
+            end = spans[i + 2];
+        }
+
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Decodes a delta from the buffer. Buffer is left positioned after the
+     * delta.
+     * 
+     * @param buffer
+     *            buffer containing the encoded delta
+     * @return the decoded delta
+     * @throws IllegalArgumentException
+     *             if buffer doesn't contain a valid delta
+     */
+    public static RasterDelta decode(ByteBuffer buffer) {
+        if (buffer == null) {
+            throw new IllegalArgumentException(
+                    "You can't provide null as argument!");
+        }
+
+        try {
+            int width = VarInt.get(buffer);
+            int height = VarInt.get(buffer);
+            int count = VarInt.get(buffer);
+
+            Builder builder = new Builder();
+            int row = 0;
+            int end = 0;
+            for (int i = 0; i < count; i++) {
+                int skip = VarInt.get(buffer);
+                if (skip != 0) {
+                    end = 0;
+                }
+
+                row += skip;
+                int start = end + VarInt.get(buffer);
+                end = start + VarInt.get(buffer);
+
+                if (row >= height || start >= end || end > width
+                        || start < 0) {
+                    throw new IllegalArgumentException(
+                            "Buffer doesn't contain a valid delta!");
+                }
+                builder.add(row, start, end);
+            }
+
+            return new RasterDelta(width, height, builder.spans, builder.count);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Delta is truncated!", e);
+        }
+    }
+
+    /**
+     * Growable list of spans.
+     * 
+     * @author Karlo Vrbić
+     * @version 1.0
+     */
+    private static class Builder {
+
+        /**
+         * Spans stored as triples of row, first and last X coordinate.
+         */
+        private int[] spans = new int[48];
+
+        /**
+         * Number of spans.
+         */
+        private int count;
+
+        /**
+         * Adds a span.
+         * 
+         * @param y
+         *            the Y coordinate of the span
+         * @param x0
+         *            the X coordinate of the first pixel, inclusive
+         * @param x1
+         *            the X coordinate of the last pixel, exclusive
+         */
+        void add(int y, int x0, int x1) {
+            if (count * 3 == spans.length) {
+                spans = Arrays.copyOf(spans, spans.length * 2);
+            }
+
+            spans[count * 3] = y;
+            spans[count * 3 + 1] = x0;
+            spans[count * 3 + 2] = x1;
+            count++;
+        }
+
+    }
+
+}
@@ -0,0 +1,80 @@
+package hr.fer.zemris.java.graphics.io;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * {@code SceneConverter} converts scenes from the text format read by
+ * {@link SceneReader} to the binary format written by
+ * {@link BinarySceneWriter}. It can be called with 2 arguments, the text
+ * scene and the binary scene to be created.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+public final class SceneConverter {
+
+    /**
+     * Prevents creating instances of this class.
+     */
+    private SceneConverter() {
+    }
+
+    /**
+     * Starting point of a program.
+     * 
+     * @param args
+     *            Command-line argument
+     * @throws IOException
+     *             if I/O exception occurred
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("You need to provide 2 arguments!");
+            System.exit(1);
+        }
+
+        int count = convert(Paths.get(args[0]), Paths.get(args[1]));
+        System.out.println("Converted " + count + " commands.");
+    }
+
+    /**
+     * Converts the text scene to a binary one. Commands are written as soon
+     * as they are read, so memory used doesn't depend on the size of the
+     * scene. Existing binary scene is overwritten.
+     * 
+     * @param text
+     *            file containing the text scene
+     * @param binary
+     *            file to which the binary scene is written
+     * @return number of converted commands
+     * @throws IOException
+     *             if text scene is not valid or files can't be read or
+     *             written
+     */
+    public static int convert(Path text, Path binary) throws IOException {
+        if (text == null || binary == null) {
+            throw new IllegalArgumentException(
+                    "You can't provide null as argument!");
+        }
+
+        try (FileChannel channel = FileChannel.open(
+                binary,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            BinarySceneWriter writer = new BinarySceneWriter(channel);
+
+            int count = SceneReader.read(text, writer);
+            writer.flush();
+            return count;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+}
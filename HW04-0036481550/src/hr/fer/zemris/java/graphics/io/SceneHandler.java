@@ -0,0 +1,89 @@
+package hr.fer.zemris.java.graphics.io;
+
+/**
+ * Receives the commands of a scene one by one, in the order in which they
+ * appear in the scene. Shapes are given by their integer parameters, so a
+ * reader doesn't have to create any objects to report them.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see SceneReader
+ */
+public interface SceneHandler {
+
+    /**
+     * Called for a rectangle.
+     * 
+     * @param x
+     *            the X coordinate of the upper left corner
+     * @param y
+     *            the Y coordinate of the upper left corner
+     * @param width
+     *            the width of the rectangle
+     * @param height
+     *            the height of the rectangle
+     */
+    void rectangle(int x, int y, int width, int height);
+
+    /**
+     * Called for a square.
+     * 
+     * @param x
+     *            the X coordinate of the upper left corner
+     * @param y
+     *            the Y coordinate of the upper left corner
+     * @param size
+     *            the width and height of the square
+     */
+    void square(int x, int y, int size);
+
+    /**
+     * Called for an ellipse.
+     * 
+     * @param x
+     *            the X coordinate of the center
+     * @param y
+     *            the Y coordinate of the center
+     * @param horizontal
+     *            the horizontal radius
+     * @param vertical
+     *            the vertical radius
+     */
+    void ellipse(int x, int y, int horizontal, int vertical);
+
+    /**
+     * Called for a circle.
+     * 
+     * @param x
+     *            the X coordinate of the center
+     * @param y
+     *            the Y coordinate of the center
+     * @param radius
+     *            the radius of the circle
+     */
+    void circle(int x, int y, int radius);
+
+    /**
+     * Called for a triangle.
+     * 
+     * @param x1
+     *            the X coordinate of the first corner
+     * @param y1
+     *            the Y coordinate of the first corner
+     * @param x2
+     *            the X coordinate of the second corner
+     * @param y2
+     *            the Y coordinate of the second corner
+     * @param x3
+     *            the X coordinate of the third corner
+     * @param y3
+     *            the Y coordinate of the third corner
+     */
+    void triangle(int x1, int y1, int x2, int y2, int x3, int y3);
+
+    /**
+     * Called when flip mode is toggled.
+     */
+    void flip();
+
+}
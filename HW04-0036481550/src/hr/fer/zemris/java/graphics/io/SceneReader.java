@@ -0,0 +1,417 @@
+package hr.fer.zemris.java.graphics.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * {@code SceneReader} parses scenes in the text format read by
+ * {@code Demo}. The first line contains the number of commands, followed by
+ * one command per line:
+ * <p>
+ * - RECTANGLE "x" "y" "width" "height" <br>
+ * - SQUARE "x" "y" "size" <br>
+ * - ELLIPSE "x" "y" "horizontal radius" "vertical radius" <br>
+ * - CIRCLE "x" "y" "radius" <br>
+ * - TRIANGLE "x1" "y1" "x2" "y2" "x3" "y3" <br>
+ * - FLIP
+ * <p>
+ * Names of commands are case insensitive and words of a line can be
+ * separated by any number of spaces or tabs. Anything after the parameters
+ * of a command is ignored, and so is everything after the given number of
+ * commands.
+ * <p>
+ * Commands are parsed straight from bytes and passed to a
+ * {@link SceneHandler} as soon as they are read. No objects are created while
+ * parsing and the input is read through a buffer of fixed size or from a
+ * memory-mapped file, so memory used doesn't depend on the size of the
+ * scene.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+public class SceneReader {
+
+    /**
+     * Capacity of the buffer in bytes.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Value returned at the end of input.
+     */
+    private static final int EOF = -1;
+
+    /**
+     * Length of the longest command name.
+     */
+    private static final int MAX_NAME_LENGTH = 9;
+
+    /**
+     * Channel from which the scene is read; {@code null} if the whole scene is
+     * in the buffer.
+     */
+    private ReadableByteChannel channel;
+
+    /**
+     * Buffer holding bytes of the scene.
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * Lower case name of the last command.
+     */
+    private byte[] name;
+
+    /**
+     * Number of the current line, starting from 1.
+     */
+    private int line;
+
+    /**
+     * Constructs a {@code SceneReader} which reads the scene from the given
+     * channel.
+     * 
+     * @param channel
+     *            channel from which the scene is read
+     */
+    public SceneReader(ReadableByteChannel channel) {
+        if (channel == null) {
+            throw new IllegalArgumentException(
+                    "You can't provide null as argument!");
+        }
+
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        this.buffer.flip();
+        this.name = new byte[MAX_NAME_LENGTH];
+    }
+
+    /**
+     * Constructs a {@code SceneReader} which reads the scene from the
+     * remaining bytes of the given buffer, for example a memory-mapped file.
+     * Position of the given buffer is not changed.
+     * 
+     * @param buffer
+     *            buffer holding the scene
+     */
+    public SceneReader(ByteBuffer buffer) {
+        if (buffer == null) {
+            throw new IllegalArgumentException(
+                    "You can't provide null as argument!");
+        }
+
+        this.buffer = buffer.slice();
+        this.name = new byte[MAX_NAME_LENGTH];
+    }
+
+    /**
+     * Reads the scene from the given file and passes its commands to the
+     * handler. Files which fit into a single mapping are memory-mapped,
+     * bigger ones are read through a buffer.
+     * 
+     * @param file
+     *            file containing the scene
+     * @param handler
+     *            handler receiving commands of the scene
+     * @return number of commands read
+     * @throws IOException
+     *             if file can't be read or it is not a valid scene
+     */
+    public static int read(Path file, SceneHandler handler)
+            throws IOException {
+        if (file == null || handler == null) {
+            throw new IllegalArgumentException(
+                    "You can't provide null as argument!");
+        }
+
+        try (FileChannel channel = FileChannel.open(
+                file,
+                StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                return new SceneReader(channel).read(handler);
+            }
+
+            ByteBuffer mapped = channel.map(MapMode.READ_ONLY, 0, size);
+            return new SceneReader(mapped).read(handler);
+        }
+    }
+
+    /**
+     * Reads the scene and passes its commands to the handler in order.
+     * 
+     * @param handler
+     *            handler receiving commands of the scene
+     * @return number of commands read
+     * @throws IOException
+     *             if reading fails or the input is not a valid scene
+     */
+    public int read(SceneHandler handler) throws IOException {
+        if (handler == null) {
+            throw new IllegalArgumentException(
+                    "You can't provide null as argument!");
+        }
+
+        line = 1;
+        int count = readInt();
+        if (count < 0) {
+            throw error("Number of shapes can't be negative!");
+        }
+        skipLine();
+
+        for (int i = 0; i < count; i++) {
+            skipBlanks();
+            if (peek() == EOF) {
+                throw error(
+                        "Scene ends after " + i + " of " + count
+                                + " shapes!");
+            }
+
+            readCommand(handler);
+            skipLine();
+        }
+
+        return count;
+    }
+
+    /**
+     * Reads a single command and passes it to the handler.
+     * 
+     * @param handler
+     *            handler receiving the command
+     * @throws IOException
+     *             if reading fails or the command is not valid
+     */
+    private void readCommand(SceneHandler handler) throws IOException {
+        int length = readName();
+
+        switch (name[0]) {
+            case 'r':
+                expectName("rectangle", length);
+                handler.rectangle(readInt(), readInt(), readInt(), readInt());
+                break;
+            case 's':
+                expectName("square", length);
+                handler.square(readInt(), readInt(), readInt());
+                break;
+            case 'e':
+                expectName("ellipse", length);
+                handler.ellipse(readInt(), readInt(), readInt(), readInt());
+                break;
+            case 'c':
+                expectName("circle", length);
+                handler.circle(readInt(), readInt(), readInt());
+                break;
+            case 't':
+                expectName("triangle", length);
+                handler.triangle(
+                        readInt(),
+                        readInt(),
+                        readInt(),
+                        readInt(),
+                        readInt(),
+                        readInt());
+                break;
+            case 'f':
+                expectName("flip", length);
+                handler.flip();
+                break;
+            default:
+                throw unknownShape(length);
+        }
+    }
+
+    /**
+     * Reads the name of a command into {@link #name} in lower case.
+     * 
+     * @return length of the name
+     * @throws IOException
+     *             if reading fails or there is no valid name
+     */
+    private int readName() throws IOException {
+        int length = 0;
+
+        for (int b = peek(); isLetter(b); b = peek()) {
+            if (length == MAX_NAME_LENGTH) {
+                throw unknownShape(length);
+            }
+            name[length++] = (byte) (b | 0x20);
+            buffer.get();
+        }
+
+        if (length == 0) {
+            throw error("Name of a shape expected!");
+        }
+        return length;
+    }
+
+    /**
+     * Checks if the last name is the given one.
+     * 
+     * @param expected
+     *            the expected name in lower case
+     * @param length
+     *            length of the last name
+     * @throws IOException
+     *             if names differ
+     */
+    private void expectName(String expected, int length) throws IOException {
+        if (length != expected.length()) {
+            throw unknownShape(length);
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (name[i] != expected.charAt(i)) {
+                throw unknownShape(length);
+            }
+        }
+    }
+
+    /**
+     * Reads a decimal integer preceded by spaces or tabs.
+     * 
+     * @return the integer
+     * @throws IOException
+     *             if reading fails or there is no valid integer
+     */
+    private int readInt() throws IOException {
+        skipBlanks();
+
+        boolean negative = false;
+        int b = peek();
+        if (b == '-' || b == '+') {
+            negative = b == '-';
+            buffer.get();
+            b = peek();
+        }
+
+        if (b < '0' || b > '9') {
+            throw error("You need to enter arguments in integer type!");
+        }
+
+        long value = 0;
+        do {
+            value = value * 10 + (b - '0');
+            if (value > 1L + Integer.MAX_VALUE) {
+                throw error("Number is too big!");
+            }
+            buffer.get();
+            b = peek();
+        } while (b >= '0' && b <= '9');
+
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            throw error("Number is too big!");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Skips spaces and tabs.
+     * 
+     * @throws IOException
+     *             if reading fails
+     */
+    private void skipBlanks() throws IOException {
+        for (int b = peek(); b == ' ' || b == '\t'; b = peek()) {
+            buffer.get();
+        }
+    }
+
+    /**
+     * Skips everything up to and including the end of the current line.
+     * 
+     * @throws IOException
+     *             if reading fails
+     */
+    private void skipLine() throws IOException {
+        for (int b = peek(); b != EOF; b = peek()) {
+            buffer.get();
+            if (b == '\n') {
+                break;
+            }
+        }
+        line++;
+    }
+
+    /**
+     * Returns the next byte without consuming it, reading more bytes from the
+     * channel if the buffer is empty.
+     * 
+     * @return the next byte or {@link #EOF} at the end of input
+     * @throws IOException
+     *             if reading fails
+     */
+    private int peek() throws IOException {
+        if (!buffer.hasRemaining() && !fill()) {
+            return EOF;
+        }
+        return buffer.get(buffer.position()) & 0xFF;
+    }
+
+    /**
+     * Replaces the consumed bytes of the buffer with the next bytes of the
+     * channel.
+     * 
+     * @return {@code false} if there are no more bytes; {@code true}
+     *         otherwise
+     * @throws IOException
+     *             if reading fails
+     */
+    private boolean fill() throws IOException {
+        if (channel == null) {
+            return false;
+        }
+
+        buffer.clear();
+        int read;
+        do {
+            read = channel.read(buffer);
+        } while (read == 0);
+        buffer.flip();
+
+        return read > 0;
+    }
+
+    /**
+     * Checks if the byte is an ASCII letter.
+     * 
+     * @param b
+     *            the byte
+     * @return {@code true} if the byte is a letter; {@code false} otherwise
+     */
+    private static boolean isLetter(int b) {
+        return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z');
+    }
+
+    /**
+     * Returns an exception telling that the last name is not a known shape.
+     * 
+     * @param length
+     *            length of the last name
+     * @return the exception
+     */
+    private IOException unknownShape(int length) {
+        String shape = new String(name, 0, length, StandardCharsets.US_ASCII);
+        return error("Shape \"" + shape + "\" doesn't exists!");
+    }
+
+    /**
+     * Returns an exception with the given message prefixed by the number of
+     * the current line.
+     * 
+     * @param message
+     *            the message
+     * @return the exception
+     */
+    private IOException error(String message) {
+        return new IOException("Line " + line + ": " + message);
+    }
+
+}
@@ -0,0 +1,116 @@
+package hr.fer.zemris.java.graphics.io;
+
+import hr.fer.zemris.java.graphics.raster.BWRaster;
+import hr.fer.zemris.java.graphics.shapes.Circle;
+import hr.fer.zemris.java.graphics.shapes.Ellipse;
+import hr.fer.zemris.java.graphics.shapes.Rectangle;
+import hr.fer.zemris.java.graphics.shapes.Square;
+import hr.fer.zemris.java.graphics.shapes.Triangle;
+
+/**
+ * {@code SceneRenderer} draws every shape of a scene on a raster as soon as
+ * it is received and toggles flip mode of the raster on every flip command.
+ * Flip mode of the raster is expected to be disabled when the scene starts.
+ * <p>
+ * While {@link SceneReader} doesn't allocate anything per command, the
+ * renderer creates a short-lived shape for every command it draws, so memory
+ * used doesn't depend on the size of the scene but streaming a scene through
+ * the renderer isn't free of allocations.
+ * <p>
+ * Triangles are an exception to flip mode: their pixels are always turned
+ * on, just like {@link hr.fer.zemris.java.graphics.Demo} has always drawn
+ * them.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+public class SceneRenderer implements SceneHandler {
+
+    /**
+     * Raster on which shapes are drawn.
+     */
+    private BWRaster raster;
+
+    /**
+     * Shows if flip mode is turned on or off.
+     */
+    private boolean flip;
+
+    /**
+     * Constructs a {@code SceneRenderer} which draws on the given raster.
+     * 
+     * @param raster
+     *            raster on which shapes are drawn
+     */
+    public SceneRenderer(BWRaster raster) {
+        if (raster == null) {
+            throw new IllegalArgumentException(
+                    "You can't provide null as argument!");
+        }
+
+        this.raster = raster;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void rectangle(int x, int y, int width, int height) {
+        new Rectangle(x, y, width, height).draw(raster);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void square(int x, int y, int size) {
+        new Square(x, y, size).draw(raster);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void ellipse(int x, int y, int horizontal, int vertical) {
+        new Ellipse(x, y, horizontal, vertical).draw(raster);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void circle(int x, int y, int radius) {
+        new Circle(x, y, radius).draw(raster);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Flip mode is disabled while the triangle is drawn.
+     */
+    @Override
+    public void triangle(int x1, int y1, int x2, int y2, int x3, int y3) {
+        if (flip) {
+            raster.disableFlipMode();
+            new Triangle(x1, y1, x2, y2, x3, y3).draw(raster);
+            raster.enableFlipMode();
+        } else {
+            new Triangle(x1, y1, x2, y2, x3, y3).draw(raster);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void flip() {
+        if (flip) {
+            raster.disableFlipMode();
+            flip = false;
+        } else {
+            raster.enableFlipMode();
+            flip = true;
+        }
+    }
+
+}
@@ -0,0 +1,161 @@
+package hr.fer.zemris.java.graphics.io;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Utility methods for reading and writing non-negative integers in a
+ * variable-length format. Every byte holds seven bits of the number, lowest
+ * bits first, and its highest bit is set if more bytes follow. Numbers
+ * smaller than 128 take a single byte and no number takes more than
+ * {@link #MAX_LENGTH} bytes. Numbers which may be negative are written with
+ * {@link #putSigned(ByteBuffer, int)} and read with
+ * {@link #getSigned(ByteBuffer)}.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+public final class VarInt {
+
+    /**
+     * Maximal number of bytes of an encoded number.
+     */
+    public static final int MAX_LENGTH = 5;
+
+    /**
+     * Prevents creating instances of this class.
+     */
+    private VarInt() {
+    }
+
+    /**
+     * Writes the number into the buffer.
+     * 
+     * @param buffer
+     *            buffer to be written to
+     * @param value
+     *            non-negative number
+     * @throws IllegalArgumentException
+     *             if the number is negative
+     * @throws java.nio.BufferOverflowException
+     *             if there is not enough space in the buffer
+     */
+    public static void put(ByteBuffer buffer, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Number can't be negative!");
+        }
+
+        putBits(buffer, value);
+    }
+
+    /**
+     * Writes the number, which may be negative, into the buffer. Number is
+     * first zigzag encoded, so numbers close to zero take few bytes
+     * regardless of their sign.
+     * 
+     * @param buffer
+     *            buffer to be written to
+     * @param value
+     *            the number
+     * @throws java.nio.BufferOverflowException
+     *             if there is not enough space in the buffer
+     */
+    public static void putSigned(ByteBuffer buffer, int value) {
+        putBits(buffer, (value << 1) ^ (value >> 31));
+    }
+
+    /**
+     * Reads a number from the buffer.
+     * 
+     * @param buffer
+     *            buffer to be read from
+     * @return the number
+     * @throws IllegalArgumentException
+     *             if the bytes are not a valid encoded number
+     * @throws java.nio.BufferUnderflowException
+     *             if the buffer ends before the number
+     */
+    public static int get(ByteBuffer buffer) {
+        int value = getBits(buffer);
+        if (value < 0) {
+            throw new IllegalArgumentException("Invalid encoded number!");
+        }
+        return value;
+    }
+
+    /**
+     * Reads a number written by {@link #putSigned(ByteBuffer, int)} from the
+     * buffer.
+     * 
+     * @param buffer
+     *            buffer to be read from
+     * @return the number
+     * @throws IllegalArgumentException
+     *             if the bytes are not a valid encoded number
+     * @throws java.nio.BufferUnderflowException
+     *             if the buffer ends before the number
+     */
+    public static int getSigned(ByteBuffer buffer) {
+        int bits = getBits(buffer);
+        return (bits >>> 1) ^ -(bits & 1);
+    }
+
+    /**
+     * Returns the number of bytes of the encoded number.
+     * 
+     * @param value
+     *            non-negative number
+     * @return the number of bytes of the encoded number
+     */
+    public static int length(int value) {
+        int length = 1;
+        while ((value >>>= 7) != 0) {
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * Writes all 32 bits of the number into the buffer, treating it as
+     * unsigned.
+     * 
+     * @param buffer
+     *            buffer to be written to
+     * @param bits
+     *            bits of the number
+     */
+    private static void putBits(ByteBuffer buffer, int bits) {
+        while ((bits & ~0x7F) != 0) {
+            buffer.put((byte) (bits | 0x80));
+            bits >>>= 7;
+        }
+        buffer.put((byte) bits);
+    }
+
+    /**
+     * Reads all 32 bits of a number from the buffer.
+     * 
+     * @param buffer
+     *            buffer to be read from
+     * @return bits of the number
+     * @throws IllegalArgumentException
+     *             if the bytes are not a valid encoded number
+     */
+    private static int getBits(ByteBuffer buffer) {
+        int bits = 0;
+
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = buffer.get();
+            bits |= (b & 0x7F) << shift;
+
+            if ((b & 0x80) == 0) {
+                if (shift == 28 && b > 0x0F) {
+                    break;
+                }
+                return bits;
+            }
+        }
+
+        throw new IllegalArgumentException("Invalid encoded number!");
+    }
+
+}
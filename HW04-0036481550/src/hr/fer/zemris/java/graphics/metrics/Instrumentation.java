@@ -0,0 +1,163 @@
+package hr.fer.zemris.java.graphics.metrics;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import hr.fer.zemris.java.graphics.shapes.GeometricShape;
+
+/**
+ * Hooks through which rasters, shapes and views report their work to the
+ * shared {@link RenderMetrics}. Instrumentation is enabled by starting the
+ * JVM with {@code -Dhr.fer.zemris.java.graphics.metrics=true}, in which case
+ * the metrics are also registered as an MXBean named {@value #OBJECT_NAME}.
+ * <p>
+ * Every hook does nothing unless instrumentation is enabled. The flag is a
+ * constant, so when it is off the JIT compiler removes the hooks from the
+ * compiled code of their callers completely.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+public final class Instrumentation {
+
+    /**
+     * Name of the system property which enables instrumentation.
+     */
+    public static final String PROPERTY = "hr.fer.zemris.java.graphics.metrics";
+
+    /**
+     * Name under which the metrics are registered as an MXBean.
+     */
+    public static final String OBJECT_NAME =
+            "hr.fer.zemris.java.graphics:type=RenderMetrics";
+
+    /**
+     * {@code true} if instrumentation is enabled.
+     */
+    public static final boolean ENABLED = Boolean.getBoolean(PROPERTY);
+
+    /**
+     * Metrics updated by the hooks.
+     */
+    private static final RenderMetrics METRICS = new RenderMetrics();
+
+    static {
+        if (ENABLED) {
+            register();
+        }
+    }
+
+    /**
+     * Prevents creating instances of this class.
+     */
+    private Instrumentation() {
+    }
+
+    /**
+     * Returns the metrics updated by the hooks. They stay at zero unless
+     * instrumentation is enabled.
+     * 
+     * @return the metrics updated by the hooks
+     */
+    public static RenderMetrics getMetrics() {
+        return METRICS;
+    }
+
+    /**
+     * Returns the current state of the metrics updated by the hooks.
+     * 
+     * @return the current state of the metrics
+     */
+    public static MetricsSnapshot snapshot() {
+        return METRICS.snapshot();
+    }
+
+    /**
+     * Registers the metrics as an MXBean of the platform MBean server unless
+     * they are already registered. This is done automatically when
+     * instrumentation is enabled.
+     * 
+     * @throws IllegalStateException
+     *             if the MXBean can't be registered
+     */
+    public static void register() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        try {
+            server.registerMBean(METRICS, new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // registered before
+        } catch (JMException e) {
+            throw new IllegalStateException(
+                    "Metrics can't be registered!",
+                    e);
+        }
+    }
+
+    /**
+     * Reports that a single pixel has been written.
+     * 
+     * @param flipped
+     *            {@code true} if the pixel was inverted
+     */
+    public static void pixelWritten(boolean flipped) {
+        if (ENABLED) {
+            METRICS.addPixels(1, flipped);
+        }
+    }
+
+    /**
+     * Reports that a non-empty span has been written.
+     * 
+     * @param length
+     *            number of pixels of the span
+     * @param flipped
+     *            {@code true} if pixels of the span were inverted
+     */
+    public static void spanWritten(int length, boolean flipped) {
+        if (ENABLED) {
+            METRICS.addSpan(length, flipped);
+        }
+    }
+
+    /**
+     * Reports that drawing of a shape has started.
+     * 
+     * @return the start time to be passed to
+     *         {@link #drawFinished(GeometricShape, long)}
+     */
+    public static long drawStarted() {
+        return ENABLED ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Reports that drawing of a shape has finished.
+     * 
+     * @param shape
+     *            the drawn shape
+     * @param start
+     *            the value returned by {@link #drawStarted()}
+     */
+    public static void drawFinished(GeometricShape shape, long start) {
+        if (ENABLED) {
+            METRICS.addDraw(shape.getClass(), System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Reports that a view has produced the given number of bytes.
+     * 
+     * @param count
+     *            number of bytes
+     */
+    public static void viewBytesWritten(long count) {
+        if (ENABLED) {
+            METRICS.addViewBytes(count);
+        }
+    }
+
+}
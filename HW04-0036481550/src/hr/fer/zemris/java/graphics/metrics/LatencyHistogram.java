@@ -0,0 +1,104 @@
+package hr.fer.zemris.java.graphics.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of latencies in nanoseconds with buckets whose bounds are powers
+ * of two. Bucket i counts the latencies from 2<sup>i - 1</sup> (inclusive) to
+ * 2<sup>i</sup> (exclusive), bucket 0 counts the latencies of zero. Latencies
+ * can be recorded from many threads at the same time without contention.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+final class LatencyHistogram {
+
+    /**
+     * Number of buckets.
+     */
+    static final int BUCKETS = 64;
+
+    /**
+     * Number of latencies in every bucket.
+     */
+    private final LongAdder[] buckets;
+
+    /**
+     * Sum of all latencies.
+     */
+    private final LongAdder total;
+
+    /**
+     * The biggest latency.
+     */
+    private final LongAccumulator max;
+
+    /**
+     * Constructs an empty {@code LatencyHistogram}.
+     */
+    LatencyHistogram() {
+        this.buckets = new LongAdder[BUCKETS];
+        this.total = new LongAdder();
+        this.max = new LongAccumulator(Math::max, 0L);
+
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Returns the index of the bucket counting the given latency.
+     * 
+     * @param nanos
+     *            latency in nanoseconds, not negative
+     * @return index of the bucket
+     */
+    static int bucketOf(long nanos) {
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos));
+    }
+
+    /**
+     * Records the given latency. Negative latencies, which a clock going
+     * backwards could produce, are recorded as zero.
+     * 
+     * @param nanos
+     *            latency in nanoseconds
+     */
+    void record(long nanos) {
+        nanos = Math.max(nanos, 0L);
+
+        buckets[bucketOf(nanos)].increment();
+        total.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    /**
+     * Forgets all recorded latencies.
+     */
+    void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        total.reset();
+        max.reset();
+    }
+
+    /**
+     * Returns the current state of this histogram. Latencies recorded while
+     * the snapshot is taken may be only partly included.
+     * 
+     * @param shapeType
+     *            name of the type of the shapes whose latencies are recorded
+     * @return the current state of this histogram
+     */
+    LatencySnapshot snapshot(String shapeType) {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+        }
+
+        return new LatencySnapshot(shapeType, counts, total.sum(), max.get());
+    }
+
+}
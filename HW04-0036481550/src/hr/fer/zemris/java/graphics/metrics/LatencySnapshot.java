@@ -0,0 +1,196 @@
+package hr.fer.zemris.java.graphics.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Immutable state of the histogram of draw latencies of one type of shapes.
+ * Bucket i of the histogram counts the draws which took from
+ * 2<sup>i - 1</sup> (inclusive) to 2<sup>i</sup> (exclusive) nanoseconds,
+ * bucket 0 counts the draws which took no measurable time. Percentiles are
+ * therefore known only up to the upper bound of their bucket.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+public final class LatencySnapshot {
+
+    /**
+     * Name of the type of the shapes.
+     */
+    private final String shapeType;
+
+    /**
+     * Number of draws in every bucket.
+     */
+    private final long[] buckets;
+
+    /**
+     * Number of draws.
+     */
+    private final long count;
+
+    /**
+     * Sum of all latencies in nanoseconds.
+     */
+    private final long totalNanos;
+
+    /**
+     * The biggest latency in nanoseconds.
+     */
+    private final long maxNanos;
+
+    /**
+     * Constructs a {@code LatencySnapshot} from the state of a histogram.
+     * 
+     * @param shapeType
+     *            name of the type of the shapes
+     * @param buckets
+     *            number of draws in every bucket
+     * @param totalNanos
+     *            sum of all latencies in nanoseconds
+     * @param maxNanos
+     *            the biggest latency in nanoseconds
+     */
+    LatencySnapshot(
+            String shapeType,
+            long[] buckets,
+            long totalNanos,
+            long maxNanos) {
+        this.shapeType = shapeType;
+        this.buckets = buckets;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+
+        long count = 0;
+        for (long bucket : buckets) {
+            count += bucket;
+        }
+        this.count = count;
+    }
+
+    /**
+     * Returns the name of the type of the shapes.
+     * 
+     * @return the name of the type of the shapes
+     */
+    public String getShapeType() {
+        return shapeType;
+    }
+
+    /**
+     * Returns the number of draws in every bucket.
+     * 
+     * @return the number of draws in every bucket
+     */
+    public long[] getBuckets() {
+        return buckets.clone();
+    }
+
+    /**
+     * Returns the number of draws.
+     * 
+     * @return the number of draws
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the sum of all latencies in nanoseconds.
+     * 
+     * @return the sum of all latencies in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * Returns the biggest latency in nanoseconds.
+     * 
+     * @return the biggest latency in nanoseconds
+     */
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * Returns the average latency in nanoseconds or 0 if there were no draws.
+     * 
+     * @return the average latency in nanoseconds
+     */
+    public long getMeanNanos() {
+        return count == 0 ? 0 : totalNanos / count;
+    }
+
+    /**
+     * Returns the upper bound of the median latency in nanoseconds.
+     * 
+     * @return the upper bound of the median latency
+     */
+    public long getMedianNanos() {
+        return getPercentileNanos(50);
+    }
+
+    /**
+     * Returns the upper bound of the 99th percentile of latencies in
+     * nanoseconds.
+     * 
+     * @return the upper bound of the 99th percentile of latencies
+     */
+    public long getPercentile99Nanos() {
+        return getPercentileNanos(99);
+    }
+
+    /**
+     * Returns the upper bound of the given percentile of latencies in
+     * nanoseconds, which is never bigger than the biggest latency. Returns 0
+     * if there were no draws.
+     * 
+     * @param percentile
+     *            the percentile, from 0 to 100
+     * @return the upper bound of the percentile of latencies
+     * @throws IllegalArgumentException
+     *             if percentile is not between 0 and 100
+     */
+    public long getPercentileNanos(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException(
+                    "Percentile must be between 0 and 100!");
+        }
+
+        long rank = (long) Math.ceil(count * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank && seen > 0) {
+                return i == 0 ? 0 : Math.min(maxNanos, (1L << i) - 1);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return shapeType + ": count=" + count + ", mean=" + getMeanNanos()
+                + "ns, p50<=" + getMedianNanos() + "ns, p99<="
+                + getPercentile99Nanos() + "ns, max=" + maxNanos
+                + "ns, buckets=" + Arrays.toString(trimmedBuckets());
+    }
+
+    /**
+     * Returns the buckets up to the last non-empty one.
+     * 
+     * @return the buckets up to the last non-empty one
+     */
+    private long[] trimmedBuckets() {
+        int length = buckets.length;
+        while (length > 0 && buckets[length - 1] == 0) {
+            length--;
+        }
+        return Arrays.copyOf(buckets, length);
+    }
+
+}
@@ -0,0 +1,159 @@
+package hr.fer.zemris.java.graphics.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable state of {@link RenderMetrics} at one moment. Its
+ * {@link #toString()} is a readable multi-line report which can be logged or
+ * written to a file.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+public final class MetricsSnapshot {
+
+    /**
+     * Time when the snapshot was taken in milliseconds since the epoch.
+     */
+    private final long timestamp;
+
+    /**
+     * Number of pixels written.
+     */
+    private final long pixelsWritten;
+
+    /**
+     * Number of pixels inverted.
+     */
+    private final long pixelsFlipped;
+
+    /**
+     * Number of spans written.
+     */
+    private final long spansWritten;
+
+    /**
+     * Number of bytes produced by views.
+     */
+    private final long viewBytesWritten;
+
+    /**
+     * Draw latencies of every type of shapes, sorted by the type name.
+     */
+    private final Map<String, LatencySnapshot> drawLatencies;
+
+    /**
+     * Constructs a {@code MetricsSnapshot} with the given values.
+     * 
+     * @param timestamp
+     *            time when the snapshot was taken in milliseconds since the
+     *            epoch
+     * @param pixelsWritten
+     *            number of pixels written
+     * @param pixelsFlipped
+     *            number of pixels inverted
+     * @param spansWritten
+     *            number of spans written
+     * @param viewBytesWritten
+     *            number of bytes produced by views
+     * @param drawLatencies
+     *            draw latencies of every type of shapes
+     */
+    MetricsSnapshot(
+            long timestamp,
+            long pixelsWritten,
+            long pixelsFlipped,
+            long spansWritten,
+            long viewBytesWritten,
+            Map<String, LatencySnapshot> drawLatencies) {
+        this.timestamp = timestamp;
+        this.pixelsWritten = pixelsWritten;
+        this.pixelsFlipped = pixelsFlipped;
+        this.spansWritten = spansWritten;
+        this.viewBytesWritten = viewBytesWritten;
+        this.drawLatencies = Collections.unmodifiableMap(
+                new TreeMap<>(drawLatencies));
+    }
+
+    /**
+     * Returns the time when the snapshot was taken in milliseconds since the
+     * epoch.
+     * 
+     * @return the time when the snapshot was taken
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Returns the number of pixels written by single pixel and span
+     * operations, including the inverted ones.
+     * 
+     * @return the number of pixels written
+     */
+    public long getPixelsWritten() {
+        return pixelsWritten;
+    }
+
+    /**
+     * Returns the number of pixels inverted in flip mode or by flipping
+     * spans.
+     * 
+     * @return the number of pixels inverted
+     */
+    public long getPixelsFlipped() {
+        return pixelsFlipped;
+    }
+
+    /**
+     * Returns the number of non-empty spans written.
+     * 
+     * @return the number of spans written
+     */
+    public long getSpansWritten() {
+        return spansWritten;
+    }
+
+    /**
+     * Returns the number of bytes, or characters for character views,
+     * produced by views.
+     * 
+     * @return the number of bytes produced by views
+     */
+    public long getViewBytesWritten() {
+        return viewBytesWritten;
+    }
+
+    /**
+     * Returns the draw latencies of every type of shapes which has been
+     * drawn, sorted by the type name.
+     * 
+     * @return unmodifiable map of draw latencies
+     */
+    public Map<String, LatencySnapshot> getDrawLatencies() {
+        return drawLatencies;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        String nl = System.lineSeparator();
+
+        sb.append("Render metrics at ").append(timestamp).append(nl);
+        sb.append("  pixels written: ").append(pixelsWritten).append(nl);
+        sb.append("  pixels flipped: ").append(pixelsFlipped).append(nl);
+        sb.append("  spans written: ").append(spansWritten).append(nl);
+        sb.append("  view bytes: ").append(viewBytesWritten).append(nl);
+        for (LatencySnapshot latency : drawLatencies.values()) {
+            sb.append("  ").append(latency).append(nl);
+        }
+
+        return sb.toString();
+    }
+
+}
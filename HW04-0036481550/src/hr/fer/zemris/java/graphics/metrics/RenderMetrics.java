@@ -0,0 +1,200 @@
+package hr.fer.zemris.java.graphics.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of rendering work: pixels and spans written to rasters, draw
+ * latencies of every type of shapes and bytes produced by views. All counters
+ * can be updated from many threads at the same time without contention.
+ * <p>
+ * Rasters, shapes and views update the shared instance returned by
+ * {@link Instrumentation#getMetrics()}, but only if instrumentation is
+ * enabled.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+public final class RenderMetrics implements RenderMetricsMXBean {
+
+    /**
+     * Number of pixels written.
+     */
+    private final LongAdder pixelsWritten;
+
+    /**
+     * Number of pixels inverted.
+     */
+    private final LongAdder pixelsFlipped;
+
+    /**
+     * Number of spans written.
+     */
+    private final LongAdder spansWritten;
+
+    /**
+     * Number of bytes produced by views.
+     */
+    private final LongAdder viewBytesWritten;
+
+    /**
+     * Histograms of draw latencies by the type of shapes.
+     */
+    private final ConcurrentMap<Class<?>, LatencyHistogram> drawLatencies;
+
+    /**
+     * Constructs a {@code RenderMetrics} with all counters set to zero.
+     */
+    public RenderMetrics() {
+        this.pixelsWritten = new LongAdder();
+        this.pixelsFlipped = new LongAdder();
+        this.spansWritten = new LongAdder();
+        this.viewBytesWritten = new LongAdder();
+        this.drawLatencies = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Records the given number of written pixels.
+     * 
+     * @param count
+     *            number of pixels
+     * @param flipped
+     *            {@code true} if pixels were inverted
+     */
+    public void addPixels(long count, boolean flipped) {
+        pixelsWritten.add(count);
+        if (flipped) {
+            pixelsFlipped.add(count);
+        }
+    }
+
+    /**
+     * Records a written span of the given length.
+     * 
+     * @param length
+     *            number of pixels of the span
+     * @param flipped
+     *            {@code true} if pixels of the span were inverted
+     */
+    public void addSpan(int length, boolean flipped) {
+        spansWritten.increment();
+        addPixels(length, flipped);
+    }
+
+    /**
+     * Records a draw of a shape of the given type.
+     * 
+     * @param shapeType
+     *            type of the shape
+     * @param nanos
+     *            duration of the draw in nanoseconds
+     */
+    public void addDraw(Class<?> shapeType, long nanos) {
+        LatencyHistogram histogram = drawLatencies.get(shapeType);
+        if (histogram == null) {
+            histogram = drawLatencies.computeIfAbsent(
+                    shapeType,
+                    type -> new LatencyHistogram());
+        }
+
+        histogram.record(nanos);
+    }
+
+    /**
+     * Records the given number of bytes produced by a view.
+     * 
+     * @param count
+     *            number of bytes
+     */
+    public void addViewBytes(long count) {
+        viewBytesWritten.add(count);
+    }
+
+    /**
+     * Returns the current state of all counters. Updates made while the
+     * snapshot is taken may be only partly included.
+     * 
+     * @return the current state of all counters
+     */
+    public MetricsSnapshot snapshot() {
+        return new MetricsSnapshot(
+                System.currentTimeMillis(),
+                pixelsWritten.sum(),
+                pixelsFlipped.sum(),
+                spansWritten.sum(),
+                viewBytesWritten.sum(),
+                getDrawLatencies());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getPixelsWritten() {
+        return pixelsWritten.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getPixelsFlipped() {
+        return pixelsFlipped.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getSpansWritten() {
+        return spansWritten.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getViewBytesWritten() {
+        return viewBytesWritten.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, LatencySnapshot> getDrawLatencies() {
+        Map<String, LatencySnapshot> latencies = new HashMap<>();
+
+        drawLatencies.forEach((type, histogram) -> {
+            String name = type.getSimpleName().isEmpty() ? type.getName()
+                    : type.getSimpleName();
+            latencies.put(name, histogram.snapshot(name));
+        });
+
+        return latencies;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String dump() {
+        return snapshot().toString();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void reset() {
+        pixelsWritten.reset();
+        pixelsFlipped.reset();
+        spansWritten.reset();
+        viewBytesWritten.reset();
+        drawLatencies.values().forEach(LatencyHistogram::reset);
+    }
+
+}
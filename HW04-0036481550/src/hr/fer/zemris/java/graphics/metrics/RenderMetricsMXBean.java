@@ -0,0 +1,67 @@
+package hr.fer.zemris.java.graphics.metrics;
+
+import java.util.Map;
+
+/**
+ * Management interface of {@link RenderMetrics}, through which rendering
+ * counters can be read from JConsole or any other JMX client.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+public interface RenderMetricsMXBean {
+
+    /**
+     * Returns the number of pixels written.
+     * 
+     * @return the number of pixels written
+     * @see MetricsSnapshot#getPixelsWritten()
+     */
+    long getPixelsWritten();
+
+    /**
+     * Returns the number of pixels inverted.
+     * 
+     * @return the number of pixels inverted
+     * @see MetricsSnapshot#getPixelsFlipped()
+     */
+    long getPixelsFlipped();
+
+    /**
+     * Returns the number of spans written.
+     * 
+     * @return the number of spans written
+     * @see MetricsSnapshot#getSpansWritten()
+     */
+    long getSpansWritten();
+
+    /**
+     * Returns the number of bytes produced by views.
+     * 
+     * @return the number of bytes produced by views
+     * @see MetricsSnapshot#getViewBytesWritten()
+     */
+    long getViewBytesWritten();
+
+    /**
+     * Returns the draw latencies of every type of shapes.
+     * 
+     * @return draw latencies of every type of shapes
+     * @see MetricsSnapshot#getDrawLatencies()
+     */
+    Map<String, LatencySnapshot> getDrawLatencies();
+
+    /**
+     * Returns the report of all metrics.
+     * 
+     * @return the report of all metrics
+     * @see MetricsSnapshot#toString()
+     */
+    String dump();
+
+    /**
+     * Resets all metrics to zero.
+     */
+    void reset();
+
+}
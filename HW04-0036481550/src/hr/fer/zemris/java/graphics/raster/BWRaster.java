@@ -25,6 +25,17 @@ public interface BWRaster {
      */
     int getHeight();
 
+    /**
+     * Returns the region of the raster which can be drawn on. Pixels outside
+     * of this region are ignored by the raster, so shapes don't need to
+     * rasterize them. Default implementation returns the whole raster.
+     * 
+     * @return the region of the raster which can be drawn on
+     */
+    default Bounds getBounds() {
+        return new Bounds(0, 0, getWidth(), getHeight());
+    }
+
     /**
      * Turns off all pixels.
      */
@@ -54,6 +65,86 @@ public interface BWRaster {
      */
     void turnOff(int x, int y);
 
+    /**
+     * Calls {@link #turnOn(int, int)} for every pixel of the row y from x0
+     * (inclusive) to x1 (exclusive). Pixels outside of the raster are ignored.
+     * Implementations are encouraged to override this method with something
+     * faster than a call per pixel.
+     * 
+     * @param x0
+     *            the X coordinate of the first pixel of the span, inclusive
+     * @param x1
+     *            the X coordinate of the last pixel of the span, exclusive
+     * @param y
+     *            the Y coordinate of the span
+     */
+    default void turnOnSpan(int x0, int x1, int y) {
+        x0 = Math.max(x0, 0);
+        x1 = Math.min(x1, getWidth());
+
+        for (int x = x0; x < x1; x++) {
+            turnOn(x, y);
+        }
+    }
+
+    /**
+     * Turns off every pixel of the row y from x0 (inclusive) to x1
+     * (exclusive). Pixels outside of the raster are ignored.
+     * 
+     * @param x0
+     *            the X coordinate of the first pixel of the span, inclusive
+     * @param x1
+     *            the X coordinate of the last pixel of the span, exclusive
+     * @param y
+     *            the Y coordinate of the span
+     */
+    default void turnOffSpan(int x0, int x1, int y) {
+        x0 = Math.max(x0, 0);
+        x1 = Math.min(x1, getWidth());
+
+        for (int x = x0; x < x1; x++) {
+            turnOff(x, y);
+        }
+    }
+
+    /**
+     * Flips every pixel of the row y from x0 (inclusive) to x1 (exclusive)
+     * regardless of whether flip mode is enabled or not. Pixels outside of the
+     * raster are ignored.
+     * 
+     * @param x0
+     *            the X coordinate of the first pixel of the span, inclusive
+     * @param x1
+     *            the X coordinate of the last pixel of the span, exclusive
+     * @param y
+     *            the Y coordinate of the span
+     */
+    default void flipSpan(int x0, int x1, int y) {
+        x0 = Math.max(x0, 0);
+        x1 = Math.min(x1, getWidth());
+
+        for (int x = x0; x < x1; x++) {
+            if (isTurnedOn(x, y)) {
+                turnOff(x, y);
+            } else {
+                turnOn(x, y);
+            }
+        }
+    }
+
+    /**
+     * Returns the smallest region containing every pixel which may have been
+     * changed since the last call to {@link #clear()}, together with the
+     * pixels turned off by that call. After a frame has been drawn views need
+     * to redraw only this region. Default implementation returns the whole
+     * raster.
+     * 
+     * @return the region of the raster which may have been changed
+     */
+    default Bounds getDirtyRegion() {
+        return new Bounds(0, 0, getWidth(), getHeight());
+    }
+
     /**
      * Enables flip mode.
      */
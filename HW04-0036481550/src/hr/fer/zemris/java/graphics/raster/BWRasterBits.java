@@ -0,0 +1,83 @@
+package hr.fer.zemris.java.graphics.raster;
+
+import java.util.Arrays;
+
+/**
+ * Black-and-White raster of fixed width and height which packs 64 pixels into
+ * every {@code long} word of one flat array. Compared to {@link BWRasterMem}
+ * this raster uses eight times less memory.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see PackedBWRaster
+ */
+public class BWRasterBits extends PackedBWRaster {
+
+    /**
+     * Words containing the state of every pixel (bit is set if pixel is on).
+     */
+    private long[] words;
+
+    /**
+     * Constructs a {@code BWRasterBits} with specified width and height.
+     * 
+     * @param width
+     *            width of the raster
+     * @param height
+     *            height of the raster
+     */
+    public BWRasterBits(int width, int height) {
+        super(width, height);
+
+        this.words = new long[getWordsPerRow() * height];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getWord(int index) {
+        return words[index];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void writeWord(int index, long word) {
+        words[index] = word;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void orWord(int index, long mask) {
+        words[index] |= mask;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void andWord(int index, long mask) {
+        words[index] &= mask;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void xorWord(int index, long mask) {
+        words[index] ^= mask;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void clearWords(int from, int to) {
+        Arrays.fill(words, from, to, 0L);
+    }
+
+}
@@ -0,0 +1,97 @@
+package hr.fer.zemris.java.graphics.raster;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Black-and-White raster which can be drawn on from many threads at the same
+ * time. Pixels are packed into words like in {@link BWRasterBits}, but every
+ * word is updated with a compare-and-set loop, so threads changing different
+ * pixels of the same word never lose each other's updates and no lock is
+ * needed.
+ * <p>
+ * Flip mode should be changed only while no thread is drawing. Because rows
+ * are changed by many threads at once, this raster doesn't keep track of the
+ * changed pixels; {@link #clear()} turns off the whole raster and
+ * {@link #getDirtyRegion()} always returns the whole raster.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see PackedBWRaster
+ */
+public class BWRasterConcurrent extends PackedBWRaster {
+
+    /**
+     * Words containing the state of every pixel (bit is set if pixel is on).
+     */
+    private AtomicLongArray words;
+
+    /**
+     * Constructs a {@code BWRasterConcurrent} with specified width and height.
+     * 
+     * @param width
+     *            width of the raster
+     * @param height
+     *            height of the raster
+     */
+    public BWRasterConcurrent(int width, int height) {
+        super(width, height, false);
+
+        this.words = new AtomicLongArray(getWordsPerRow() * height);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getWord(int index) {
+        return words.get(index);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void writeWord(int index, long word) {
+        words.set(index, word);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void orWord(int index, long mask) {
+        long word;
+        do {
+            word = words.get(index);
+            if ((word | mask) == word) {
+                return;
+            }
+        } while (!words.compareAndSet(index, word, word | mask));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void andWord(int index, long mask) {
+        long word;
+        do {
+            word = words.get(index);
+            if ((word & mask) == word) {
+                return;
+            }
+        } while (!words.compareAndSet(index, word, word & mask));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void xorWord(int index, long mask) {
+        long word;
+        do {
+            word = words.get(index);
+        } while (!words.compareAndSet(index, word, word ^ mask));
+    }
+
+}
@@ -0,0 +1,265 @@
+package hr.fer.zemris.java.graphics.raster;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Black-and-White raster whose pixels are stored outside of the heap in a
+ * memory-mapped file. The layout of the file is the same as the layout of
+ * {@link BWRasterBits} with words written in little-endian byte order, so the
+ * operating system pages the bitmap in and out of memory as it is drawn on
+ * and rasters bigger than the heap can be used.
+ * <p>
+ * A single mapping can't be bigger than 2 GB, so the file is mapped in chunks
+ * of 1 GB. Raster should be closed when it is no longer needed.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see PackedBWRaster
+ */
+public class BWRasterMapped extends PackedBWRaster implements Closeable {
+
+    /**
+     * Binary logarithm of the number of words in a single mapped chunk.
+     */
+    private static final int CHUNK_SHIFT = 27;
+
+    /**
+     * Number of words in a single mapped chunk.
+     */
+    private static final int CHUNK_WORDS = 1 << CHUNK_SHIFT;
+
+    /**
+     * Channel of the file containing the pixels.
+     */
+    private FileChannel channel;
+
+    /**
+     * Path of the file containing the pixels.
+     */
+    private Path file;
+
+    /**
+     * Flag showing if file should be deleted when raster is closed.
+     */
+    private boolean temporary;
+
+    /**
+     * Mapped chunks of the file.
+     */
+    private MappedByteBuffer[] mappings;
+
+    /**
+     * Mapped chunks of the file viewed as words.
+     */
+    private LongBuffer[] chunks;
+
+    /**
+     * Constructs a {@code BWRasterMapped} with specified width and height
+     * which is backed by a temporary file. The file is deleted when the raster
+     * is closed.
+     * 
+     * @param width
+     *            width of the raster
+     * @param height
+     *            height of the raster
+     * @throws IOException
+     *             if temporary file can't be created or mapped
+     */
+    public BWRasterMapped(int width, int height) throws IOException {
+        this(createTempFile(width, height), width, height, true);
+    }
+
+    /**
+     * Constructs a {@code BWRasterMapped} with specified width and height
+     * which is backed by the given file. If the file already exists its
+     * contents are used as the initial state of the raster.
+     * 
+     * @param file
+     *            path of the file containing the pixels
+     * @param width
+     *            width of the raster
+     * @param height
+     *            height of the raster
+     * @throws IOException
+     *             if file can't be opened or mapped
+     */
+    public BWRasterMapped(Path file, int width, int height)
+            throws IOException {
+        this(file, width, height, false);
+    }
+
+    /**
+     * Constructs a {@code BWRasterMapped} with specified width and height
+     * which is backed by the given file.
+     * 
+     * @param file
+     *            path of the file containing the pixels
+     * @param width
+     *            width of the raster
+     * @param height
+     *            height of the raster
+     * @param temporary
+     *            {@code true} if file should be deleted when raster is closed
+     * @throws IOException
+     *             if file can't be opened or mapped
+     */
+    private BWRasterMapped(Path file, int width, int height, boolean temporary)
+            throws IOException {
+        super(width, height);
+
+        if (file == null) {
+            throw new IllegalArgumentException(
+                    "You can't provide null as argument!");
+        }
+
+        this.file = file;
+        this.temporary = temporary;
+        try {
+            this.channel = FileChannel.open(
+                    file,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            if (temporary) {
+                Files.deleteIfExists(file);
+            }
+            throw e;
+        }
+
+        try {
+            boolean existing = channel.size() > 0;
+            map((long) getWordsPerRow() * height);
+
+            if (existing) {
+                for (int y = 0; y < height; y++) {
+                    markDirty(y, 0, width);
+                }
+            }
+        } catch (IOException e) {
+            mappings = null;
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Creates a temporary file for a raster with specified width and height.
+     * Size of the raster is validated first, so no file is left behind when
+     * the raster can't be created.
+     * 
+     * @param width
+     *            width of the raster
+     * @param height
+     *            height of the raster
+     * @return path of the created file
+     * @throws IOException
+     *             if temporary file can't be created
+     */
+    private static Path createTempFile(int width, int height)
+            throws IOException {
+        checkSize(width, height);
+        return Files.createTempFile("bwraster", ".bin");
+    }
+
+    /**
+     * Maps the given number of words of the file in chunks, extending the
+     * file if it is too short.
+     * 
+     * @param words
+     *            number of words to be mapped
+     * @throws IOException
+     *             if file can't be mapped
+     */
+    private void map(long words) throws IOException {
+        int count = (int) ((words + CHUNK_WORDS - 1) >>> CHUNK_SHIFT);
+
+        mappings = new MappedByteBuffer[count];
+        chunks = new LongBuffer[count];
+
+        for (int i = 0; i < count; i++) {
+            long first = (long) i << CHUNK_SHIFT;
+            long size = Math.min(CHUNK_WORDS, words - first);
+
+            mappings[i] = channel.map(
+                    MapMode.READ_WRITE,
+                    first * Long.BYTES,
+                    size * Long.BYTES);
+            mappings[i].order(ByteOrder.LITTLE_ENDIAN);
+            chunks[i] = mappings[i].asLongBuffer();
+        }
+    }
+
+    /**
+     * Returns the path of the file containing the pixels.
+     * 
+     * @return the path of the file containing the pixels
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getWord(int index) {
+        return chunks[index >>> CHUNK_SHIFT].get(index & (CHUNK_WORDS - 1));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void writeWord(int index, long word) {
+        chunks[index >>> CHUNK_SHIFT].put(index & (CHUNK_WORDS - 1), word);
+    }
+
+    /**
+     * Writes all changes of the raster to the underlying file.
+     */
+    public void force() {
+        for (MappedByteBuffer mapping : mappings) {
+            mapping.force();
+        }
+    }
+
+    /**
+     * Closes the file containing the pixels and deletes it if it was created
+     * as a temporary file. Changes of a raster backed by a file given by the
+     * user are written to the file first.
+     * 
+     * @throws IOException
+     *             if I/O exception occurred
+     */
+    @Override
+    public void close() throws IOException {
+        if (!channel.isOpen()) {
+            return;
+        }
+
+        if (!temporary && mappings != null) {
+            force();
+        }
+        channel.close();
+
+        if (temporary) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                // file can't be deleted while it is mapped on some systems
+                file.toFile().deleteOnExit();
+            }
+        }
+    }
+
+}
@@ -1,5 +1,9 @@
 package hr.fer.zemris.java.graphics.raster;
 
+import java.util.Arrays;
+
+import hr.fer.zemris.java.graphics.metrics.Instrumentation;
+
 /**
  * Black-and-White raster of fixed width and height for which each pixel can be
  * painted with only two colors: black (when pixel is turned off) and white
@@ -31,6 +35,11 @@ public class BWRasterMem implements BWRaster {
      */
     private boolean flip;
 
+    /**
+     * Pixels changed since the raster was last cleared.
+     */
+    private DirtyRows dirty;
+
     /**
      * Constructs a {@code BWRasterMem} with specified width and height.
      * 
@@ -50,6 +59,7 @@ public class BWRasterMem implements BWRaster {
         this.width = width;
         this.height = height;
         this.flip = false;
+        this.dirty = new DirtyRows(width, height);
     }
 
     /**
@@ -71,6 +81,8 @@ public class BWRasterMem implements BWRaster {
         this.width = pixel[0].length;
         this.height = pixel.length;
         this.flip = false;
+        this.dirty = new DirtyRows(width, height);
+        this.dirty.markAll();
     }
 
     /**
@@ -90,12 +102,21 @@ public class BWRasterMem implements BWRaster {
     }
 
     /**
-     * {@inheritDoc}
+     * Turns off all pixels. Storage of the raster is reused and only the
+     * pixels which have been changed since the last call are written.
      */
     @Override
     public void clear() {
-        pixel = new boolean[height][width];
+        for (int y = 0; y < height; y++) {
+            int start = dirty.start(y);
+            int end = dirty.end(y);
+
+            if (start < end) {
+                Arrays.fill(pixel[y], start, end, false);
+            }
+        }
 
+        dirty.reset();
     }
 
     /**
@@ -107,6 +128,8 @@ public class BWRasterMem implements BWRaster {
             return;
         }
 
+        dirty.mark(y, x, x + 1);
+        Instrumentation.pixelWritten(flip);
         if (flip == false) {
             pixel[y][x] = true;
         } else {
@@ -123,9 +146,75 @@ public class BWRasterMem implements BWRaster {
             return;
         }
 
+        dirty.mark(y, x, x + 1);
+        Instrumentation.pixelWritten(false);
         pixel[y][x] = false;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void turnOnSpan(int x0, int x1, int y) {
+        if (flip) {
+            flipSpan(x0, x1, y);
+            return;
+        }
+
+        x0 = Math.max(x0, 0);
+        x1 = Math.min(x1, width);
+        if (x0 >= x1 || y < 0 || y >= height) {
+            return;
+        }
+
+        dirty.mark(y, x0, x1);
+        Instrumentation.spanWritten(x1 - x0, false);
+        Arrays.fill(pixel[y], x0, x1, true);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void turnOffSpan(int x0, int x1, int y) {
+        x0 = Math.max(x0, 0);
+        x1 = Math.min(x1, width);
+        if (x0 >= x1 || y < 0 || y >= height) {
+            return;
+        }
+
+        dirty.mark(y, x0, x1);
+        Instrumentation.spanWritten(x1 - x0, false);
+        Arrays.fill(pixel[y], x0, x1, false);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void flipSpan(int x0, int x1, int y) {
+        x0 = Math.max(x0, 0);
+        x1 = Math.min(x1, width);
+        if (x0 >= x1 || y < 0 || y >= height) {
+            return;
+        }
+
+        dirty.mark(y, x0, x1);
+        Instrumentation.spanWritten(x1 - x0, true);
+        boolean[] row = pixel[y];
+        for (int x = x0; x < x1; x++) {
+            row[x] = !row[x];
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Bounds getDirtyRegion() {
+        return dirty.getDirtyRegion();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -165,7 +254,7 @@ public class BWRasterMem implements BWRaster {
      *         {@code false} otherwise
      */
     private boolean isValidPixel(int x, int y) {
-        return (x >= 0 && x < this.width) || (y >= 0 && y < this.height);
+        return x >= 0 && x < this.width && y >= 0 && y < this.height;
     }
 
     /**
@@ -0,0 +1,237 @@
+package hr.fer.zemris.java.graphics.raster;
+
+import java.util.Arrays;
+
+/**
+ * Black-and-White raster which divides its area into tiles of 64x64 pixels
+ * and allocates a tile only when one of its pixels is turned on. Every row of
+ * a tile is a single word, so a tile is an array of 64 words. A missing tile
+ * means that all of its pixels are turned off.
+ * <p>
+ * Memory used by this raster and the cost of {@link #clear()} depend only on
+ * the area which has been drawn on, not on the size of the raster. Cleared
+ * tiles are kept and reused by later drawing.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see PackedBWRaster
+ */
+public class BWRasterTiled extends PackedBWRaster {
+
+    /**
+     * Binary logarithm of the tile size.
+     */
+    private static final int TILE_SHIFT = 6;
+
+    /**
+     * Width and height of a tile.
+     */
+    public static final int TILE_SIZE = 1 << TILE_SHIFT;
+
+    /**
+     * Tiles of the raster stored row by row; {@code null} if a tile has no
+     * turned on pixels.
+     */
+    private long[][] tiles;
+
+    /**
+     * Indexes of the allocated tiles.
+     */
+    private int[] allocated;
+
+    /**
+     * Number of the allocated tiles.
+     */
+    private int allocatedCount;
+
+    /**
+     * Cleared tiles ready to be reused.
+     */
+    private long[][] pool;
+
+    /**
+     * Number of the tiles in the pool.
+     */
+    private int poolSize;
+
+    /**
+     * Constructs a {@code BWRasterTiled} with specified width and height.
+     * 
+     * @param width
+     *            width of the raster
+     * @param height
+     *            height of the raster
+     */
+    public BWRasterTiled(int width, int height) {
+        super(width, height);
+
+        int tileRows = (height + TILE_SIZE - 1) >>> TILE_SHIFT;
+        this.tiles = new long[tileRows * getWordsPerRow()][];
+        this.allocated = new int[16];
+        this.pool = new long[16][];
+    }
+
+    /**
+     * Returns the number of tiles which are currently allocated.
+     * 
+     * @return the number of tiles which are currently allocated
+     */
+    public int getTileCount() {
+        return allocatedCount;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getWord(int index) {
+        int y = index / getWordsPerRow();
+        long[] tile = tiles[tileIndex(index, y)];
+
+        return tile == null ? 0L : tile[y & (TILE_SIZE - 1)];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void writeWord(int index, long word) {
+        int y = index / getWordsPerRow();
+        int tileIndex = tileIndex(index, y);
+
+        long[] tile = tiles[tileIndex];
+        if (tile == null) {
+            if (word == 0L) {
+                return;
+            }
+            tile = allocate(tileIndex);
+        }
+
+        tile[y & (TILE_SIZE - 1)] = word;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void orWord(int index, long mask) {
+        int y = index / getWordsPerRow();
+        int tileIndex = tileIndex(index, y);
+
+        long[] tile = tiles[tileIndex];
+        if (tile == null) {
+            tile = allocate(tileIndex);
+        }
+
+        tile[y & (TILE_SIZE - 1)] |= mask;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void andWord(int index, long mask) {
+        int y = index / getWordsPerRow();
+        long[] tile = tiles[tileIndex(index, y)];
+
+        if (tile != null) {
+            tile[y & (TILE_SIZE - 1)] &= mask;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void xorWord(int index, long mask) {
+        int y = index / getWordsPerRow();
+        int tileIndex = tileIndex(index, y);
+
+        long[] tile = tiles[tileIndex];
+        if (tile == null) {
+            tile = allocate(tileIndex);
+        }
+
+        tile[y & (TILE_SIZE - 1)] ^= mask;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isTurnedOn(int x, int y) {
+        if (x < 0 || x >= getWidth() || y < 0 || y >= getHeight()) {
+            return false;
+        }
+
+        long[] tile = tiles[(y >>> TILE_SHIFT) * getWordsPerRow()
+                + (x >>> TILE_SHIFT)];
+
+        return tile != null && (tile[y & (TILE_SIZE - 1)] & (1L << x)) != 0;
+    }
+
+    /**
+     * Turns off all pixels by releasing every allocated tile into the pool of
+     * tiles which can be reused.
+     */
+    @Override
+    public void clear() {
+        for (int i = 0; i < allocatedCount; i++) {
+            long[] tile = tiles[allocated[i]];
+            tiles[allocated[i]] = null;
+
+            Arrays.fill(tile, 0L);
+            if (poolSize == pool.length) {
+                pool = Arrays.copyOf(pool, poolSize * 2);
+            }
+            pool[poolSize++] = tile;
+        }
+
+        allocatedCount = 0;
+        resetDirtyRegion();
+    }
+
+    /**
+     * Returns the index of the tile containing the word at specified index.
+     * 
+     * @param index
+     *            index of the word
+     * @param y
+     *            the Y coordinate of the row containing the word
+     * @return index of the tile containing the word
+     */
+    private int tileIndex(int index, int y) {
+        int wordsPerRow = getWordsPerRow();
+        int column = index - y * wordsPerRow;
+
+        return (y >>> TILE_SHIFT) * wordsPerRow + column;
+    }
+
+    /**
+     * Allocates the tile at specified index, reusing a cleared tile if there
+     * is one. Threads drawing into different rows of tiles share only the
+     * bookkeeping of allocated tiles, so it is synchronized.
+     * 
+     * @param tileIndex
+     *            index of the tile
+     * @return the allocated tile
+     */
+    private synchronized long[] allocate(int tileIndex) {
+        long[] tile;
+        if (poolSize > 0) {
+            tile = pool[--poolSize];
+            pool[poolSize] = null;
+        } else {
+            tile = new long[TILE_SIZE];
+        }
+
+        if (allocatedCount == allocated.length) {
+            allocated = Arrays.copyOf(allocated, allocatedCount * 2);
+        }
+        allocated[allocatedCount++] = tileIndex;
+
+        tiles[tileIndex] = tile;
+        return tile;
+    }
+
+}
@@ -0,0 +1,286 @@
+package hr.fer.zemris.java.graphics.raster;
+
+/**
+ * The {@code Bounds} class represents an immutable axis-aligned rectangular
+ * region of pixels given by the coordinates of its upper left corner, width
+ * and height. Region contains pixels from x (inclusive) to x + width
+ * (exclusive) and from y (inclusive) to y + height (exclusive). Region with no
+ * pixels is empty.
+ * <p>
+ * Coordinates which don't fit into an {@code int} are saturated, so the right
+ * and the bottom edge of a region are never beyond {@link Integer#MAX_VALUE}.
+ * Region built from corners which are more than {@link Integer#MAX_VALUE}
+ * pixels apart loses the part at the most negative coordinates, where no
+ * raster has pixels.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+public final class Bounds {
+
+    /**
+     * Empty region.
+     */
+    public static final Bounds EMPTY = new Bounds(0, 0, 0, 0);
+
+    /**
+     * The X coordinate of the upper left corner.
+     */
+    private final int x;
+
+    /**
+     * The Y coordinate of the upper left corner.
+     */
+    private final int y;
+
+    /**
+     * The width of the region.
+     */
+    private final int width;
+
+    /**
+     * The height of the region.
+     */
+    private final int height;
+
+    /**
+     * Constructs a {@code Bounds} object with the specified coordinates of
+     * upper left corner, width and height.
+     * 
+     * @param x
+     *            the X coordinate of the upper left corner
+     * @param y
+     *            the Y coordinate of the upper left corner
+     * @param width
+     *            the width of the region
+     * @param height
+     *            the height of the region
+     * @throws IllegalArgumentException
+     *             if width or height is negative
+     */
+    public Bounds(int x, int y, int width, int height) {
+        if (width < 0) {
+            throw new IllegalArgumentException("Width can't be negative!");
+        } else if (height < 0) {
+            throw new IllegalArgumentException("Height can't be negative!");
+        }
+
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Constructs a {@code Bounds} object from coordinates of its corners.
+     * Region is empty if the second corner is not right of and below the
+     * first one. Corners may lie outside of the range of {@code int}, so
+     * shapes can compute them without overflow.
+     * 
+     * @param x0
+     *            the X coordinate of the upper left corner, inclusive
+     * @param y0
+     *            the Y coordinate of the upper left corner, inclusive
+     * @param x1
+     *            the X coordinate of the lower right corner, exclusive
+     * @param y1
+     *            the Y coordinate of the lower right corner, exclusive
+     * @return region between the given corners
+     */
+    public static Bounds fromCorners(long x0, long y0, long x1, long y1) {
+        x0 = saturate(x0);
+        y0 = saturate(y0);
+        x1 = saturate(x1);
+        y1 = saturate(y1);
+        if (x1 <= x0 || y1 <= y0) {
+            return EMPTY;
+        }
+
+        x0 = Math.max(x0, x1 - Integer.MAX_VALUE);
+        y0 = Math.max(y0, y1 - Integer.MAX_VALUE);
+
+        return new Bounds((int) x0, (int) y0, (int) (x1 - x0),
+                (int) (y1 - y0));
+    }
+
+    /**
+     * Returns the closest value to the given one which fits into an
+     * {@code int}.
+     * 
+     * @param value
+     *            the value
+     * @return the value limited to the range of {@code int}
+     */
+    private static long saturate(long value) {
+        return Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, value));
+    }
+
+    /**
+     * Returns the X coordinate of the upper left corner.
+     * 
+     * @return the X coordinate of the upper left corner
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * Returns the Y coordinate of the upper left corner.
+     * 
+     * @return the Y coordinate of the upper left corner
+     */
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * Returns the width of the region.
+     * 
+     * @return the width of the region
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the height of the region.
+     * 
+     * @return the height of the region
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the X coordinate right of the region, exclusive, or
+     * {@link Integer#MAX_VALUE} if it doesn't fit into an {@code int}.
+     * 
+     * @return the X coordinate right of the region
+     */
+    public int getMaxX() {
+        return (int) saturate((long) x + width);
+    }
+
+    /**
+     * Returns the Y coordinate below the region, exclusive, or
+     * {@link Integer#MAX_VALUE} if it doesn't fit into an {@code int}.
+     * 
+     * @return the Y coordinate below the region
+     */
+    public int getMaxY() {
+        return (int) saturate((long) y + height);
+    }
+
+    /**
+     * Checks if this region contains no pixels.
+     * 
+     * @return {@code true} if this region is empty; {@code false} otherwise
+     */
+    public boolean isEmpty() {
+        return width == 0 || height == 0;
+    }
+
+    /**
+     * Checks if this region contains pixel at the specified position.
+     * 
+     * @param x
+     *            the X coordinate of the pixel
+     * @param y
+     *            the Y coordinate of the pixel
+     * @return {@code true} if this region contains specified pixel;
+     *         {@code false} otherwise
+     */
+    public boolean contains(int x, int y) {
+        return x >= this.x && x < getMaxX() && y >= this.y && y < getMaxY();
+    }
+
+    /**
+     * Checks if this region and the given one have at least one common pixel.
+     * 
+     * @param other
+     *            the other region
+     * @return {@code true} if regions intersect; {@code false} otherwise
+     */
+    public boolean intersects(Bounds other) {
+        return !isEmpty() && !other.isEmpty() && other.x < getMaxX()
+                && x < other.getMaxX() && other.y < getMaxY()
+                && y < other.getMaxY();
+    }
+
+    /**
+     * Returns the region containing pixels which are in both this and the
+     * given region.
+     * 
+     * @param other
+     *            the other region
+     * @return intersection of regions
+     */
+    public Bounds intersection(Bounds other) {
+        return fromCorners(
+                Math.max(x, other.x),
+                Math.max(y, other.y),
+                Math.min(getMaxX(), other.getMaxX()),
+                Math.min(getMaxY(), other.getMaxY()));
+    }
+
+    /**
+     * Returns the smallest region containing both this and the given region.
+     * 
+     * @param other
+     *            the other region
+     * @return union of regions
+     */
+    public Bounds union(Bounds other) {
+        if (isEmpty()) {
+            return other;
+        } else if (other.isEmpty()) {
+            return this;
+        }
+
+        return fromCorners(
+                Math.min(x, other.x),
+                Math.min(y, other.y),
+                Math.max(getMaxX(), other.getMaxX()),
+                Math.max(getMaxY(), other.getMaxY()));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof Bounds)) {
+            return false;
+        }
+
+        Bounds other = (Bounds) obj;
+        if (isEmpty() || other.isEmpty()) {
+            return isEmpty() && other.isEmpty();
+        }
+
+        return x == other.x && y == other.y && width == other.width
+                && height == other.height;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        if (isEmpty()) {
+            return 0;
+        }
+
+        return ((x * 31 + y) * 31 + width) * 31 + height;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "Bounds[x=" + x + ", y=" + y + ", width=" + width + ", height="
+                + height + "]";
+    }
+
+}
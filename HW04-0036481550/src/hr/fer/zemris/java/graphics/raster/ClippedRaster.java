@@ -0,0 +1,175 @@
+package hr.fer.zemris.java.graphics.raster;
+
+/**
+ * View of a part of another raster. All pixels are addressed with the
+ * coordinates of the underlying raster, but only the pixels inside of the
+ * clip region can be changed through this view; changes of other pixels are
+ * ignored. Shapes drawn on this view rasterize only the clip region.
+ * <p>
+ * Views of non-overlapping regions of the same raster can be drawn on from
+ * different threads at the same time if the underlying raster keeps the rows
+ * of those regions in separate memory, as all rasters in this package do for
+ * regions aligned to whole rows of 64 pixel high tiles.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+public class ClippedRaster implements BWRaster {
+
+    /**
+     * Underlying raster.
+     */
+    private BWRaster raster;
+
+    /**
+     * Region of the underlying raster which can be changed.
+     */
+    private Bounds clip;
+
+    /**
+     * Constructs a {@code ClippedRaster} which allows changes of the given
+     * raster only inside of the clip region.
+     * 
+     * @param raster
+     *            underlying raster
+     * @param clip
+     *            region of the underlying raster which can be changed
+     */
+    public ClippedRaster(BWRaster raster, Bounds clip) {
+        if (raster == null || clip == null) {
+            throw new IllegalArgumentException(
+                    "You can't provide null as argument!");
+        }
+
+        this.raster = raster;
+        this.clip = clip.intersection(raster.getBounds());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getWidth() {
+        return raster.getWidth();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getHeight() {
+        return raster.getHeight();
+    }
+
+    /**
+     * Returns the clip region of this view.
+     * 
+     * @return the clip region of this view
+     */
+    @Override
+    public Bounds getBounds() {
+        return clip;
+    }
+
+    /**
+     * Turns off all pixels inside of the clip region.
+     */
+    @Override
+    public void clear() {
+        for (int y = clip.getY(); y < clip.getMaxY(); y++) {
+            raster.turnOffSpan(clip.getX(), clip.getMaxX(), y);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void turnOn(int x, int y) {
+        if (clip.contains(x, y)) {
+            raster.turnOn(x, y);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void turnOff(int x, int y) {
+        if (clip.contains(x, y)) {
+            raster.turnOff(x, y);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void turnOnSpan(int x0, int x1, int y) {
+        if (y >= clip.getY() && y < clip.getMaxY()) {
+            raster.turnOnSpan(
+                    Math.max(x0, clip.getX()),
+                    Math.min(x1, clip.getMaxX()),
+                    y);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void turnOffSpan(int x0, int x1, int y) {
+        if (y >= clip.getY() && y < clip.getMaxY()) {
+            raster.turnOffSpan(
+                    Math.max(x0, clip.getX()),
+                    Math.min(x1, clip.getMaxX()),
+                    y);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void flipSpan(int x0, int x1, int y) {
+        if (y >= clip.getY() && y < clip.getMaxY()) {
+            raster.flipSpan(
+                    Math.max(x0, clip.getX()),
+                    Math.min(x1, clip.getMaxX()),
+                    y);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Bounds getDirtyRegion() {
+        return raster.getDirtyRegion();
+    }
+
+    /**
+     * Enables flip mode of the underlying raster.
+     */
+    @Override
+    public void enableFlipMode() {
+        raster.enableFlipMode();
+    }
+
+    /**
+     * Disables flip mode of the underlying raster.
+     */
+    @Override
+    public void disableFlipMode() {
+        raster.disableFlipMode();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isTurnedOn(int x, int y) {
+        return raster.isTurnedOn(x, y);
+    }
+
+}
@@ -0,0 +1,38 @@
+package hr.fer.zemris.java.graphics.raster;
+
+/**
+ * Boolean operation which combines a pixel of the destination raster with
+ * the corresponding pixel of the source raster.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see RasterOps
+ */
+public enum CompositeOperation {
+
+    /**
+     * Pixel stays turned on only if it is turned on in both rasters.
+     */
+    AND,
+
+    /**
+     * Pixel is turned on if it is turned on in any of the rasters.
+     */
+    OR,
+
+    /**
+     * Pixel is flipped if it is turned on in the source.
+     */
+    XOR,
+
+    /**
+     * Pixel is turned off if it is turned on in the source.
+     */
+    AND_NOT,
+
+    /**
+     * Pixel is set to the inverted pixel of the source.
+     */
+    NOT
+
+}
@@ -0,0 +1,159 @@
+package hr.fer.zemris.java.graphics.raster;
+
+import java.util.Arrays;
+
+/**
+ * Keeps track of the pixels of a raster which have been changed since the
+ * raster was last cleared. For every row it remembers the span from the
+ * leftmost to the rightmost changed pixel, so clearing a raster has to touch
+ * only these spans. Rows are tracked independently of each other, so threads
+ * drawing into different rows don't interfere.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+class DirtyRows {
+
+    /**
+     * Width of the tracked raster.
+     */
+    private int width;
+
+    /**
+     * The X coordinate of the first changed pixel of every row, inclusive.
+     */
+    private int[] start;
+
+    /**
+     * The X coordinate of the last changed pixel of every row, exclusive.
+     */
+    private int[] end;
+
+    /**
+     * Region cleared by the last call to {@link #reset()}.
+     */
+    private Bounds cleared;
+
+    /**
+     * Constructs a {@code DirtyRows} object for a raster with specified width
+     * and height with no changed pixels.
+     * 
+     * @param width
+     *            width of the raster
+     * @param height
+     *            height of the raster
+     */
+    DirtyRows(int width, int height) {
+        this.width = width;
+        this.start = new int[height];
+        this.end = new int[height];
+        this.cleared = Bounds.EMPTY;
+
+        Arrays.fill(start, width);
+    }
+
+    /**
+     * Marks pixels of the row y from x0 (inclusive) to x1 (exclusive) as
+     * changed. Callers guarantee that the span is inside of the raster.
+     * 
+     * @param y
+     *            the Y coordinate of the row
+     * @param x0
+     *            the X coordinate of the first pixel, inclusive
+     * @param x1
+     *            the X coordinate of the last pixel, exclusive
+     */
+    void mark(int y, int x0, int x1) {
+        if (x0 < start[y]) {
+            start[y] = x0;
+        }
+        if (x1 > end[y]) {
+            end[y] = x1;
+        }
+    }
+
+    /**
+     * Marks all pixels of the raster as changed.
+     */
+    void markAll() {
+        Arrays.fill(start, 0);
+        Arrays.fill(end, width);
+    }
+
+    /**
+     * Returns the X coordinate of the first changed pixel of the row y,
+     * inclusive.
+     * 
+     * @param y
+     *            the Y coordinate of the row
+     * @return the X coordinate of the first changed pixel
+     */
+    int start(int y) {
+        return start[y];
+    }
+
+    /**
+     * Returns the X coordinate of the last changed pixel of the row y,
+     * exclusive. Row has no changed pixels if it is not bigger than
+     * {@link #start(int)}.
+     * 
+     * @param y
+     *            the Y coordinate of the row
+     * @return the X coordinate of the last changed pixel
+     */
+    int end(int y) {
+        return end[y];
+    }
+
+    /**
+     * Forgets all changed pixels. Region they covered is remembered as
+     * cleared.
+     */
+    void reset() {
+        cleared = getChanged();
+
+        for (int y = cleared.getY(); y < cleared.getMaxY(); y++) {
+            start[y] = width;
+            end[y] = 0;
+        }
+    }
+
+    /**
+     * Returns the smallest region containing all changed pixels.
+     * 
+     * @return the smallest region containing all changed pixels
+     */
+    Bounds getChanged() {
+        int minX = width;
+        int maxX = 0;
+        int minY = -1;
+        int maxY = -1;
+
+        for (int y = 0; y < start.length; y++) {
+            if (start[y] < end[y]) {
+                if (minY < 0) {
+                    minY = y;
+                }
+                maxY = y;
+                minX = Math.min(minX, start[y]);
+                maxX = Math.max(maxX, end[y]);
+            }
+        }
+
+        if (minY < 0) {
+            return Bounds.EMPTY;
+        }
+        return Bounds.fromCorners(minX, minY, maxX, maxY + 1);
+    }
+
+    /**
+     * Returns the smallest region containing all changed pixels and all
+     * pixels turned off by the last call to {@link #reset()}.
+     * 
+     * @return the dirty region of the raster
+     */
+    Bounds getDirtyRegion() {
+        return cleared.union(getChanged());
+    }
+
+}
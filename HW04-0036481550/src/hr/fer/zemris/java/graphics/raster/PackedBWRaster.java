@@ -0,0 +1,523 @@
+package hr.fer.zemris.java.graphics.raster;
+
+import hr.fer.zemris.java.graphics.metrics.Instrumentation;
+
+/**
+ * Base class for Black-and-White rasters which pack 64 pixels into every
+ * {@code long} word. Each row starts at the beginning of a new word, so a
+ * pixel at (x, y) is stored in bit {@code x % 64} of the word at index
+ * {@code y * wordsPerRow + x / 64}. Bits of the last word of a row which lie
+ * beyond the width of the raster are always zero.
+ * <p>
+ * Subclasses only decide where the words are stored by implementing
+ * {@link #getWord(int)} and {@link #writeWord(int, long)}; all pixel and span
+ * operations, including flip mode, are implemented here on top of them.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+public abstract class PackedBWRaster implements BWRaster {
+
+    /**
+     * Span operation which turns pixels on.
+     */
+    private static final int SET = 0;
+
+    /**
+     * Span operation which turns pixels off.
+     */
+    private static final int CLEAR = 1;
+
+    /**
+     * Span operation which flips pixels.
+     */
+    private static final int FLIP = 2;
+
+    /**
+     * Width of the raster.
+     */
+    private int width;
+
+    /**
+     * Height of the raster.
+     */
+    private int height;
+
+    /**
+     * Number of words used by a single row of the raster.
+     */
+    private int wordsPerRow;
+
+    /**
+     * Mask of the bits of the last word in a row which are inside of the
+     * raster.
+     */
+    private long lastWordMask;
+
+    /**
+     * Flag showing if raster is currently in flip mode
+     */
+    private boolean flip;
+
+    /**
+     * Pixels changed since the raster was last cleared; {@code null} if
+     * changed pixels are not tracked.
+     */
+    private DirtyRows dirty;
+
+    /**
+     * Initializes a {@code PackedBWRaster} with specified width and height
+     * which keeps track of the changed pixels.
+     * 
+     * @param width
+     *            width of the raster
+     * @param height
+     *            height of the raster
+     */
+    protected PackedBWRaster(int width, int height) {
+        this(width, height, true);
+    }
+
+    /**
+     * Initializes a {@code PackedBWRaster} with specified width and height.
+     * Raster which doesn't keep track of the changed pixels doesn't allocate
+     * anything for them; its {@link #clear()} turns off the whole raster and
+     * its {@link #getDirtyRegion()} always returns the whole raster.
+     * 
+     * @param width
+     *            width of the raster
+     * @param height
+     *            height of the raster
+     * @param trackDirty
+     *            {@code true} if changed pixels should be tracked
+     */
+    protected PackedBWRaster(int width, int height, boolean trackDirty) {
+        checkSize(width, height);
+
+        this.wordsPerRow = (width + 63) >>> 6;
+        this.width = width;
+        this.height = height;
+        this.lastWordMask = -1L >>> -width;
+        this.flip = false;
+        this.dirty = trackDirty ? new DirtyRows(width, height) : null;
+    }
+
+    /**
+     * Checks if a packed raster with specified width and height can be
+     * created, so that subclasses can validate the size before acquiring any
+     * resources.
+     * 
+     * @param width
+     *            width of the raster
+     * @param height
+     *            height of the raster
+     * @throws IndexOutOfBoundsException
+     *             if width or height isn't positive
+     * @throws IllegalArgumentException
+     *             if raster has more than {@link Integer#MAX_VALUE} words
+     */
+    static void checkSize(int width, int height) {
+        if (width <= 0) {
+            throw new IndexOutOfBoundsException("Width can't be negative!");
+        } else if (height <= 0) {
+            throw new IndexOutOfBoundsException("Heigth can't be negative!");
+        }
+
+        if ((long) ((width + 63) >>> 6) * height > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(
+                    "Raster " + width + "x" + height + " is too big!");
+        }
+    }
+
+    /**
+     * Returns the word at specified index.
+     * 
+     * @param index
+     *            index of the word
+     * @return the word at specified index
+     */
+    public abstract long getWord(int index);
+
+    /**
+     * Stores the word at specified index. Callers guarantee that the bits
+     * beyond the width of the raster are zero.
+     * 
+     * @param index
+     *            index of the word
+     * @param word
+     *            new value of the word
+     */
+    protected abstract void writeWord(int index, long word);
+
+    /**
+     * Replaces the word at specified index. Bits which lie beyond the width of
+     * the raster are ignored.
+     * 
+     * @param index
+     *            index of the word
+     * @param word
+     *            new value of the word
+     */
+    public void setWord(int index, long word) {
+        int y = index / wordsPerRow;
+        int column = index - y * wordsPerRow;
+
+        if (column == wordsPerRow - 1) {
+            word &= lastWordMask;
+        }
+
+        markDirty(y, column << 6, Math.min(width, (column + 1) << 6));
+        writeWord(index, word);
+    }
+
+    /**
+     * Sets the bits of the word at specified index which are set in the mask.
+     * 
+     * @param index
+     *            index of the word
+     * @param mask
+     *            bits to be set
+     */
+    protected void orWord(int index, long mask) {
+        writeWord(index, getWord(index) | mask);
+    }
+
+    /**
+     * Clears the bits of the word at specified index which are not set in the
+     * mask.
+     * 
+     * @param index
+     *            index of the word
+     * @param mask
+     *            bits to be kept
+     */
+    protected void andWord(int index, long mask) {
+        writeWord(index, getWord(index) & mask);
+    }
+
+    /**
+     * Flips the bits of the word at specified index which are set in the mask.
+     * 
+     * @param index
+     *            index of the word
+     * @param mask
+     *            bits to be flipped
+     */
+    protected void xorWord(int index, long mask) {
+        writeWord(index, getWord(index) ^ mask);
+    }
+
+    /**
+     * Sets the words from index {@code from} (inclusive) to index {@code to}
+     * (exclusive) to zero.
+     * 
+     * @param from
+     *            index of the first word, inclusive
+     * @param to
+     *            index of the last word, exclusive
+     */
+    protected void clearWords(int from, int to) {
+        for (int i = from; i < to; i++) {
+            writeWord(i, 0L);
+        }
+    }
+
+    /**
+     * Marks pixels of the row y from x0 (inclusive) to x1 (exclusive) as
+     * changed, so that they are turned off by the next call to
+     * {@link #clear()} and included in {@link #getDirtyRegion()}.
+     * 
+     * @param y
+     *            the Y coordinate of the row
+     * @param x0
+     *            the X coordinate of the first pixel, inclusive
+     * @param x1
+     *            the X coordinate of the last pixel, exclusive
+     */
+    protected void markDirty(int y, int x0, int x1) {
+        if (dirty != null) {
+            dirty.mark(y, x0, x1);
+        }
+    }
+
+    /**
+     * Forgets all changed pixels. Subclasses which override {@link #clear()}
+     * must call this method once all pixels have been turned off.
+     */
+    protected void resetDirtyRegion() {
+        if (dirty != null) {
+            dirty.reset();
+        }
+    }
+
+    /**
+     * Checks if this raster keeps track of the changed pixels.
+     * 
+     * @return {@code true} if changed pixels are tracked; {@code false}
+     *         otherwise
+     */
+    boolean tracksDirtyRegion() {
+        return dirty != null;
+    }
+
+    /**
+     * Returns the number of words used by a single row of the raster.
+     * 
+     * @return the number of words used by a single row of the raster
+     */
+    public int getWordsPerRow() {
+        return wordsPerRow;
+    }
+
+    /**
+     * Returns the index of the word containing pixel at specified coordinates.
+     * Shifting a {@code long} uses only the lowest six bits of the shift
+     * distance, so {@code 1L << x} is already the mask of the pixel inside
+     * that word.
+     * 
+     * @param x
+     *            the X coordinate of the pixel location
+     * @param y
+     *            the Y coordinate of the pixel location
+     * @return index of the word containing specified pixel
+     */
+    public int wordIndex(int x, int y) {
+        return y * wordsPerRow + (x >>> 6);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Turns off all pixels. Only the words containing pixels which have been
+     * changed since the last call are written, or all words if changed pixels
+     * are not tracked.
+     */
+    @Override
+    public void clear() {
+        if (dirty == null) {
+            clearWords(0, wordsPerRow * height);
+            return;
+        }
+
+        for (int y = 0; y < height; y++) {
+            int start = dirty.start(y);
+            int end = dirty.end(y);
+
+            if (start < end) {
+                clearWords(wordIndex(start, y), wordIndex(end - 1, y) + 1);
+            }
+        }
+
+        resetDirtyRegion();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Bounds getDirtyRegion() {
+        return dirty == null ? getBounds() : dirty.getDirtyRegion();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void turnOn(int x, int y) {
+        if (!isValidPixel(x, y)) {
+            return;
+        }
+
+        markDirty(y, x, x + 1);
+        Instrumentation.pixelWritten(flip);
+        if (flip == false) {
+            orWord(wordIndex(x, y), 1L << x);
+        } else {
+            xorWord(wordIndex(x, y), 1L << x);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void turnOff(int x, int y) {
+        if (!isValidPixel(x, y)) {
+            return;
+        }
+
+        markDirty(y, x, x + 1);
+        Instrumentation.pixelWritten(false);
+        andWord(wordIndex(x, y), ~(1L << x));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void turnOnSpan(int x0, int x1, int y) {
+        applySpan(x0, x1, y, flip ? FLIP : SET);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void turnOffSpan(int x0, int x1, int y) {
+        applySpan(x0, x1, y, CLEAR);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void flipSpan(int x0, int x1, int y) {
+        applySpan(x0, x1, y, FLIP);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void enableFlipMode() {
+        flip = true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void disableFlipMode() {
+        flip = false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isTurnedOn(int x, int y) {
+        if (!isValidPixel(x, y)) {
+            return false;
+        }
+
+        return (getWord(wordIndex(x, y)) & (1L << x)) != 0;
+    }
+
+    /**
+     * Applies the given operation to every pixel of the row y from x0
+     * (inclusive) to x1 (exclusive). Whole words inside of the span are
+     * written at once, only the first and the last word are masked.
+     * 
+     * @param x0
+     *            the X coordinate of the first pixel of the span, inclusive
+     * @param x1
+     *            the X coordinate of the last pixel of the span, exclusive
+     * @param y
+     *            the Y coordinate of the span
+     * @param operation
+     *            one of {@link #SET}, {@link #CLEAR} or {@link #FLIP}
+     */
+    private void applySpan(int x0, int x1, int y, int operation) {
+        x0 = Math.max(x0, 0);
+        x1 = Math.min(x1, width);
+        if (x0 >= x1 || y < 0 || y >= height) {
+            return;
+        }
+
+        markDirty(y, x0, x1);
+        Instrumentation.spanWritten(x1 - x0, operation == FLIP);
+
+        int first = wordIndex(x0, y);
+        int last = wordIndex(x1 - 1, y);
+        long firstMask = -1L << x0;
+        long lastMask = -1L >>> -x1;
+
+        if (first == last) {
+            applyWord(first, firstMask & lastMask, operation);
+            return;
+        }
+
+        applyWord(first, firstMask, operation);
+        for (int i = first + 1; i < last; i++) {
+            applyWord(i, -1L, operation);
+        }
+        applyWord(last, lastMask, operation);
+    }
+
+    /**
+     * Applies the given operation to the bits of the word at specified index
+     * which are set in the mask.
+     * 
+     * @param index
+     *            index of the word
+     * @param mask
+     *            bits of the word to be changed
+     * @param operation
+     *            one of {@link #SET}, {@link #CLEAR} or {@link #FLIP}
+     */
+    private void applyWord(int index, long mask, int operation) {
+        switch (operation) {
+            case SET:
+                orWord(index, mask);
+                break;
+            case CLEAR:
+                andWord(index, ~mask);
+                break;
+            default:
+                xorWord(index, mask);
+                break;
+        }
+    }
+
+    /**
+     * Checks if pixel at specified coordinates is in boundaries of this raster.
+     * 
+     * @param x
+     *            the X coordinate of the pixel location
+     * @param y
+     *            the Y coordinate of the pixel location
+     * @return {@code true} if pixel is in boundaries of this raster;
+     *         {@code false} otherwise
+     */
+    private boolean isValidPixel(int x, int y) {
+        return x >= 0 && x < this.width && y >= 0 && y < this.height;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        int width = getWidth();
+        int height = getHeight();
+
+        StringBuilder builder = new StringBuilder();
+        for (int y = 0; y < height; y++) {
+            builder.append(System.lineSeparator());
+            for (int x = 0; x < width; x++) {
+                if (isTurnedOn(x, y)) {
+                    builder.append("*");
+                } else {
+                    builder.append(".");
+                }
+            }
+        }
+
+        return builder.toString();
+    }
+
+}
@@ -0,0 +1,439 @@
+package hr.fer.zemris.java.graphics.raster;
+
+/**
+ * Bulk boolean operations between rasters. A source raster is combined with
+ * a destination raster pixel by pixel, where the source pixel at (x, y) is
+ * combined with the destination pixel at (x + dx, y + dy). Only the
+ * destination pixels inside of the bounds of both rasters and the clip
+ * region are changed.
+ * <p>
+ * Rows are processed 64 pixels at a time. Source pixels are gathered into
+ * words aligned to the words of the destination, shifting packed source
+ * words when the offset is not a multiple of 64, and the words are then
+ * combined in tight loops over plain arrays. Packed destinations get the
+ * resulting words written back directly; other rasters are read pixel by
+ * pixel and changed by flipping runs of changed pixels. Flip mode of the
+ * destination doesn't affect these operations.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+public final class RasterOps {
+
+    /**
+     * Prevents creating instances of this class.
+     */
+    private RasterOps() {
+    }
+
+    /**
+     * Combines the whole source with the destination at the same
+     * coordinates.
+     * 
+     * @param source
+     *            the source raster
+     * @param destination
+     *            the destination raster, which may be the source itself
+     * @param operation
+     *            the operation
+     */
+    public static void composite(
+            BWRaster source,
+            BWRaster destination,
+            CompositeOperation operation) {
+        if (destination == null) {
+            throw new IllegalArgumentException(
+                    "You can't provide null as argument!");
+        }
+
+        composite(source, destination, operation, 0, 0,
+                destination.getBounds());
+    }
+
+    /**
+     * Combines the source with the destination moved by the given offset,
+     * changing only the destination pixels inside of the clip region.
+     * 
+     * @param source
+     *            the source raster
+     * @param destination
+     *            the destination raster, which may be the source itself
+     * @param operation
+     *            the operation
+     * @param dx
+     *            offset of the source along the X axis
+     * @param dy
+     *            offset of the source along the Y axis
+     * @param clip
+     *            region of the destination which can be changed
+     */
+    public static void composite(
+            BWRaster source,
+            BWRaster destination,
+            CompositeOperation operation,
+            int dx,
+            int dy,
+            Bounds clip) {
+        if (source == null || destination == null || operation == null
+                || clip == null) {
+            throw new IllegalArgumentException(
+                    "You can't provide null as argument!");
+        }
+
+        Bounds target = destination.getBounds().intersection(clip);
+        Bounds from = source.getBounds();
+        if (target.isEmpty() || from.isEmpty()) {
+            return;
+        }
+
+        // bounds of the moved source could overflow, so they are clamped
+        long x0 = Math.max((long) from.getX() + dx, target.getX());
+        long y0 = Math.max((long) from.getY() + dy, target.getY());
+        long x1 = Math.min((long) from.getMaxX() + dx, target.getMaxX());
+        long y1 = Math.min((long) from.getMaxY() + dy, target.getMaxY());
+        if (x0 >= x1 || y0 >= y1) {
+            return;
+        }
+
+        Bounds region = Bounds.fromCorners(x0, y0, x1, y1);
+        new RowCompositor(source, destination, operation, dx, dy, region)
+                .run();
+    }
+
+    /**
+     * Composites a region row by row using buffers allocated once per call.
+     * 
+     * @author Karlo Vrbić
+     * @version 1.0
+     */
+    private static class RowCompositor {
+
+        /**
+         * The source raster.
+         */
+        private BWRaster source;
+
+        /**
+         * The destination raster.
+         */
+        private BWRaster destination;
+
+        /**
+         * The operation.
+         */
+        private CompositeOperation operation;
+
+        /**
+         * Offset of the source along the X axis.
+         */
+        private int dx;
+
+        /**
+         * Offset of the source along the Y axis.
+         */
+        private int dy;
+
+        /**
+         * Region of the destination which is changed.
+         */
+        private Bounds region;
+
+        /**
+         * Index of the first destination word of a row in the region.
+         */
+        private int firstWord;
+
+        /**
+         * Number of destination words of a row in the region.
+         */
+        private int words;
+
+        /**
+         * Source pixels aligned to the destination words.
+         */
+        private long[] sourceRow;
+
+        /**
+         * Words of the packed source row, with a zero word at both ends.
+         */
+        private long[] packedRow;
+
+        /**
+         * Destination words, first before and then after the operation.
+         */
+        private long[] targetRow;
+
+        /**
+         * Destination words before the operation.
+         */
+        private long[] oldRow;
+
+        /**
+         * Constructs a {@code RowCompositor} for the given region.
+         * 
+         * @param source
+         *            the source raster
+         * @param destination
+         *            the destination raster
+         * @param operation
+         *            the operation
+         * @param dx
+         *            offset of the source along the X axis
+         * @param dy
+         *            offset of the source along the Y axis
+         * @param region
+         *            region of the destination which is changed
+         */
+        public RowCompositor(
+                BWRaster source,
+                BWRaster destination,
+                CompositeOperation operation,
+                int dx,
+                int dy,
+                Bounds region) {
+            this.source = source;
+            this.destination = destination;
+            this.operation = operation;
+            this.dx = dx;
+            this.dy = dy;
+            this.region = region;
+
+            this.firstWord = region.getX() >>> 6;
+            this.words = ((region.getMaxX() - 1) >>> 6) - firstWord + 1;
+            this.sourceRow = new long[words];
+            this.targetRow = new long[words];
+            this.oldRow = new long[words];
+
+            if (source instanceof PackedBWRaster) {
+                int wordsPerRow = ((PackedBWRaster) source).getWordsPerRow();
+                this.packedRow = new long[wordsPerRow + 2];
+            }
+        }
+
+        /**
+         * Processes all rows of the region. When a raster is combined with
+         * itself moved down, rows are processed from the bottom, so that
+         * every source row is read before it is changed.
+         */
+        public void run() {
+            if (source == destination && dy > 0) {
+                for (int y = region.getMaxY() - 1; y >= region.getY(); y--) {
+                    processRow(y);
+                }
+            } else {
+                for (int y = region.getY(); y < region.getMaxY(); y++) {
+                    processRow(y);
+                }
+            }
+        }
+
+        /**
+         * Combines a single row of the destination with the source.
+         * 
+         * @param y
+         *            the Y coordinate of the destination row
+         */
+        private void processRow(int y) {
+            if (source instanceof PackedBWRaster) {
+                gatherPacked((PackedBWRaster) source, y - dy);
+            } else {
+                gatherPixels(source, y - dy, dx, sourceRow);
+            }
+
+            if (destination instanceof PackedBWRaster) {
+                PackedBWRaster packed = (PackedBWRaster) destination;
+                int base = packed.wordIndex(0, y) + firstWord;
+                for (int i = 0; i < words; i++) {
+                    targetRow[i] = packed.getWord(base + i);
+                }
+            } else {
+                gatherPixels(destination, y, 0, targetRow);
+            }
+
+            System.arraycopy(targetRow, 0, oldRow, 0, words);
+            combine();
+            keepOutsidePixels();
+
+            if (destination instanceof PackedBWRaster) {
+                writePacked((PackedBWRaster) destination, y);
+            } else {
+                writePixels(destination, y);
+            }
+        }
+
+        /**
+         * Gathers the pixels of a packed source row into words aligned to the
+         * destination words by shifting and joining pairs of source words.
+         * 
+         * @param raster
+         *            the source raster
+         * @param sy
+         *            the Y coordinate of the source row
+         */
+        private void gatherPacked(PackedBWRaster raster, int sy) {
+            int wordsPerRow = raster.getWordsPerRow();
+            int base = raster.wordIndex(0, sy);
+
+            // source bit of the first bit of the first destination word
+            long start = ((long) firstWord << 6) - dx;
+            int first = (int) Math.max(0, start >> 6);
+            int last = (int) Math.min(
+                    wordsPerRow - 1,
+                    (start + ((long) words << 6)) >> 6);
+            for (int w = first; w <= last; w++) {
+                packedRow[w + 1] = raster.getWord(base + w);
+            }
+
+            int shift = (int) (start & 63);
+            int index = (int) (start >> 6) + 1;
+            if (shift == 0) {
+                System.arraycopy(packedRow, index, sourceRow, 0, words);
+            } else {
+                for (int i = 0; i < words; i++, index++) {
+                    sourceRow[i] = (packedRow[index] >>> shift)
+                            | (packedRow[index + 1] << (64 - shift));
+                }
+            }
+        }
+
+        /**
+         * Gathers the pixels of a row of a raster which is not packed into
+         * words aligned to the destination words. Only the pixels of the
+         * region are read.
+         * 
+         * @param raster
+         *            the raster
+         * @param y
+         *            the Y coordinate of the row in the raster
+         * @param offset
+         *            offset of the raster along the X axis
+         * @param row
+         *            array receiving the words
+         */
+        private void gatherPixels(
+                BWRaster raster,
+                int y,
+                int offset,
+                long[] row) {
+            for (int i = 0; i < words; i++) {
+                long word = 0;
+                int x = (firstWord + i) << 6;
+                int from = Math.max(x, region.getX());
+                int to = Math.min(x + 64, region.getMaxX());
+
+                for (int px = from; px < to; px++) {
+                    if (raster.isTurnedOn(px - offset, y)) {
+                        word |= 1L << px;
+                    }
+                }
+                row[i] = word;
+            }
+        }
+
+        /**
+         * Combines the destination words with the source words. Every
+         * operation has its own loop over plain arrays, which the JIT
+         * compiler can unroll and vectorize.
+         */
+        private void combine() {
+            long[] target = targetRow;
+            long[] from = sourceRow;
+            int n = words;
+
+            switch (operation) {
+                case AND:
+                    for (int i = 0; i < n; i++) {
+                        target[i] &= from[i];
+                    }
+                    break;
+                case OR:
+                    for (int i = 0; i < n; i++) {
+                        target[i] |= from[i];
+                    }
+                    break;
+                case XOR:
+                    for (int i = 0; i < n; i++) {
+                        target[i] ^= from[i];
+                    }
+                    break;
+                case AND_NOT:
+                    for (int i = 0; i < n; i++) {
+                        target[i] &= ~from[i];
+                    }
+                    break;
+                default:
+                    for (int i = 0; i < n; i++) {
+                        target[i] = ~from[i];
+                    }
+                    break;
+            }
+        }
+
+        /**
+         * Restores the bits of the first and the last word which lie outside
+         * of the region.
+         */
+        private void keepOutsidePixels() {
+            long firstMask = -1L << region.getX();
+            long lastMask = -1L >>> -region.getMaxX();
+
+            int last = words - 1;
+
+            targetRow[0] = (oldRow[0] & ~firstMask)
+                    | (targetRow[0] & firstMask);
+            targetRow[last] = (oldRow[last] & ~lastMask)
+                    | (targetRow[last] & lastMask);
+        }
+
+        /**
+         * Writes the changed words back to a packed destination.
+         * 
+         * @param raster
+         *            the destination raster
+         * @param y
+         *            the Y coordinate of the row
+         */
+        private void writePacked(PackedBWRaster raster, int y) {
+            int base = raster.wordIndex(0, y) + firstWord;
+            boolean changed = false;
+
+            for (int i = 0; i < words; i++) {
+                if (targetRow[i] != oldRow[i]) {
+                    raster.writeWord(base + i, targetRow[i]);
+                    changed = true;
+                }
+            }
+
+            if (changed) {
+                raster.markDirty(y, region.getX(), region.getMaxX());
+            }
+        }
+
+        /**
+         * Changes the pixels of a destination which is not packed by flipping
+         * every run of changed pixels.
+         * 
+         * @param raster
+         *            the destination raster
+         * @param y
+         *            the Y coordinate of the row
+         */
+        private void writePixels(BWRaster raster, int y) {
+            for (int i = 0; i < words; i++) {
+                long changed = targetRow[i] ^ oldRow[i];
+                int x = (firstWord + i) << 6;
+
+                while (changed != 0) {
+                    int start = Long.numberOfTrailingZeros(changed);
+                    int end = Long.numberOfTrailingZeros(~(changed >>> start))
+                            + start;
+
+                    raster.flipSpan(x + start, x + end, y);
+                    changed &= end == 64 ? 0 : -1L << end;
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,209 @@
+package hr.fer.zemris.java.graphics.render;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import hr.fer.zemris.java.graphics.raster.BWRaster;
+import hr.fer.zemris.java.graphics.raster.Bounds;
+import hr.fer.zemris.java.graphics.raster.ClippedRaster;
+import hr.fer.zemris.java.graphics.shapes.GeometricShape;
+
+/**
+ * {@code ParallelRenderer} draws a batch of shapes on a raster using all
+ * available processors. The raster is divided into horizontal bands and every
+ * band is drawn by its own fork-join task, which draws all shapes in their
+ * original order but changes only the pixels of its band. Bands never share
+ * pixels, so tasks don't contend for them and the result, even in flip mode,
+ * is exactly the same as if the shapes were drawn one after another. Shapes
+ * whose bounds don't intersect a band are skipped by its task.
+ * <p>
+ * Flip mode of the raster must not be changed while shapes are being drawn.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+public class ParallelRenderer {
+
+    /**
+     * Default height of a band in pixels.
+     */
+    public static final int DEFAULT_BAND_HEIGHT = 64;
+
+    /**
+     * Pool executing the tasks.
+     */
+    private ForkJoinPool pool;
+
+    /**
+     * Height of a band in pixels.
+     */
+    private int bandHeight;
+
+    /**
+     * Constructs a {@code ParallelRenderer} which uses the common fork-join
+     * pool and bands of the default height.
+     */
+    public ParallelRenderer() {
+        this(ForkJoinPool.commonPool(), DEFAULT_BAND_HEIGHT);
+    }
+
+    /**
+     * Constructs a {@code ParallelRenderer} which uses the given pool and
+     * bands of the given height. Height is rounded up to a multiple of 64, so
+     * that bands never share a tile of a {@code BWRasterTiled}.
+     * 
+     * @param pool
+     *            pool executing the tasks
+     * @param bandHeight
+     *            height of a band in pixels
+     */
+    public ParallelRenderer(ForkJoinPool pool, int bandHeight) {
+        if (pool == null) {
+            throw new IllegalArgumentException(
+                    "You can't provide null as argument!");
+        } else if (bandHeight <= 0) {
+            throw new IllegalArgumentException(
+                    "Band height must be positive!");
+        }
+
+        this.pool = pool;
+        this.bandHeight = (bandHeight + 63) & ~63;
+    }
+
+    /**
+     * Draws the given shapes on the raster.
+     * 
+     * @param shapes
+     *            shapes to be drawn, in drawing order
+     * @param raster
+     *            raster on which shapes will be drawn
+     */
+    public void render(GeometricShape[] shapes, BWRaster raster) {
+        if (shapes == null) {
+            throw new IllegalArgumentException(
+                    "You can't provide null as argument!");
+        }
+
+        render(Arrays.asList(shapes), raster);
+    }
+
+    /**
+     * Draws the given shapes on the raster.
+     * 
+     * @param shapes
+     *            shapes to be drawn, in drawing order
+     * @param raster
+     *            raster on which shapes will be drawn
+     */
+    public void render(List<? extends GeometricShape> shapes, BWRaster raster) {
+        if (shapes == null || raster == null) {
+            throw new IllegalArgumentException(
+                    "You can't provide null as argument!");
+        }
+
+        for (GeometricShape shape : shapes) {
+            if (shape == null) {
+                throw new IllegalArgumentException("Shape can't be null!");
+            }
+        }
+
+        Bounds bounds = raster.getBounds();
+        if (bounds.isEmpty()) {
+            return;
+        }
+
+        int bands = (bounds.getHeight() + bandHeight - 1) / bandHeight;
+        pool.invoke(new BandTask(shapes, raster, 0, bands));
+    }
+
+    /**
+     * Task drawing shapes on a range of bands. Ranges with more than one band
+     * are split in half.
+     * 
+     * @author Karlo Vrbić
+     * @version 1.0
+     */
+    private class BandTask extends RecursiveAction {
+
+        /**
+         * Serial version UID.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Shapes to be drawn.
+         */
+        private List<? extends GeometricShape> shapes;
+
+        /**
+         * Raster on which shapes will be drawn.
+         */
+        private BWRaster raster;
+
+        /**
+         * Index of the first band, inclusive.
+         */
+        private int first;
+
+        /**
+         * Index of the last band, exclusive.
+         */
+        private int last;
+
+        /**
+         * Constructs a {@code BandTask} for the given range of bands.
+         * 
+         * @param shapes
+         *            shapes to be drawn
+         * @param raster
+         *            raster on which shapes will be drawn
+         * @param first
+         *            index of the first band, inclusive
+         * @param last
+         *            index of the last band, exclusive
+         */
+        public BandTask(
+                List<? extends GeometricShape> shapes,
+                BWRaster raster,
+                int first,
+                int last) {
+            this.shapes = shapes;
+            this.raster = raster;
+            this.first = first;
+            this.last = last;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void compute() {
+            if (last - first > 1) {
+                int middle = (first + last) >>> 1;
+                invokeAll(
+                        new BandTask(shapes, raster, first, middle),
+                        new BandTask(shapes, raster, middle, last));
+                return;
+            }
+
+            Bounds bounds = raster.getBounds();
+            Bounds band = new Bounds(
+                    bounds.getX(),
+                    bounds.getY() + first * bandHeight,
+                    bounds.getWidth(),
+                    bandHeight);
+            BWRaster clipped = new ClippedRaster(raster, band);
+
+            band = clipped.getBounds();
+            for (GeometricShape shape : shapes) {
+                if (shape.getBounds().intersects(band)) {
+                    shape.draw(clipped);
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,322 @@
+package hr.fer.zemris.java.graphics.render;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import hr.fer.zemris.java.graphics.raster.BWRaster;
+import hr.fer.zemris.java.graphics.raster.Bounds;
+import hr.fer.zemris.java.graphics.raster.ClippedRaster;
+import hr.fer.zemris.java.graphics.shapes.GeometricShape;
+import hr.fer.zemris.java.graphics.shapes.ShapeIndex;
+
+/**
+ * {@code RetainedScene} keeps an ordered list of shapes drawn on a raster and
+ * redraws only the parts of the raster changed by adding, removing or moving
+ * shapes. Every change invalidates the bounds of the shapes it affects and
+ * {@link #render()} then redraws every invalid region from scratch: the
+ * region is cleared and all shapes intersecting it are drawn again in their
+ * order, clipped to the region. Each shape is drawn either normally or in
+ * flip mode, so the result is always the same as if the whole scene was
+ * drawn on a cleared raster, and the cost of an edit depends only on the
+ * area it affects and the shapes in that area.
+ * <p>
+ * Shapes are found through a {@link ShapeIndex}, so they are compared by
+ * identity and must not change while they are in the scene. The scene owns
+ * all pixels of its raster and leaves its flip mode disabled after
+ * rendering.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+public class RetainedScene {
+
+    /**
+     * Raster on which the scene is drawn.
+     */
+    private BWRaster raster;
+
+    /**
+     * Shapes of the scene in drawing order.
+     */
+    private ShapeIndex index;
+
+    /**
+     * Shapes which are drawn in flip mode.
+     */
+    private Set<GeometricShape> flipped;
+
+    /**
+     * Regions which have to be redrawn, none of which intersect.
+     */
+    private List<Bounds> invalid;
+
+    /**
+     * Constructs an empty {@code RetainedScene} which draws on the given
+     * raster. The whole raster is invalid, so the first call of
+     * {@link #render()} clears it.
+     * 
+     * @param raster
+     *            raster on which the scene is drawn
+     */
+    public RetainedScene(BWRaster raster) {
+        this(raster, ShapeIndex.DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * Constructs an empty {@code RetainedScene} which draws on the given
+     * raster and finds its shapes through an index with cells of the given
+     * size.
+     * 
+     * @param raster
+     *            raster on which the scene is drawn
+     * @param cellSize
+     *            width and height of a cell of the index
+     */
+    public RetainedScene(BWRaster raster, int cellSize) {
+        if (raster == null) {
+            throw new IllegalArgumentException(
+                    "You can't provide null as argument!");
+        }
+
+        this.raster = raster;
+        this.index = new ShapeIndex(cellSize);
+        this.flipped = Collections.newSetFromMap(new IdentityHashMap<>());
+        this.invalid = new ArrayList<>();
+
+        invalidate(raster.getBounds());
+    }
+
+    /**
+     * Returns the number of shapes in the scene.
+     * 
+     * @return the number of shapes in the scene
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Checks if the shape is in the scene.
+     * 
+     * @param shape
+     *            the shape
+     * @return {@code true} if the shape is in the scene; {@code false}
+     *         otherwise
+     */
+    public boolean contains(GeometricShape shape) {
+        return index.contains(shape);
+    }
+
+    /**
+     * Checks if the shape is drawn in flip mode.
+     * 
+     * @param shape
+     *            the shape
+     * @return {@code true} if the shape is in the scene and is drawn in flip
+     *         mode; {@code false} otherwise
+     */
+    public boolean isFlipped(GeometricShape shape) {
+        return flipped.contains(shape);
+    }
+
+    /**
+     * Adds the shape on top of all shapes of the scene.
+     * 
+     * @param shape
+     *            shape to be added
+     * @throws IllegalArgumentException
+     *             if shape is already in the scene
+     */
+    public void add(GeometricShape shape) {
+        add(shape, false);
+    }
+
+    /**
+     * Adds the shape on top of all shapes of the scene.
+     * 
+     * @param shape
+     *            shape to be added
+     * @param flip
+     *            {@code true} if the shape is drawn in flip mode
+     * @throws IllegalArgumentException
+     *             if shape is already in the scene
+     */
+    public void add(GeometricShape shape, boolean flip) {
+        index.add(shape);
+        if (flip) {
+            flipped.add(shape);
+        }
+
+        invalidate(shape.getBounds());
+    }
+
+    /**
+     * Removes the shape from the scene.
+     * 
+     * @param shape
+     *            shape to be removed
+     * @return {@code true} if shape was in the scene; {@code false}
+     *         otherwise
+     */
+    public boolean remove(GeometricShape shape) {
+        if (!index.remove(shape)) {
+            return false;
+        }
+
+        flipped.remove(shape);
+        invalidate(shape.getBounds());
+        return true;
+    }
+
+    /**
+     * Replaces a shape of the scene with another one which keeps its place
+     * in the drawing order and its flip mode.
+     * 
+     * @param oldShape
+     *            shape to be replaced
+     * @param newShape
+     *            shape taking its place
+     * @throws IllegalArgumentException
+     *             if old shape is not in the scene or new shape already is
+     */
+    public void replace(GeometricShape oldShape, GeometricShape newShape) {
+        index.replace(oldShape, newShape);
+        if (flipped.remove(oldShape)) {
+            flipped.add(newShape);
+        }
+
+        invalidate(oldShape.getBounds());
+        invalidate(newShape.getBounds());
+    }
+
+    /**
+     * Moves the shape by the given offset. The shape is replaced by its
+     * compiled form moved by the offset, which is returned and which has to
+     * be used for later changes of the shape.
+     * 
+     * @param shape
+     *            shape to be moved
+     * @param dx
+     *            offset along the X axis
+     * @param dy
+     *            offset along the Y axis
+     * @return the moved shape which replaced the given one
+     * @throws IllegalArgumentException
+     *             if shape is not in the scene
+     */
+    public GeometricShape move(GeometricShape shape, int dx, int dy) {
+        if (!index.contains(shape)) {
+            throw new IllegalArgumentException("Shape is not in the scene!");
+        }
+
+        GeometricShape moved = shape.compile().translate(dx, dy);
+        replace(shape, moved);
+        return moved;
+    }
+
+    /**
+     * Marks the region of the raster as invalid, so that it is redrawn by
+     * the next call of {@link #render()}. Invalid regions which intersect or
+     * touch are merged into their common bounds.
+     * 
+     * @param region
+     *            region to be redrawn
+     */
+    public void invalidate(Bounds region) {
+        if (region == null) {
+            throw new IllegalArgumentException(
+                    "You can't provide null as argument!");
+        }
+
+        region = region.intersection(raster.getBounds());
+        if (region.isEmpty()) {
+            return;
+        }
+
+        for (int i = 0; i < invalid.size();) {
+            Bounds other = invalid.get(i);
+
+            if (touches(region, other)) {
+                region = region.union(other);
+                invalid.set(i, invalid.get(invalid.size() - 1));
+                invalid.remove(invalid.size() - 1);
+                // the grown region may now touch regions checked before
+                i = 0;
+            } else {
+                i++;
+            }
+        }
+
+        invalid.add(region);
+    }
+
+    /**
+     * Returns the regions which will be redrawn by the next call of
+     * {@link #render()}.
+     * 
+     * @return unmodifiable list of invalid regions
+     */
+    public List<Bounds> getInvalidRegions() {
+        return Collections.unmodifiableList(new ArrayList<>(invalid));
+    }
+
+    /**
+     * Redraws all invalid regions of the raster, after which no region is
+     * invalid.
+     * 
+     * @return number of shapes drawn, counting a shape once for every region
+     *         it was drawn in
+     */
+    public int render() {
+        int drawn = 0;
+
+        for (Bounds region : invalid) {
+            BWRaster clipped = new ClippedRaster(raster, region);
+            clipped.clear();
+
+            boolean flip = false;
+            raster.disableFlipMode();
+
+            for (GeometricShape shape : index.shapesIn(region)) {
+                boolean shapeFlip = flipped.contains(shape);
+                if (shapeFlip != flip) {
+                    if (shapeFlip) {
+                        raster.enableFlipMode();
+                    } else {
+                        raster.disableFlipMode();
+                    }
+                    flip = shapeFlip;
+                }
+
+                shape.draw(clipped);
+                drawn++;
+            }
+
+            raster.disableFlipMode();
+        }
+
+        invalid.clear();
+        return drawn;
+    }
+
+    /**
+     * Checks if two regions intersect or share an edge.
+     * 
+     * @param first
+     *            the first region
+     * @param second
+     *            the second region
+     * @return {@code true} if regions intersect or touch; {@code false}
+     *         otherwise
+     */
+    private static boolean touches(Bounds first, Bounds second) {
+        return first.getX() <= second.getMaxX()
+                && second.getX() <= first.getMaxX()
+                && first.getY() <= second.getMaxY()
+                && second.getY() <= first.getMaxY();
+    }
+
+}
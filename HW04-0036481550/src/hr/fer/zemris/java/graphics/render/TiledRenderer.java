@@ -0,0 +1,416 @@
+package hr.fer.zemris.java.graphics.render;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import hr.fer.zemris.java.graphics.raster.BWRaster;
+import hr.fer.zemris.java.graphics.raster.Bounds;
+import hr.fer.zemris.java.graphics.raster.ClippedRaster;
+import hr.fer.zemris.java.graphics.shapes.GeometricShape;
+
+/**
+ * {@code TiledRenderer} draws a batch of shapes on a raster one tile at a
+ * time. Shapes are first sorted into bins of square tiles by their bounds and
+ * then every tile is drawn with all shapes of its bin, in their original
+ * order, before the next tile is started. Pixels of a tile therefore stay in
+ * the processor cache while all shapes are drawn on them, instead of the
+ * whole raster being swept once for every shape. Every pixel sees the same
+ * shapes in the same order as if the shapes were drawn one after another, so
+ * the result is the same, even in flip mode.
+ * <p>
+ * Shapes spanning more than {@link #MAX_TILES_PER_SHAPE} tiles of a row would
+ * repeat their per-row work for every one of them, so they are drawn across
+ * the whole row of tiles at once. Small shapes drawn between two such shapes
+ * are still drawn tile by tile.
+ * <p>
+ * Rows of tiles are drawn in parallel by fork-join tasks. Tiles of a row are
+ * drawn one after another, because they share the rows of the raster and
+ * rasters keep track of changed pixels row by row.
+ * <p>
+ * Flip mode of the raster must not be changed while shapes are being drawn.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+public class TiledRenderer {
+
+    /**
+     * Default width and height of a tile in pixels.
+     */
+    public static final int DEFAULT_TILE_SIZE = 256;
+
+    /**
+     * Maximal number of tiles of a row a shape can span and still be drawn
+     * tile by tile.
+     */
+    public static final int MAX_TILES_PER_SHAPE = 2;
+
+    /**
+     * Pool executing the tasks.
+     */
+    private ForkJoinPool pool;
+
+    /**
+     * Width and height of a tile in pixels.
+     */
+    private int tileSize;
+
+    /**
+     * Constructs a {@code TiledRenderer} which uses the common fork-join pool
+     * and tiles of the default size.
+     */
+    public TiledRenderer() {
+        this(ForkJoinPool.commonPool(), DEFAULT_TILE_SIZE);
+    }
+
+    /**
+     * Constructs a {@code TiledRenderer} which uses the given pool and tiles
+     * of the given size. Size is rounded up to a multiple of 64, so that
+     * tiles never share a word of a packed raster.
+     * 
+     * @param pool
+     *            pool executing the tasks
+     * @param tileSize
+     *            width and height of a tile in pixels
+     */
+    public TiledRenderer(ForkJoinPool pool, int tileSize) {
+        if (pool == null) {
+            throw new IllegalArgumentException(
+                    "You can't provide null as argument!");
+        } else if (tileSize <= 0) {
+            throw new IllegalArgumentException(
+                    "Tile size must be positive!");
+        }
+
+        this.pool = pool;
+        this.tileSize = (tileSize + 63) & ~63;
+    }
+
+    /**
+     * Draws the given shapes on the raster.
+     * 
+     * @param shapes
+     *            shapes to be drawn, in drawing order
+     * @param raster
+     *            raster on which shapes will be drawn
+     */
+    public void render(GeometricShape[] shapes, BWRaster raster) {
+        if (shapes == null) {
+            throw new IllegalArgumentException(
+                    "You can't provide null as argument!");
+        }
+
+        render(Arrays.asList(shapes), raster);
+    }
+
+    /**
+     * Draws the given shapes on the raster.
+     * 
+     * @param shapes
+     *            shapes to be drawn, in drawing order
+     * @param raster
+     *            raster on which shapes will be drawn
+     */
+    public void render(List<? extends GeometricShape> shapes, BWRaster raster) {
+        if (shapes == null || raster == null) {
+            throw new IllegalArgumentException(
+                    "You can't provide null as argument!");
+        }
+
+        for (GeometricShape shape : shapes) {
+            if (shape == null) {
+                throw new IllegalArgumentException("Shape can't be null!");
+            }
+        }
+
+        Bounds bounds = raster.getBounds();
+        if (bounds.isEmpty()) {
+            return;
+        }
+
+        GeometricShape[] array = shapes.toArray(new GeometricShape[0]);
+        Bins bins = new Bins(bounds, array);
+        pool.invoke(new TileRowTask(array, raster, bins, 0, bins.rows));
+    }
+
+    /**
+     * Indexes of the shapes touching every tile of a raster, in drawing order.
+     * Every row of tiles also has a bin of shapes which are drawn across the
+     * whole row.
+     * 
+     * @author Karlo Vrbić
+     * @version 1.0
+     */
+    private class Bins {
+
+        /**
+         * Drawable region of the raster.
+         */
+        private Bounds bounds;
+
+        /**
+         * Number of columns of tiles.
+         */
+        private int columns;
+
+        /**
+         * Number of rows of tiles.
+         */
+        private int rows;
+
+        /**
+         * Indexes of the shapes of every bin. Bins of tiles are stored row by
+         * row and followed by the bins of whole rows.
+         */
+        private int[][] indexes;
+
+        /**
+         * Number of shapes of every bin.
+         */
+        private int[] sizes;
+
+        /**
+         * Sorts the given shapes into bins of the tiles of the given region.
+         * 
+         * @param bounds
+         *            drawable region of the raster
+         * @param shapes
+         *            shapes to be drawn, in drawing order
+         */
+        Bins(Bounds bounds, GeometricShape[] shapes) {
+            this.bounds = bounds;
+            this.columns = (bounds.getWidth() + tileSize - 1) / tileSize;
+            this.rows = (bounds.getHeight() + tileSize - 1) / tileSize;
+            this.indexes = new int[(columns + 1) * rows][];
+            this.sizes = new int[(columns + 1) * rows];
+
+            for (int i = 0; i < shapes.length; i++) {
+                add(shapes[i].getBounds().intersection(bounds), i);
+            }
+        }
+
+        /**
+         * Adds the index of a shape to the bins of all tiles its bounds
+         * touch, or to the bins of the rows if it spans too many tiles.
+         * 
+         * @param region
+         *            bounds of the shape inside of the drawable region
+         * @param index
+         *            index of the shape
+         */
+        private void add(Bounds region, int index) {
+            if (region.isEmpty()) {
+                return;
+            }
+
+            int firstColumn = (region.getX() - bounds.getX()) / tileSize;
+            int lastColumn = (region.getMaxX() - 1 - bounds.getX()) / tileSize;
+            int firstRow = (region.getY() - bounds.getY()) / tileSize;
+            int lastRow = (region.getMaxY() - 1 - bounds.getY()) / tileSize;
+
+            boolean wide = lastColumn - firstColumn >= MAX_TILES_PER_SHAPE;
+
+            for (int row = firstRow; row <= lastRow; row++) {
+                if (wide) {
+                    append(rowBin(row), index);
+                    continue;
+                }
+
+                for (int column = firstColumn; column <= lastColumn; column++) {
+                    append(tileBin(row, column), index);
+                }
+            }
+        }
+
+        /**
+         * Appends the index of a shape to the given bin.
+         * 
+         * @param bin
+         *            index of the bin
+         * @param index
+         *            index of the shape
+         */
+        private void append(int bin, int index) {
+            if (indexes[bin] == null) {
+                indexes[bin] = new int[8];
+            } else if (sizes[bin] == indexes[bin].length) {
+                indexes[bin] = Arrays.copyOf(indexes[bin], sizes[bin] * 2);
+            }
+            indexes[bin][sizes[bin]++] = index;
+        }
+
+        /**
+         * Returns the index of the bin of the tile in the given row and
+         * column.
+         * 
+         * @param row
+         *            row of the tile
+         * @param column
+         *            column of the tile
+         * @return index of the bin
+         */
+        int tileBin(int row, int column) {
+            return row * columns + column;
+        }
+
+        /**
+         * Returns the index of the bin of shapes drawn across the whole row
+         * of tiles.
+         * 
+         * @param row
+         *            row of tiles
+         * @return index of the bin
+         */
+        int rowBin(int row) {
+            return columns * rows + row;
+        }
+
+        /**
+         * Returns the region of the tile in the given row and column.
+         * 
+         * @param row
+         *            row of the tile
+         * @param column
+         *            column of the tile
+         * @return the region of the tile
+         */
+        Bounds tile(int row, int column) {
+            return new Bounds(
+                    bounds.getX() + column * tileSize,
+                    bounds.getY() + row * tileSize,
+                    tileSize,
+                    tileSize);
+        }
+
+        /**
+         * Returns the region of the given row of tiles.
+         * 
+         * @param row
+         *            row of tiles
+         * @return the region of the row
+         */
+        Bounds row(int row) {
+            return new Bounds(
+                    bounds.getX(),
+                    bounds.getY() + row * tileSize,
+                    bounds.getWidth(),
+                    tileSize);
+        }
+
+    }
+
+    /**
+     * Task drawing shapes on a range of rows of tiles. Ranges with more than
+     * one row are split in half.
+     * 
+     * @author Karlo Vrbić
+     * @version 1.0
+     */
+    private class TileRowTask extends RecursiveAction {
+
+        /**
+         * Serial version UID.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Shapes to be drawn.
+         */
+        private GeometricShape[] shapes;
+
+        /**
+         * Raster on which shapes will be drawn.
+         */
+        private BWRaster raster;
+
+        /**
+         * Bins of the tiles.
+         */
+        private Bins bins;
+
+        /**
+         * Index of the first row of tiles, inclusive.
+         */
+        private int first;
+
+        /**
+         * Index of the last row of tiles, exclusive.
+         */
+        private int last;
+
+        /**
+         * Constructs a {@code TileRowTask} for the given range of rows.
+         * 
+         * @param shapes
+         *            shapes to be drawn
+         * @param raster
+         *            raster on which shapes will be drawn
+         * @param bins
+         *            bins of the tiles
+         * @param first
+         *            index of the first row of tiles, inclusive
+         * @param last
+         *            index of the last row of tiles, exclusive
+         */
+        public TileRowTask(
+                GeometricShape[] shapes,
+                BWRaster raster,
+                Bins bins,
+                int first,
+                int last) {
+            this.shapes = shapes;
+            this.raster = raster;
+            this.bins = bins;
+            this.first = first;
+            this.last = last;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void compute() {
+            if (last - first > 1) {
+                int middle = (first + last) >>> 1;
+                invokeAll(
+                        new TileRowTask(shapes, raster, bins, first, middle),
+                        new TileRowTask(shapes, raster, bins, middle, last));
+                return;
+            }
+
+            int[] wide = bins.indexes[bins.rowBin(first)];
+            int wideCount = bins.sizes[bins.rowBin(first)];
+            int[] drawn = new int[bins.columns];
+            BWRaster[] tiles = new BWRaster[bins.columns];
+
+            for (int w = 0; w <= wideCount; w++) {
+                int next = w < wideCount ? wide[w] : Integer.MAX_VALUE;
+
+                // small shapes drawn before the next wide one, tile by tile
+                for (int column = 0; column < bins.columns; column++) {
+                    int bin = bins.tileBin(first, column);
+                    int[] indexes = bins.indexes[bin];
+
+                    while (drawn[column] < bins.sizes[bin]
+                            && indexes[drawn[column]] < next) {
+                        if (tiles[column] == null) {
+                            tiles[column] = new ClippedRaster(
+                                    raster,
+                                    bins.tile(first, column));
+                        }
+                        shapes[indexes[drawn[column]++]].draw(tiles[column]);
+                    }
+                }
+
+                if (w < wideCount) {
+                    shapes[next].draw(
+                            new ClippedRaster(raster, bins.row(first)));
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,450 @@
+package hr.fer.zemris.java.graphics.shapes;
+
+import java.util.Arrays;
+
+import hr.fer.zemris.java.graphics.metrics.Instrumentation;
+import hr.fer.zemris.java.graphics.raster.BWRaster;
+import hr.fer.zemris.java.graphics.raster.Bounds;
+
+/**
+ * {@code CompiledShape} is an immutable shape stored as the list of
+ * horizontal spans drawn by another shape. Drawing it only replays the spans,
+ * without running the rasterization algorithm of the original shape, so it is
+ * the fastest way of drawing a shape which is drawn many times.
+ * <p>
+ * Compiled shape is created by {@link GeometricShape#compile()}, which caches
+ * it. It can be drawn at any offset and moved with
+ * {@link #translate(int, int)}, which shares the spans with the original
+ * compiled shape.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+public final class CompiledShape extends GeometricShape {
+
+    /**
+     * Spans stored as triples of row, first (inclusive) and last (exclusive)
+     * X coordinate, sorted by row and position in the row.
+     */
+    private final int[] spans;
+
+    /**
+     * Number of spans.
+     */
+    private final int count;
+
+    /**
+     * Offset of the spans along the X axis.
+     */
+    private final int dx;
+
+    /**
+     * Offset of the spans along the Y axis.
+     */
+    private final int dy;
+
+    /**
+     * Bounds of the spans, without the offset.
+     */
+    private final Bounds bounds;
+
+    /**
+     * Constructs a {@code CompiledShape} from the given spans.
+     * 
+     * @param spans
+     *            spans stored as triples of row, first and last X coordinate
+     * @param count
+     *            number of spans
+     * @param bounds
+     *            bounds of the spans, without the offset
+     * @param dx
+     *            offset of the spans along the X axis
+     * @param dy
+     *            offset of the spans along the Y axis
+     */
+    private CompiledShape(
+            int[] spans,
+            int count,
+            Bounds bounds,
+            int dx,
+            int dy) {
+        this.spans = spans;
+        this.count = count;
+        this.bounds = bounds;
+        this.dx = dx;
+        this.dy = dy;
+    }
+
+    /**
+     * Compiles the given shape by recording the spans it draws.
+     * 
+     * @param shape
+     *            shape to be compiled
+     * @return the compiled shape
+     */
+    static CompiledShape of(GeometricShape shape) {
+        Recorder recorder = new Recorder(shape.getBounds());
+        shape.draw(recorder);
+
+        int[] spans = Arrays.copyOf(recorder.spans, recorder.count * 3);
+        int count = recorder.count;
+
+        // shapes usually draw rows from top to bottom, sort only if needed
+        if (!isSorted(spans, count)) {
+            sort(spans, count);
+        }
+
+        Bounds bounds = Bounds.EMPTY;
+        for (int i = 0; i < count * 3; i += 3) {
+            bounds = bounds.union(Bounds.fromCorners(
+                    spans[i + 1],
+                    spans[i],
+                    spans[i + 2],
+                    spans[i] + 1));
+        }
+
+        return new CompiledShape(spans, count, bounds, 0, 0);
+    }
+
+    /**
+     * Returns the number of spans of this shape.
+     * 
+     * @return the number of spans
+     */
+    public int getSpanCount() {
+        return count;
+    }
+
+    /**
+     * Returns a compiled shape with the same spans moved by the given
+     * offset. Spans are shared, so this method doesn't depend on the size of
+     * the shape.
+     * 
+     * @param dx
+     *            offset along the X axis
+     * @param dy
+     *            offset along the Y axis
+     * @return the moved shape
+     */
+    public CompiledShape translate(int dx, int dy) {
+        return new CompiledShape(spans, count, bounds, this.dx + dx,
+                this.dy + dy);
+    }
+
+    /**
+     * Returns this shape, which is already compiled.
+     * 
+     * @return this shape
+     */
+    @Override
+    public CompiledShape compile() {
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @param x
+     *            {@inheritDoc}
+     * @param y
+     *            {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean containsPoint(int x, int y) {
+        int row = y - dy;
+        int column = x - dx;
+
+        for (int i = firstSpan(row); i < count * 3 && spans[i] == row; i += 3) {
+            if (column < spans[i + 1]) {
+                break;
+            } else if (column < spans[i + 2]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @return {@inheritDoc}
+     */
+    @Override
+    public Bounds getBounds() {
+        if (bounds.isEmpty()) {
+            return Bounds.EMPTY;
+        }
+
+        return Bounds.fromCorners(
+                (long) bounds.getX() + dx,
+                (long) bounds.getY() + dy,
+                (long) bounds.getMaxX() + dx,
+                (long) bounds.getMaxY() + dy);
+    }
+
+    /**
+     * Draws the spans of this shape on the raster. Only the spans in rows of
+     * the drawable region of the raster are visited.
+     * 
+     * @param r
+     *            {@inheritDoc}
+     */
+    @Override
+    public void draw(BWRaster r) {
+        draw(r, 0, 0);
+    }
+
+    /**
+     * Draws the spans of this shape on the raster moved by the given offset.
+     * 
+     * @param r
+     *            raster on which this method will draw
+     * @param dx
+     *            offset along the X axis
+     * @param dy
+     *            offset along the Y axis
+     */
+    public void draw(BWRaster r, int dx, int dy) {
+        if (r == null) {
+            throw new IllegalArgumentException(
+                    "You can't provide null as argument!");
+        }
+
+        long startTime = Instrumentation.drawStarted();
+        int offsetX = this.dx + dx;
+        int offsetY = this.dy + dy;
+        Bounds clip = r.getBounds();
+
+        int lastRow = clip.getMaxY() - offsetY;
+        for (int i = firstSpan(clip.getY() - offsetY); i < count * 3
+                && spans[i] < lastRow; i += 3) {
+            int x0 = Math.max(spans[i + 1] + offsetX, clip.getX());
+            int x1 = Math.min(spans[i + 2] + offsetX, clip.getMaxX());
+
+            if (x0 < x1) {
+                r.turnOnSpan(x0, x1, spans[i] + offsetY);
+            }
+        }
+
+        Instrumentation.drawFinished(this, startTime);
+    }
+
+    /**
+     * Returns the index of the first span whose row is not above the given
+     * one.
+     * 
+     * @param row
+     *            the row, without the offset
+     * @return index of the first span in the array of spans
+     */
+    private int firstSpan(int row) {
+        int low = 0;
+        int high = count;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (spans[middle * 3] < row) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low * 3;
+    }
+
+    /**
+     * Checks if spans are sorted by row and position in the row.
+     * 
+     * @param spans
+     *            spans stored as triples
+     * @param count
+     *            number of spans
+     * @return {@code true} if spans are sorted; {@code false} otherwise
+     */
+    private static boolean isSorted(int[] spans, int count) {
+        for (int i = 3; i < count * 3; i += 3) {
+            if (compare(spans, i - 3, i) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sorts spans by row and position in the row.
+     * 
+     * @param spans
+     *            spans stored as triples
+     * @param count
+     *            number of spans
+     */
+    private static void sort(int[] spans, int count) {
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i * 3;
+        }
+        Arrays.sort(order, (a, b) -> compare(spans, a, b));
+
+        int[] sorted = new int[count * 3];
+        for (int i = 0; i < count; i++) {
+            System.arraycopy(spans, order[i], sorted, i * 3, 3);
+        }
+        System.arraycopy(sorted, 0, spans, 0, count * 3);
+    }
+
+    /**
+     * Compares two spans by row and position in the row.
+     * 
+     * @param spans
+     *            spans stored as triples
+     * @param a
+     *            index of the first span
+     * @param b
+     *            index of the second span
+     * @return negative number, zero or positive number if the first span is
+     *         before, at the same position or after the second one
+     */
+    private static int compare(int[] spans, int a, int b) {
+        if (spans[a] != spans[b]) {
+            return Integer.compare(spans[a], spans[b]);
+        }
+        return Integer.compare(spans[a + 1], spans[b + 1]);
+    }
+
+    /**
+     * Raster which records the spans drawn on it instead of storing pixels.
+     * Its drawable region are the bounds of the recorded shape. Adjacent
+     * spans of the same row are joined.
+     * 
+     * @author Karlo Vrbić
+     * @version 1.0
+     */
+    private static class Recorder implements BWRaster {
+
+        /**
+         * Drawable region of the recorder.
+         */
+        private Bounds bounds;
+
+        /**
+         * Recorded spans stored as triples of row, first and last X
+         * coordinate.
+         */
+        private int[] spans = new int[48];
+
+        /**
+         * Number of recorded spans.
+         */
+        private int count;
+
+        /**
+         * Constructs a {@code Recorder} with the given drawable region.
+         * 
+         * @param bounds
+         *            drawable region of the recorder
+         */
+        Recorder(Bounds bounds) {
+            this.bounds = bounds;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int getWidth() {
+            return Math.max(0, bounds.getMaxX());
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int getHeight() {
+            return Math.max(0, bounds.getMaxY());
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Bounds getBounds() {
+            return bounds;
+        }
+
+        /**
+         * Forgets all recorded spans.
+         */
+        @Override
+        public void clear() {
+            count = 0;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void turnOn(int x, int y) {
+            turnOnSpan(x, x + 1, y);
+        }
+
+        /**
+         * Does nothing, shapes don't turn pixels off.
+         */
+        @Override
+        public void turnOff(int x, int y) {
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void turnOnSpan(int x0, int x1, int y) {
+            x0 = Math.max(x0, bounds.getX());
+            x1 = Math.min(x1, bounds.getMaxX());
+            if (x0 >= x1 || y < bounds.getY() || y >= bounds.getMaxY()) {
+                return;
+            }
+
+            int last = (count - 1) * 3;
+            if (count > 0 && spans[last] == y && spans[last + 2] == x0) {
+                spans[last + 2] = x1;
+                return;
+            }
+
+            if (count * 3 == spans.length) {
+                spans = Arrays.copyOf(spans, spans.length * 2);
+            }
+            spans[count * 3] = y;
+            spans[count * 3 + 1] = x0;
+            spans[count * 3 + 2] = x1;
+            count++;
+        }
+
+        /**
+         * Does nothing, flip mode is not recorded.
+         */
+        @Override
+        public void enableFlipMode() {
+        }
+
+        /**
+         * Does nothing, flip mode is not recorded.
+         */
+        @Override
+        public void disableFlipMode() {
+        }
+
+        /**
+         * Returns {@code false}, pixels are not stored.
+         * 
+         * @return {@code false}
+         */
+        @Override
+        public boolean isTurnedOn(int x, int y) {
+            return false;
+        }
+
+    }
+
+}
@@ -1,6 +1,8 @@
 package hr.fer.zemris.java.graphics.shapes;
 
+import hr.fer.zemris.java.graphics.metrics.Instrumentation;
 import hr.fer.zemris.java.graphics.raster.BWRaster;
+import hr.fer.zemris.java.graphics.raster.Bounds;
 
 /**
  * The {@code Ellipse} class creates a new ellipse with the specified horizontal
@@ -11,6 +13,12 @@ import hr.fer.zemris.java.graphics.raster.BWRaster;
  */
 public class Ellipse extends GeometricShape {
 
+    /**
+     * Biggest radius for which both sides of the inequality checked by
+     * {@link #isInside(long, long)} fit into a {@code long}.
+     */
+    private static final int MAX_LONG_RADIUS = 46340;
+
     /**
      * The X coordinate of the center
      */
@@ -31,11 +39,6 @@ public class Ellipse extends GeometricShape {
      */
     private int vertical;
 
-    /**
-     * Last used raster on this ellipse
-     */
-    private BWRaster raster;
-
     /**
      * Constructs a new {@code Ellipse} using center coordinates, horizontal and
      * vertical radius.
@@ -56,6 +59,20 @@ public class Ellipse extends GeometricShape {
         this.vertical = vertical;
     }
 
+    /**
+     * {@inheritDoc}
+     * 
+     * @return {@inheritDoc}
+     */
+    @Override
+    public Bounds getBounds() {
+        return Bounds.fromCorners(
+                (long) x - horizontal,
+                (long) y - vertical,
+                (long) x + horizontal + 1,
+                (long) y + vertical + 1);
+    }
+
     /**
      * {@inheritDoc}
      * 
@@ -64,48 +81,9 @@ public class Ellipse extends GeometricShape {
      */
     @Override
     public void draw(BWRaster r) {
-        raster = r;
-        int a2 = horizontal * horizontal;
-        int b2 = vertical * vertical;
-
-        int fa2 = 4 * a2;
-        int fb2 = 4 * b2;
-
-        // First half of ellipse
-        int x = 0;
-        int y = vertical;
-        int sigma = 2 * b2 + a2 * (1 - 2 * vertical);
-
-        for (; b2 * x <= a2 * y; x++) {
-            r.turnOn(this.x + x, this.y + y);
-            r.turnOn(this.x - x, this.y + y);
-            r.turnOn(this.x + x, this.y - y);
-            r.turnOn(this.x - x, this.y - y);
-            if (sigma >= 0) {
-                sigma += fa2 * (1 - y);
-                y--;
-            }
-            sigma += b2 * ((4 * x) + 6);
-        }
-
-        // Second half of ellipse
-        x = horizontal;
-        y = 0;
-        sigma = 2 * a2 + b2 * (1 - 2 * horizontal);
-
-        for (; a2 * y <= b2 * x; y++) {
-            r.turnOn(this.x + x, this.y + y);
-            r.turnOn(this.x - x, this.y + y);
-            r.turnOn(this.x + x, this.y - y);
-            r.turnOn(this.x - x, this.y - y);
-            if (sigma >= 0) {
-                sigma += fb2 * (1 - x);
-                x--;
-            }
-            sigma += a2 * ((4 * y) + 6);
-        }
-
+        long startTime = Instrumentation.drawStarted();
         fillEllipse(r);
+        Instrumentation.drawFinished(this, startTime);
     }
 
     /**
@@ -119,23 +97,92 @@ public class Ellipse extends GeometricShape {
      */
     @Override
     public boolean containsPoint(int x, int y) {
-        return raster.isTurnedOn(x, y);
+        long dx = (long) x - this.x;
+        long dy = (long) y - this.y;
+
+        if (Math.abs(dx) > horizontal || Math.abs(dy) > vertical) {
+            return false;
+        } else if (vertical == 0) {
+            return true;
+        }
+
+        return isInside(dx, dy);
     }
 
     /**
-     * Fills ellipse if outline has been properly drawn on given raster before
-     * calling this method.
+     * Checks if the point at distance (dx, dy) from the center lies inside of
+     * this ellipse, that is if {@code b^2 * dx^2 + a^2 * dy^2 <= a^2 * b^2}
+     * holds. Both distances must not be bigger than the corresponding radius.
+     * Terms of the inequality fit into a {@code long} only while both radii
+     * are at most {@link #MAX_LONG_RADIUS}. Bigger ellipses check the
+     * equivalent {@code b^2 * dx^2 <= a^2 * (b^2 - dy^2)}, whose factors all
+     * fit into a {@code long}, by comparing the exact 128-bit products.
+     * 
+     * @param dx
+     *            horizontal distance of the point from the center
+     * @param dy
+     *            vertical distance of the point from the center
+     * @return {@code true} if the point lies inside of this ellipse;
+     *         {@code false} otherwise
+     */
+    private boolean isInside(long dx, long dy) {
+        long a2 = (long) horizontal * horizontal;
+        long b2 = (long) vertical * vertical;
+
+        if (horizontal <= MAX_LONG_RADIUS && vertical <= MAX_LONG_RADIUS) {
+            return b2 * dx * dx + a2 * dy * dy <= a2 * b2;
+        }
+
+        return LongMath.compareProducts(b2, dx * dx, a2, b2 - dy * dy) <= 0;
+    }
+
+    /**
+     * Fills ellipse row by row, skipping the rows outside of the drawable
+     * region of the raster. Each row is written as a single span.
      * 
      * @param r
      *            {@code Raster} on which this method will draw
      */
     private void fillEllipse(BWRaster r) {
-        for (int fillY = this.y - this.vertical; fillY < this.y
-                + this.vertical; fillY++) {
-            for (int fillX = 0; !r.isTurnedOn(this.x + fillX, fillY); fillX++) {
-                r.turnOn(this.x + fillX, fillY);
-                r.turnOn(this.x - fillX, fillY);
-            }
+        Bounds clip = getBounds().intersection(r.getBounds());
+
+        for (int y = clip.getY(); y < clip.getMaxY(); y++) {
+            long halfWidth = halfWidth(Math.abs((long) y - this.y));
+
+            r.turnOnSpan(
+                    (int) Math.max(this.x - halfWidth, Integer.MIN_VALUE),
+                    (int) Math.min(this.x + halfWidth + 1, Integer.MAX_VALUE),
+                    y);
         }
     }
+
+    /**
+     * Returns the half-width of the row at vertical distance dy from the
+     * center, which is the biggest dx for which
+     * {@code b^2 * dx^2 + a^2 * dy^2 <= a^2 * b^2} holds. The estimate
+     * {@code a * sqrt(b^2 - dy^2) / b} is computed in double precision and
+     * then corrected using the exact check of {@link #isInside(long, long)}.
+     * 
+     * @param dy
+     *            vertical distance of the row from the center, not bigger
+     *            than the vertical radius
+     * @return the half-width of the row
+     */
+    private long halfWidth(long dy) {
+        if (vertical == 0) {
+            return horizontal;
+        }
+
+        double rows = Math.sqrt((double) (vertical - dy) * (vertical + dy));
+        long w = Math.min(horizontal, (long) (horizontal * rows / vertical));
+
+        while (w > 0 && !isInside(w, dy)) {
+            w--;
+        }
+        while (w < horizontal && isInside(w + 1, dy)) {
+            w++;
+        }
+
+        return w;
+    }
 }
@@ -1,17 +1,25 @@
 package hr.fer.zemris.java.graphics.shapes;
 
+import hr.fer.zemris.java.graphics.metrics.Instrumentation;
 import hr.fer.zemris.java.graphics.raster.BWRaster;
+import hr.fer.zemris.java.graphics.raster.Bounds;
 
 /**
  * The {@code GeomtericShape} is an abstract class representing geometric
- * shapes. YOu need to implement {@link #containsPoint(int, int)} and it already
- * has {@link #draw(BWRaster)} method implemented.
+ * shapes. YOu need to implement {@link #containsPoint(int, int)} and
+ * {@link #getBounds()} and it already has {@link #draw(BWRaster)} method
+ * implemented.
  * 
  * @author Karlo Vrbić
  * @version 1.0
  */
 public abstract class GeometricShape {
 
+    /**
+     * Compiled form of this shape, created on first use.
+     */
+    private CompiledShape compiled;
+
     /**
      * Checks if this geometric shape contains pixel at the specified position.
      * 
@@ -25,22 +33,66 @@ public abstract class GeometricShape {
     public abstract boolean containsPoint(int x, int y);
 
     /**
-     * Draws geometric shape on the provided raster.
+     * Returns the smallest region containing all pixels of this shape. Pixels
+     * outside of this region are never contained in the shape nor drawn by
+     * it.
+     * 
+     * @return the smallest region containing all pixels of this shape
+     */
+    public abstract Bounds getBounds();
+
+    /**
+     * Returns the compiled form of this shape, which draws the same pixels by
+     * replaying recorded spans. It is created on the first call and cached,
+     * so shapes must not change after they have been compiled.
+     * 
+     * @return the compiled form of this shape
+     */
+    public CompiledShape compile() {
+        // compiled shapes are immutable, so a racy initialization is harmless
+        CompiledShape result = compiled;
+        if (result == null) {
+            result = CompiledShape.of(this);
+            compiled = result;
+        }
+        return result;
+    }
+
+    /**
+     * Draws geometric shape on the provided raster. Only the pixels inside of
+     * both the bounds of the shape and the drawable region of the raster are
+     * checked, and consecutive pixels of a row contained in the shape are
+     * drawn as a single span.
      * 
      * @param r
      *            {@code Raster} on which this method will draw
      */
     public void draw(BWRaster r) {
-        int height = r.getHeight();
-        int width = r.getWidth();
+        long startTime = Instrumentation.drawStarted();
+        Bounds clip = getBounds().intersection(r.getBounds());
 
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
+        for (int y = clip.getY(); y < clip.getMaxY(); y++) {
+            boolean inside = false;
+            int start = 0;
+
+            for (int x = clip.getX(); x < clip.getMaxX(); x++) {
                 if (containsPoint(x, y)) {
-                    r.turnOn(x, y);
+                    if (!inside) {
+                        inside = true;
+                        start = x;
+                    }
+                } else if (inside) {
+                    r.turnOnSpan(start, x, y);
+                    inside = false;
                 }
             }
+
+            if (inside) {
+                r.turnOnSpan(start, clip.getMaxX(), y);
+            }
         }
+
+        Instrumentation.drawFinished(this, startTime);
     }
 
 }
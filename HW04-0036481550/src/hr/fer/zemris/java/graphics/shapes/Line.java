@@ -1,10 +1,17 @@
 package hr.fer.zemris.java.graphics.shapes;
 
+import hr.fer.zemris.java.graphics.metrics.Instrumentation;
 import hr.fer.zemris.java.graphics.raster.BWRaster;
+import hr.fer.zemris.java.graphics.raster.Bounds;
 
 /**
  * The {@code Line} class represents a line. In order to construct it you must
  * provide coordinates of two points.
+ * <p>
+ * Pixels of the line are the ones Bresenham's algorithm visits when walking
+ * from the first point to the second one. Pixel reached after k steps along
+ * the major axis is computed directly, so the line never changes while it is
+ * drawn or tested and only its part inside of the raster is visited.
  * 
  * @author Karlo Vrbić
  * @version 1.0
@@ -14,22 +21,22 @@ public class Line extends GeometricShape {
     /**
      * The X coordinate of the first pixel.
      */
-    private int x1;
+    private final int x1;
 
     /**
      * The Y coordinate of the first pixel.
      */
-    private int y1;
+    private final int y1;
 
     /**
      * The X coordinate of the second pixel.
      */
+    private final int x2;
 
-    private int x2;
     /**
      * The Y coordinate of the second pixel.
      */
-    private int y2;
+    private final int y2;
 
     /**
      * Constructs a {@code Line} object with specified coordinates of two
@@ -62,111 +69,180 @@ public class Line extends GeometricShape {
      */
     @Override
     public boolean containsPoint(int x, int y) {
-        // delta of exact value and rounded value of the dependant variable
-        int d = 0;
+        long dx = Math.abs((long) x2 - x1);
+        long dy = Math.abs((long) y2 - y1);
 
-        int dy = Math.abs(y2 - y1);
-        int dx = Math.abs(x2 - x1);
-
-        int dy2 = (dy << 1); // slope scaling factors to avoid floating
-        int dx2 = (dx << 1); // point
-
-        int ix = x1 < x2 ? 1 : -1; // increment direction
-        int iy = y1 < y2 ? 1 : -1;
+        long kx = x1 < x2 ? (long) x - x1 : (long) x1 - x;
+        long ky = y1 < y2 ? (long) y - y1 : (long) y1 - y;
 
         if (dy <= dx) {
-            for (;;) {
-                if (x == x1 && y == y1) {
-                    return true;
-                }
-
-                if (x1 == x2) {
-                    break;
-                }
-
-                x1 += ix;
-                d += dy2;
-
-                if (d > dx) {
-                    y1 += iy;
-                    d -= dx2;
-                }
-            }
-        } else {
-            for (;;) {
-                if (x == x1 && y == y1) {
-                    return true;
-                }
-
-                if (y1 == y2) {
-                    break;
-                }
-
-                y1 += iy;
-                d += dx2;
-
-                if (d > dy) {
-                    x1 += ix;
-                    d -= dy2;
-                }
-            }
+            return kx >= 0 && kx <= dx && ky == minorOffset(kx, dx, dy);
         }
-        return false;
+        return ky >= 0 && ky <= dy && kx == minorOffset(ky, dy, dx);
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @return {@inheritDoc}
+     */
+    @Override
+    public Bounds getBounds() {
+        return Bounds.fromCorners(
+                Math.min(x1, x2),
+                Math.min(y1, y2),
+                Math.max(x1, x2) + 1L,
+                Math.max(y1, y2) + 1L);
     }
 
     /**
      * {@inheritDoc}
+     * <p>
+     * Line is first clipped to the drawable region of the raster, so the
+     * cost of drawing depends only on the number of its visible pixels. Runs
+     * of pixels of a mostly horizontal line which lie in the same row are
+     * drawn as single spans.
      * 
      * @param r
      *            {@inheritDoc}
      */
     @Override
     public void draw(BWRaster r) {
-        // delta of exact value and rounded value of the dependant variable
-        int d = 0;
-
-        int dy = Math.abs(y2 - y1);
-        int dx = Math.abs(x2 - x1);
+        long startTime = Instrumentation.drawStarted();
+        Bounds clip = getBounds().intersection(r.getBounds());
+        if (clip.isEmpty()) {
+            Instrumentation.drawFinished(this, startTime);
+            return;
+        }
 
-        int dy2 = (dy << 1); // slope scaling factors to avoid floating
-        int dx2 = (dx << 1); // point
+        long dx = Math.abs((long) x2 - x1);
+        long dy = Math.abs((long) y2 - y1);
 
         int ix = x1 < x2 ? 1 : -1; // increment direction
         int iy = y1 < y2 ? 1 : -1;
 
+        // ranges of steps from the first pixel which are inside of the clip
+        long kxFirst = ix > 0 ? (long) clip.getX() - x1
+                : x1 - (clip.getMaxX() - 1L);
+        long kxLast = ix > 0 ? clip.getMaxX() - 1L - x1
+                : (long) x1 - clip.getX();
+        long kyFirst = iy > 0 ? (long) clip.getY() - y1
+                : y1 - (clip.getMaxY() - 1L);
+        long kyLast = iy > 0 ? clip.getMaxY() - 1L - y1
+                : (long) y1 - clip.getY();
+
         if (dy <= dx) {
-            for (;;) {
-                r.turnOn(x1, y1);
+            long first = Math.max(kxFirst, firstStep(kyFirst, dx, dy));
+            long last = Math.min(kxLast, lastStep(kyLast, dx, dy));
 
-                if (x1 == x2) {
-                    break;
-                }
+            for (long k = first; k <= last;) {
+                long m = minorOffset(k, dx, dy);
+                long end = Math.min(last, lastStep(m, dx, dy));
 
-                x1 += ix;
-                d += dy2;
+                long xa = x1 + ix * k;
+                long xb = x1 + ix * end;
+                r.turnOnSpan(
+                        (int) Math.min(xa, xb),
+                        (int) Math.max(xa, xb) + 1,
+                        (int) (y1 + iy * m));
 
-                if (d > dx) {
-                    y1 += iy;
-                    d -= dx2;
-                }
+                k = end + 1;
             }
         } else {
-            for (;;) {
-                r.turnOn(x1, y1);
+            long first = Math.max(kyFirst, firstStep(kxFirst, dy, dx));
+            long last = Math.min(kyLast, lastStep(kxLast, dy, dx));
 
-                if (y1 == y2) {
-                    break;
-                }
+            long m = minorOffset(first, dy, dx);
+            // delta of exact value and rounded value of the dependant variable
+            long d = 2 * first * dx - 2 * m * dy;
 
-                y1 += iy;
-                d += dx2;
+            for (long k = first; k <= last; k++) {
+                r.turnOn((int) (x1 + ix * m), (int) (y1 + iy * k));
 
+                d += 2 * dx;
                 if (d > dy) {
-                    x1 += ix;
-                    d -= dy2;
+                    m++;
+                    d -= 2 * dy;
                 }
             }
         }
+
+        Instrumentation.drawFinished(this, startTime);
+    }
+
+    /**
+     * Returns the offset along the minor axis of the pixel reached after k
+     * steps along the major axis. Bresenham's algorithm moves along the minor
+     * axis as soon as the error term {@code 2 * k * minor - 2 * offset *
+     * major} becomes bigger than {@code major}, so the offset is the smallest
+     * non-negative one which keeps the error term from exceeding it.
+     * 
+     * @param k
+     *            number of steps along the major axis
+     * @param major
+     *            length of the line along the major axis
+     * @param minor
+     *            length of the line along the minor axis
+     * @return offset along the minor axis
+     */
+    private static long minorOffset(long k, long major, long minor) {
+        if (major == 0) {
+            return 0;
+        }
+
+        return Math.max(0, LongMath.multiplyAddFloorDiv(
+                2 * k,
+                minor,
+                major - 1,
+                2 * major));
+    }
+
+    /**
+     * Returns the number of steps along the major axis after which the
+     * offset along the minor axis first reaches m.
+     * 
+     * @param m
+     *            offset along the minor axis
+     * @param major
+     *            length of the line along the major axis
+     * @param minor
+     *            length of the line along the minor axis
+     * @return number of steps along the major axis
+     */
+    private static long firstStep(long m, long major, long minor) {
+        if (m <= 0) {
+            return 0;
+        } else if (minor == 0) {
+            return Long.MAX_VALUE;
+        }
+
+        return LongMath.multiplyAddFloorDiv(
+                major,
+                2 * m - 1,
+                2 * minor,
+                2 * minor);
+    }
+
+    /**
+     * Returns the biggest number of steps along the major axis after which
+     * the offset along the minor axis is still at most m.
+     * 
+     * @param m
+     *            offset along the minor axis
+     * @param major
+     *            length of the line along the major axis
+     * @param minor
+     *            length of the line along the minor axis
+     * @return number of steps along the major axis
+     */
+    private static long lastStep(long m, long major, long minor) {
+        if (m < 0) {
+            return -1;
+        } else if (minor == 0) {
+            return Long.MAX_VALUE;
+        }
+
+        return LongMath.multiplyAddFloorDiv(major, 2 * m + 1, 0, 2 * minor);
     }
 
 }
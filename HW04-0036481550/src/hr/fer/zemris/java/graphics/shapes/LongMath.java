@@ -0,0 +1,129 @@
+package hr.fer.zemris.java.graphics.shapes;
+
+/**
+ * Exact integer arithmetic for shapes whose coordinates span the whole range
+ * of {@code int}. Products of such coordinates don't fit into a
+ * {@code long}, so they are handled as 128-bit numbers split into the high
+ * and the low {@code long}. Nothing is allocated, so these methods can be
+ * used for every pixel.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+final class LongMath {
+
+    /**
+     * Private constructor so no instances of this class can be made.
+     */
+    private LongMath() {
+    }
+
+    /**
+     * Returns the high 64 bits of the 128-bit product of two signed numbers.
+     * 
+     * @param x
+     *            the first factor
+     * @param y
+     *            the second factor
+     * @return the high 64 bits of {@code x * y}
+     */
+    static long multiplyHigh(long x, long y) {
+        long x1 = x >> 32;
+        long x2 = x & 0xFFFFFFFFL;
+        long y1 = y >> 32;
+        long y2 = y & 0xFFFFFFFFL;
+
+        long z2 = x2 * y2;
+        long t = x1 * y2 + (z2 >>> 32);
+        long z1 = (t & 0xFFFFFFFFL) + x2 * y1;
+        long z0 = t >> 32;
+
+        return x1 * y1 + z0 + (z1 >> 32);
+    }
+
+    /**
+     * Compares two 128-bit signed numbers given by their high and low 64
+     * bits.
+     * 
+     * @param high1
+     *            the high 64 bits of the first number
+     * @param low1
+     *            the low 64 bits of the first number
+     * @param high2
+     *            the high 64 bits of the second number
+     * @param low2
+     *            the low 64 bits of the second number
+     * @return negative number, zero or positive number if the first number is
+     *         less than, equal to or greater than the second one
+     */
+    private static int compare(long high1, long low1, long high2, long low2) {
+        if (high1 != high2) {
+            return Long.compare(high1, high2);
+        }
+        return Long.compareUnsigned(low1, low2);
+    }
+
+    /**
+     * Compares products {@code a * b} and {@code c * d} exactly.
+     * 
+     * @param a
+     *            the first factor of the first product
+     * @param b
+     *            the second factor of the first product
+     * @param c
+     *            the first factor of the second product
+     * @param d
+     *            the second factor of the second product
+     * @return negative number, zero or positive number if the first product
+     *         is less than, equal to or greater than the second one
+     */
+    static int compareProducts(long a, long b, long c, long d) {
+        return compare(multiplyHigh(a, b), a * b, multiplyHigh(c, d), c * d);
+    }
+
+    /**
+     * Returns {@code floor((a * b + c) / d)} computed exactly. Quotients
+     * whose magnitude is at least {@code 2^62} are saturated to
+     * {@link Long#MAX_VALUE} or {@link Long#MIN_VALUE}.
+     * 
+     * @param a
+     *            the first factor
+     * @param b
+     *            the second factor
+     * @param c
+     *            number added to the product
+     * @param d
+     *            the divisor, must be positive
+     * @return the quotient rounded towards negative infinity
+     */
+    static long multiplyAddFloorDiv(long a, long b, long c, long d) {
+        long low = a * b;
+        long high = multiplyHigh(a, b);
+
+        long sum = low + c;
+        high += (c >> 63) + (Long.compareUnsigned(sum, low) < 0 ? 1 : 0);
+        low = sum;
+
+        if (high == low >> 63) {
+            return Math.floorDiv(low, d);
+        }
+
+        double estimate = Math.floor(((double) a * b + c) / d);
+        if (estimate >= 0x1p62) {
+            return Long.MAX_VALUE;
+        } else if (estimate <= -0x1p62) {
+            return Long.MIN_VALUE;
+        }
+
+        // estimate is off by a few units at most, so it is corrected exactly
+        long q = (long) estimate;
+        while (compare(high, low, multiplyHigh(q, d), q * d) < 0) {
+            q--;
+        }
+        while (compare(high, low, multiplyHigh(q + 1, d), (q + 1) * d) >= 0) {
+            q++;
+        }
+        return q;
+    }
+
+}
@@ -1,6 +1,8 @@
 package hr.fer.zemris.java.graphics.shapes;
 
+import hr.fer.zemris.java.graphics.metrics.Instrumentation;
 import hr.fer.zemris.java.graphics.raster.BWRaster;
+import hr.fer.zemris.java.graphics.raster.Bounds;
 
 /**
  * The {@code Rectangle} class represents a rectangle. In order to construct it
@@ -70,14 +72,24 @@ public class Rectangle extends GeometricShape {
      */
     @Override
     public boolean containsPoint(int x, int y) {
-        if (y >= this.y && y < this.y + height && x >= this.x
-                && x < this.x + width) {
+        if (y >= this.y && y < (long) this.y + height && x >= this.x
+                && x < (long) this.x + width) {
             return true;
         }
 
         return false;
     }
 
+    /**
+     * {@inheritDoc}
+     * 
+     * @return {@inheritDoc}
+     */
+    @Override
+    public Bounds getBounds() {
+        return new Bounds(x, y, width, height);
+    }
+
     /**
      * {@inheritDoc}
      * 
@@ -86,16 +98,14 @@ public class Rectangle extends GeometricShape {
      */
     @Override
     public void draw(BWRaster r) {
-        int height = r.getHeight();
-        int width = r.getWidth();
+        long startTime = Instrumentation.drawStarted();
+        Bounds clip = getBounds().intersection(r.getBounds());
 
-        for (int y = this.y; y < height; y++) {
-            for (int x = this.x; x < width; x++) {
-                if (containsPoint(x, y)) {
-                    r.turnOn(x, y);
-                }
-            }
+        for (int y = clip.getY(); y < clip.getMaxY(); y++) {
+            r.turnOnSpan(clip.getX(), clip.getMaxX(), y);
         }
+
+        Instrumentation.drawFinished(this, startTime);
     }
 
 }
@@ -0,0 +1,824 @@
+package hr.fer.zemris.java.graphics.shapes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import hr.fer.zemris.java.graphics.raster.Bounds;
+
+/**
+ * {@code ShapeIndex} is a spatial index of shapes which finds the shapes at a
+ * point or in a region without checking every shape. The plane is divided
+ * into a uniform grid of square cells and every shape is stored in each cell
+ * its bounds intersect, so a query looks only at the shapes of the cells it
+ * touches. Shapes whose bounds cover too many cells are stored in a coarser
+ * grid, whose cells are {@value #GRID_FACTOR} times wider, and so on until
+ * cells are big enough for any shape. Every shape is therefore stored in a
+ * bounded number of cells and a query of a point looks at a single cell of
+ * every grid.
+ * <p>
+ * Cells of a grid are kept in an open-addressing hash table keyed by their
+ * coordinates, so looking a cell up doesn't create any objects.
+ * <p>
+ * Queries return shapes in the order in which they were added, so the last
+ * shape returned for a point is the topmost one when shapes are drawn in that
+ * order. Shapes are compared by identity and their bounds must not change
+ * while they are in the index. Index is not thread-safe, but any number of
+ * threads can query an index which is not being changed.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+public class ShapeIndex {
+
+    /**
+     * Default width and height of a cell.
+     */
+    public static final int DEFAULT_CELL_SIZE = 64;
+
+    /**
+     * Maximal number of cells in which a single shape is stored.
+     */
+    private static final int MAX_CELLS_PER_SHAPE = 256;
+
+    /**
+     * Ratio of the cell sizes of two consecutive grids.
+     */
+    private static final int GRID_FACTOR = 16;
+
+    /**
+     * Width and height of a cell of the coarsest grid, big enough that bounds
+     * of any shape intersect at most 16 of its cells.
+     */
+    private static final int MAX_CELL_SIZE = 1 << 30;
+
+    /**
+     * Grids from the finest to the coarsest one.
+     */
+    private Grid[] grids;
+
+    /**
+     * Entries of all shapes in the index.
+     */
+    private Map<GeometricShape, Entry> entries;
+
+    /**
+     * Sequence number of the next added shape.
+     */
+    private long nextSequence;
+
+    /**
+     * Constructs an empty {@code ShapeIndex} with cells of the default size.
+     */
+    public ShapeIndex() {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * Constructs an empty {@code ShapeIndex} with cells of the given size.
+     * Cells should be about the size of a typical shape.
+     * 
+     * @param cellSize
+     *            width and height of a cell
+     */
+    public ShapeIndex(int cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("Cell size must be positive!");
+        }
+
+        List<Grid> levels = new ArrayList<>();
+        for (long size = cellSize;; size *= GRID_FACTOR) {
+            if (size >= MAX_CELL_SIZE) {
+                levels.add(new Grid(Math.max(cellSize, MAX_CELL_SIZE)));
+                break;
+            }
+            levels.add(new Grid((int) size));
+        }
+
+        this.grids = levels.toArray(new Grid[levels.size()]);
+        this.entries = new IdentityHashMap<>();
+    }
+
+    /**
+     * Constructs a {@code ShapeIndex} with cells of the given size containing
+     * the given shapes.
+     * 
+     * @param shapes
+     *            shapes to be added, in drawing order
+     * @param cellSize
+     *            width and height of a cell
+     */
+    public ShapeIndex(GeometricShape[] shapes, int cellSize) {
+        this(cellSize);
+        addAll(shapes);
+    }
+
+    /**
+     * Returns the number of shapes in this index.
+     * 
+     * @return the number of shapes in this index
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Checks if the given shape is in this index.
+     * 
+     * @param shape
+     *            the shape
+     * @return {@code true} if shape is in this index; {@code false} otherwise
+     */
+    public boolean contains(GeometricShape shape) {
+        return entries.containsKey(shape);
+    }
+
+    /**
+     * Adds the shape on top of all shapes in this index.
+     * 
+     * @param shape
+     *            shape to be added
+     * @throws IllegalArgumentException
+     *             if shape is already in this index
+     */
+    public void add(GeometricShape shape) {
+        if (shape == null) {
+            throw new IllegalArgumentException(
+                    "You can't provide null as argument!");
+        } else if (entries.containsKey(shape)) {
+            throw new IllegalArgumentException(
+                    "Shape is already in the index!");
+        }
+
+        Entry entry = new Entry(shape, nextSequence++);
+        entries.put(shape, entry);
+        link(entry);
+    }
+
+    /**
+     * Adds all given shapes in their order, on top of all shapes in this
+     * index.
+     * 
+     * @param shapes
+     *            shapes to be added
+     * @throws IllegalArgumentException
+     *             if any of the shapes is already in this index
+     */
+    public void addAll(GeometricShape[] shapes) {
+        if (shapes == null) {
+            throw new IllegalArgumentException(
+                    "You can't provide null as argument!");
+        }
+
+        for (GeometricShape shape : shapes) {
+            add(shape);
+        }
+    }
+
+    /**
+     * Removes the shape from this index.
+     * 
+     * @param shape
+     *            shape to be removed
+     * @return {@code true} if shape was in this index; {@code false}
+     *         otherwise
+     */
+    public boolean remove(GeometricShape shape) {
+        Entry entry = entries.remove(shape);
+        if (entry == null) {
+            return false;
+        }
+
+        unlink(entry);
+        return true;
+    }
+
+    /**
+     * Replaces a shape in this index with another one which keeps its place
+     * in the drawing order. Bounds of the new shape may differ from the
+     * bounds of the old one.
+     * 
+     * @param oldShape
+     *            shape to be replaced
+     * @param newShape
+     *            shape taking its place
+     * @throws IllegalArgumentException
+     *             if old shape is not in this index or new shape already is
+     */
+    public void replace(GeometricShape oldShape, GeometricShape newShape) {
+        if (oldShape == null || newShape == null) {
+            throw new IllegalArgumentException(
+                    "You can't provide null as argument!");
+        } else if (!entries.containsKey(oldShape)) {
+            throw new IllegalArgumentException("Shape is not in the index!");
+        } else if (oldShape != newShape && entries.containsKey(newShape)) {
+            throw new IllegalArgumentException(
+                    "Shape is already in the index!");
+        }
+
+        Entry entry = entries.remove(oldShape);
+        unlink(entry);
+
+        Entry replacement = new Entry(newShape, entry.sequence);
+        entries.put(newShape, replacement);
+        link(replacement);
+    }
+
+    /**
+     * Returns all shapes which contain the given point, in drawing order.
+     * 
+     * @param x
+     *            the X coordinate of the point
+     * @param y
+     *            the Y coordinate of the point
+     * @return shapes containing the point
+     */
+    public List<GeometricShape> shapesAt(int x, int y) {
+        List<Entry> found = new ArrayList<>();
+
+        for (Grid grid : grids) {
+            collectAt(grid.cellAt(x, y), x, y, found);
+        }
+
+        return toShapes(found);
+    }
+
+    /**
+     * Returns the topmost shape which contains the given point, that is the
+     * one added last.
+     * 
+     * @param x
+     *            the X coordinate of the point
+     * @param y
+     *            the Y coordinate of the point
+     * @return the topmost shape containing the point or {@code null} if there
+     *         is no such shape
+     */
+    public GeometricShape topmostAt(int x, int y) {
+        Entry top = null;
+        for (Grid grid : grids) {
+            top = topmostAt(grid.cellAt(x, y), x, y, top);
+        }
+
+        return top == null ? null : top.shape;
+    }
+
+    /**
+     * Returns all shapes whose bounds intersect the given region, in drawing
+     * order.
+     * 
+     * @param region
+     *            the region
+     * @return shapes whose bounds intersect the region
+     */
+    public List<GeometricShape> shapesIn(Bounds region) {
+        if (region == null) {
+            throw new IllegalArgumentException(
+                    "You can't provide null as argument!");
+        }
+
+        if (region.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Entry> found = new ArrayList<>();
+        for (Grid grid : grids) {
+            grid.collectIn(region, found);
+        }
+
+        return toShapes(found);
+    }
+
+    /**
+     * Stores the entry in the finest grid in which it doesn't cover too many
+     * cells.
+     * 
+     * @param entry
+     *            entry to be stored
+     */
+    private void link(Entry entry) {
+        if (!entry.bounds.isEmpty()) {
+            gridOf(entry.bounds).link(entry);
+        }
+    }
+
+    /**
+     * Removes the entry from all cells in which it is stored.
+     * 
+     * @param entry
+     *            entry to be removed
+     */
+    private void unlink(Entry entry) {
+        if (!entry.bounds.isEmpty()) {
+            gridOf(entry.bounds).unlink(entry);
+        }
+    }
+
+    /**
+     * Returns the finest grid in which a shape with the given bounds covers
+     * at most {@link #MAX_CELLS_PER_SHAPE} cells.
+     * 
+     * @param bounds
+     *            bounds of the shape
+     * @return the grid storing the shape
+     */
+    private Grid gridOf(Bounds bounds) {
+        for (int i = 0; i < grids.length - 1; i++) {
+            if (grids[i].cellsCovered(bounds) <= MAX_CELLS_PER_SHAPE) {
+                return grids[i];
+            }
+        }
+        return grids[grids.length - 1];
+    }
+
+    /**
+     * Adds entries of the cell whose shapes contain the given point.
+     * 
+     * @param cell
+     *            the cell, may be {@code null}
+     * @param x
+     *            the X coordinate of the point
+     * @param y
+     *            the Y coordinate of the point
+     * @param found
+     *            list of found entries
+     */
+    private static void collectAt(Cell cell, int x, int y, List<Entry> found) {
+        if (cell == null) {
+            return;
+        }
+
+        for (int i = 0; i < cell.size; i++) {
+            Entry entry = cell.entries[i];
+            if (entry.bounds.contains(x, y)
+                    && entry.shape.containsPoint(x, y)) {
+                found.add(entry);
+            }
+        }
+    }
+
+    /**
+     * Returns the topmost entry of the cell, or the given one if it is above
+     * them, whose shape contains the given point.
+     * 
+     * @param cell
+     *            the cell, may be {@code null}
+     * @param x
+     *            the X coordinate of the point
+     * @param y
+     *            the Y coordinate of the point
+     * @param top
+     *            the topmost entry found so far, may be {@code null}
+     * @return the topmost entry containing the point
+     */
+    private static Entry topmostAt(Cell cell, int x, int y, Entry top) {
+        if (cell == null) {
+            return top;
+        }
+
+        // entries of a cell are in drawing order, so search from the top
+        for (int i = cell.size - 1; i >= 0; i--) {
+            Entry entry = cell.entries[i];
+            if (top != null && entry.sequence < top.sequence) {
+                break;
+            }
+
+            if (entry.bounds.contains(x, y)
+                    && entry.shape.containsPoint(x, y)) {
+                return entry;
+            }
+        }
+        return top;
+    }
+
+    /**
+     * Sorts entries into drawing order and returns their shapes.
+     * 
+     * @param found
+     *            found entries
+     * @return shapes of the entries in drawing order
+     */
+    private static List<GeometricShape> toShapes(List<Entry> found) {
+        found.sort((a, b) -> Long.compare(a.sequence, b.sequence));
+
+        List<GeometricShape> shapes = new ArrayList<>(found.size());
+        for (Entry entry : found) {
+            shapes.add(entry.shape);
+        }
+        return shapes;
+    }
+
+    /**
+     * Shape stored in the index together with its bounds and its position in
+     * the drawing order.
+     * 
+     * @author Karlo Vrbić
+     * @version 1.0
+     */
+    private static class Entry {
+
+        /**
+         * The shape.
+         */
+        private final GeometricShape shape;
+
+        /**
+         * Bounds of the shape.
+         */
+        private final Bounds bounds;
+
+        /**
+         * Position of the shape in the drawing order.
+         */
+        private final long sequence;
+
+        /**
+         * Constructs an {@code Entry} for the given shape.
+         * 
+         * @param shape
+         *            the shape
+         * @param sequence
+         *            position of the shape in the drawing order
+         */
+        Entry(GeometricShape shape, long sequence) {
+            this.shape = shape;
+            this.bounds = shape.getBounds();
+            this.sequence = sequence;
+        }
+
+    }
+
+    /**
+     * Uniform grid of square cells. Cells containing at least one entry are
+     * kept in a hash table with linear probing, which is at most half full,
+     * and every cell is found by its own coordinates.
+     * 
+     * @author Karlo Vrbić
+     * @version 1.0
+     */
+    private static class Grid {
+
+        /**
+         * Width and height of a cell.
+         */
+        private final int cellSize;
+
+        /**
+         * Hash table of the cells, whose length is a power of two.
+         */
+        private Cell[] table = new Cell[16];
+
+        /**
+         * Number of bits by which a hashed key is shifted to get a slot.
+         */
+        private int shift = 64 - 4;
+
+        /**
+         * Number of cells in the table.
+         */
+        private int size;
+
+        /**
+         * Constructs an empty {@code Grid} with cells of the given size.
+         * 
+         * @param cellSize
+         *            width and height of a cell
+         */
+        Grid(int cellSize) {
+            this.cellSize = cellSize;
+        }
+
+        /**
+         * Returns the number of cells which bounds of a shape intersect.
+         * 
+         * @param bounds
+         *            bounds of the shape
+         * @return the number of cells
+         */
+        long cellsCovered(Bounds bounds) {
+            long columns = (long) cell(bounds.getMaxX() - 1)
+                    - cell(bounds.getX()) + 1;
+            long rows = (long) cell(bounds.getMaxY() - 1)
+                    - cell(bounds.getY()) + 1;
+
+            return columns * rows;
+        }
+
+        /**
+         * Stores the entry in the cells its bounds intersect.
+         * 
+         * @param entry
+         *            entry to be stored
+         */
+        void link(Entry entry) {
+            Bounds bounds = entry.bounds;
+            int lastX = cell(bounds.getMaxX() - 1);
+            int lastY = cell(bounds.getMaxY() - 1);
+
+            for (int cy = cell(bounds.getY()); cy <= lastY; cy++) {
+                for (int cx = cell(bounds.getX()); cx <= lastX; cx++) {
+                    add(cx, cy, entry);
+                }
+            }
+        }
+
+        /**
+         * Removes the entry from the cells its bounds intersect, dropping the
+         * cells which become empty.
+         * 
+         * @param entry
+         *            entry to be removed
+         */
+        void unlink(Entry entry) {
+            Bounds bounds = entry.bounds;
+            int lastX = cell(bounds.getMaxX() - 1);
+            int lastY = cell(bounds.getMaxY() - 1);
+
+            for (int cy = cell(bounds.getY()); cy <= lastY; cy++) {
+                for (int cx = cell(bounds.getX()); cx <= lastX; cx++) {
+                    int i = indexOf(cx, cy);
+                    Cell cell = table[i];
+
+                    cell.remove(entry);
+                    if (cell.size == 0) {
+                        delete(i);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Returns the cell containing the given point.
+         * 
+         * @param x
+         *            the X coordinate of the point
+         * @param y
+         *            the Y coordinate of the point
+         * @return the cell or {@code null} if it is empty
+         */
+        Cell cellAt(int x, int y) {
+            if (size == 0) {
+                return null;
+            }
+            return table[indexOf(cell(x), cell(y))];
+        }
+
+        /**
+         * Adds entries whose bounds intersect the region. An entry stored in
+         * more than one cell is added only by the cell containing the upper
+         * left corner of the intersection of its bounds and the region.
+         * 
+         * @param region
+         *            the region, which is not empty
+         * @param found
+         *            list of found entries
+         */
+        void collectIn(Bounds region, List<Entry> found) {
+            if (size == 0) {
+                return;
+            }
+
+            int firstX = cell(region.getX());
+            int lastX = cell(region.getMaxX() - 1);
+            int firstY = cell(region.getY());
+            int lastY = cell(region.getMaxY() - 1);
+
+            // big regions visit existing cells instead of looking up every one
+            long touched = ((long) lastX - firstX + 1)
+                    * ((long) lastY - firstY + 1);
+            if (touched > size) {
+                for (Cell cell : table) {
+                    collectIn(cell, region, found);
+                }
+            } else {
+                for (int cy = firstY; cy <= lastY; cy++) {
+                    for (int cx = firstX; cx <= lastX; cx++) {
+                        collectIn(table[indexOf(cx, cy)], region, found);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Adds entries of the cell whose bounds intersect the region and whose
+         * intersection with the region starts in this cell.
+         * 
+         * @param cell
+         *            the cell, may be {@code null}
+         * @param region
+         *            the region
+         * @param found
+         *            list of found entries
+         */
+        private void collectIn(Cell cell, Bounds region, List<Entry> found) {
+            if (cell == null) {
+                return;
+            }
+
+            for (int i = 0; i < cell.size; i++) {
+                Entry entry = cell.entries[i];
+                Bounds common = entry.bounds.intersection(region);
+
+                if (!common.isEmpty() && cell(common.getX()) == cell.cx
+                        && cell(common.getY()) == cell.cy) {
+                    found.add(entry);
+                }
+            }
+        }
+
+        /**
+         * Adds the entry to the cell with the given coordinates, creating the
+         * cell if needed.
+         * 
+         * @param cx
+         *            the X coordinate of the cell
+         * @param cy
+         *            the Y coordinate of the cell
+         * @param entry
+         *            entry to be added
+         */
+        private void add(int cx, int cy, Entry entry) {
+            int i = indexOf(cx, cy);
+            Cell cell = table[i];
+
+            if (cell == null) {
+                cell = new Cell(cx, cy);
+                table[i] = cell;
+                if (++size * 2 > table.length) {
+                    resize();
+                }
+            }
+            cell.add(entry);
+        }
+
+        /**
+         * Returns the slot of the cell with the given coordinates, or the
+         * empty slot where it would be stored.
+         * 
+         * @param cx
+         *            the X coordinate of the cell
+         * @param cy
+         *            the Y coordinate of the cell
+         * @return the slot
+         */
+        private int indexOf(int cx, int cy) {
+            int mask = table.length - 1;
+
+            for (int i = slot(cx, cy);; i = (i + 1) & mask) {
+                Cell cell = table[i];
+                if (cell == null || (cell.cx == cx && cell.cy == cy)) {
+                    return i;
+                }
+            }
+        }
+
+        /**
+         * Empties the slot, moving back the following cells which would
+         * otherwise no longer be found.
+         * 
+         * @param i
+         *            the slot
+         */
+        private void delete(int i) {
+            int mask = table.length - 1;
+
+            for (int j = (i + 1) & mask; table[j] != null; j = (j + 1) & mask) {
+                int home = slot(table[j].cx, table[j].cy);
+                // cell can move back if the empty slot is between its home
+                // slot and its current one
+                if (((j - home) & mask) >= ((j - i) & mask)) {
+                    table[i] = table[j];
+                    i = j;
+                }
+            }
+
+            table[i] = null;
+            size--;
+        }
+
+        /**
+         * Doubles the length of the table.
+         */
+        private void resize() {
+            Cell[] old = table;
+            table = new Cell[old.length * 2];
+            shift--;
+
+            for (Cell cell : old) {
+                if (cell != null) {
+                    table[indexOf(cell.cx, cell.cy)] = cell;
+                }
+            }
+        }
+
+        /**
+         * Returns the home slot of the cell with the given coordinates.
+         * 
+         * @param cx
+         *            the X coordinate of the cell
+         * @param cy
+         *            the Y coordinate of the cell
+         * @return the slot
+         */
+        private int slot(int cx, int cy) {
+            long key = ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+            return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+        }
+
+        /**
+         * Returns the coordinate of the cell containing the given coordinate.
+         * 
+         * @param coordinate
+         *            the X or Y coordinate
+         * @return the coordinate of the cell
+         */
+        private int cell(int coordinate) {
+            return Math.floorDiv(coordinate, cellSize);
+        }
+
+    }
+
+    /**
+     * Entries stored in a cell, sorted by their position in the drawing
+     * order.
+     * 
+     * @author Karlo Vrbić
+     * @version 1.0
+     */
+    private static class Cell {
+
+        /**
+         * The X coordinate of the cell.
+         */
+        private final int cx;
+
+        /**
+         * The Y coordinate of the cell.
+         */
+        private final int cy;
+
+        /**
+         * Entries of the cell.
+         */
+        private Entry[] entries = new Entry[4];
+
+        /**
+         * Number of entries of the cell.
+         */
+        private int size;
+
+        /**
+         * Constructs an empty {@code Cell} with the given coordinates.
+         * 
+         * @param cx
+         *            the X coordinate of the cell
+         * @param cy
+         *            the Y coordinate of the cell
+         */
+        Cell(int cx, int cy) {
+            this.cx = cx;
+            this.cy = cy;
+        }
+
+        /**
+         * Adds the entry, keeping entries sorted.
+         * 
+         * @param entry
+         *            entry to be added
+         */
+        void add(Entry entry) {
+            if (size == entries.length) {
+                entries = Arrays.copyOf(entries, size * 2);
+            }
+
+            int i = size;
+            while (i > 0 && entries[i - 1].sequence > entry.sequence) {
+                entries[i] = entries[i - 1];
+                i--;
+            }
+            entries[i] = entry;
+            size++;
+        }
+
+        /**
+         * Removes the entry.
+         * 
+         * @param entry
+         *            entry to be removed
+         */
+        void remove(Entry entry) {
+            for (int i = 0; i < size; i++) {
+                if (entries[i] == entry) {
+                    System.arraycopy(entries, i + 1, entries, i, size - i - 1);
+                    entries[--size] = null;
+                    return;
+                }
+            }
+        }
+
+    }
+
+}
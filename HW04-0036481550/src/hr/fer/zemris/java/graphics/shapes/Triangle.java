@@ -1,6 +1,8 @@
 package hr.fer.zemris.java.graphics.shapes;
 
+import hr.fer.zemris.java.graphics.metrics.Instrumentation;
 import hr.fer.zemris.java.graphics.raster.BWRaster;
+import hr.fer.zemris.java.graphics.raster.Bounds;
 
 /**
  * The {@code Triangle} class represents a triangle. In order to construct it
@@ -71,6 +73,9 @@ public class Triangle extends GeometricShape {
 
     /**
      * {@inheritDoc}
+     * <p>
+     * Point is inside of the triangle if it isn't on the outer side of any of
+     * its edges. Pixels lying exactly on an edge belong to the triangle.
      * 
      * @param x
      *            {@inheritDoc}
@@ -80,115 +85,186 @@ public class Triangle extends GeometricShape {
      */
     @Override
     public boolean containsPoint(int x, int y) {
-        return false;
+        if (y < y1 || y > y3) {
+            return false;
+        }
+
+        long e1 = edge(x1, y1, x2, y2, x, y);
+        long e2 = edge(x2, y2, x3, y3, x, y);
+        long e3 = edge(x3, y3, x1, y1, x, y);
+
+        long area = edge(x1, y1, x2, y2, x3, y3);
+        if (area > 0) {
+            return e1 >= 0 && e2 >= 0 && e3 >= 0;
+        } else if (area < 0) {
+            return e1 <= 0 && e2 <= 0 && e3 <= 0;
+        }
+
+        return e1 == 0 && e2 == 0 && e3 == 0
+                && x >= Math.min(x1, Math.min(x2, x3))
+                && x <= Math.max(x1, Math.max(x2, x3));
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @return {@inheritDoc}
+     */
+    @Override
+    public Bounds getBounds() {
+        return Bounds.fromCorners(
+                Math.min(x1, Math.min(x2, x3)),
+                y1,
+                Math.max(x1, Math.max(x2, x3)) + 1L,
+                y3 + 1L);
     }
 
     /**
      * {@inheritDoc}
+     * <p>
+     * Every row is drawn as a single span. Its ends are computed exactly from
+     * the edges of the triangle, so the drawn pixels are the ones for which
+     * {@link #containsPoint(int, int)} returns {@code true}.
      * 
      * @param r
      *            {@inheritDoc}
      */
     @Override
     public void draw(BWRaster r) {
-        /* here we know that v1.y <= v2.y <= v3.y */
-        /* check for trivial case of bottom-flat triangle */
-        if (y2 == y3) {
-            fillBottomFlatTriangle(r, x1, y1, x2, y2, x3, y3);
+        long startTime = Instrumentation.drawStarted();
+        Bounds clip = getBounds().intersection(r.getBounds());
+        if (clip.isEmpty()) {
+            Instrumentation.drawFinished(this, startTime);
+            return;
         }
-        /* check for trivial case of top-flat triangle */
-        else if (y1 == y2) {
-            fillTopFlatTriangle(r, x1, y1, x2, y2, x3, y3);
-        } else {
-            /*
-             * general case - split the triangle in a top-flat and bottom-flat
-             * one
-             */
-            int x4 = (int) (x1
-                    + ((double) (y2 - y1) / (double) (y3 - y1)) * (x3 - x1));
-            int y4 = y2;
-
-            fillBottomFlatTriangle(r, x1, y1, x2, y2, x4, y4);
-            fillTopFlatTriangle(r, x2, y2, x4, y4, x3, y3);
+
+        long area = edge(x1, y1, x2, y2, x3, y3);
+        for (int y = clip.getY(); y < clip.getMaxY(); y++) {
+            long left = clip.getX();
+            long right = clip.getMaxX() - 1;
+
+            if (area >= 0) {
+                left = leftLimit(x1, y1, x2, y2, y, left);
+                left = leftLimit(x2, y2, x3, y3, y, left);
+                left = leftLimit(x3, y3, x1, y1, y, left);
+                right = rightLimit(x1, y1, x2, y2, y, right);
+                right = rightLimit(x2, y2, x3, y3, y, right);
+                right = rightLimit(x3, y3, x1, y1, y, right);
+            }
+            if (area <= 0) {
+                left = leftLimit(x2, y2, x1, y1, y, left);
+                left = leftLimit(x3, y3, x2, y2, y, left);
+                left = leftLimit(x1, y1, x3, y3, y, left);
+                right = rightLimit(x2, y2, x1, y1, y, right);
+                right = rightLimit(x3, y3, x2, y2, y, right);
+                right = rightLimit(x1, y1, x3, y3, y, right);
+            }
+
+            if (left <= right) {
+                r.turnOnSpan((int) left, (int) right + 1, y);
+            }
         }
+
+        Instrumentation.drawFinished(this, startTime);
     }
 
     /**
-     * Draws a filled triangle which bottom side is flat.
+     * Returns the value of the edge function of the edge from point (ax, ay)
+     * to point (bx, by) at point (px, py). Sign of the value tells on which
+     * side of the line through the edge the point is; value is zero if the
+     * point is on that line.
      * 
-     * @param r
-     *            raster on which this method will draw
-     * @param x1
-     *            the X coordinate of the first corner.
-     * @param y1
-     *            the Y coordinate of the first corner.
-     * @param x2
-     *            the X coordinate of the second corner.
-     * @param y2
-     *            the Y coordinate of the second corner.
-     * @param x3
-     *            the X coordinate of the third corner.
-     * @param y3
-     *            the Y coordinate of the third corner.
+     * @param ax
+     *            the X coordinate of the first point of the edge
+     * @param ay
+     *            the Y coordinate of the first point of the edge
+     * @param bx
+     *            the X coordinate of the second point of the edge
+     * @param by
+     *            the Y coordinate of the second point of the edge
+     * @param px
+     *            the X coordinate of the point
+     * @param py
+     *            the Y coordinate of the point
+     * @return value of the edge function
      */
-    private void fillBottomFlatTriangle(
-            BWRaster r,
-            int x1,
-            int y1,
-            int x2,
-            int y2,
-            int x3,
-            int y3) {
-        double invslope1 = ((double) (x2 - x1)) / ((double) (y2 - y1));
-        double invslope2 = ((double) (x3 - x1)) / ((double) (y3 - y1));
-
-        double curx1 = x1;
-        double curx2 = x1;
-
-        for (int scanlineY = y1; scanlineY <= y2; scanlineY++) {
-            new Line((int) curx1, scanlineY, (int) curx2, scanlineY).draw(r);
-            curx1 += invslope1;
-            curx2 += invslope2;
+    private static long edge(int ax, int ay, int bx, int by, int px, int py) {
+        return ((long) bx - ax) * ((long) py - ay)
+                - ((long) by - ay) * ((long) px - ax);
+    }
+
+    /**
+     * Returns the X coordinate of the leftmost pixel of the row y which is
+     * both right of the given limit and on the non-negative side of the edge
+     * from point (ax, ay) to point (bx, by). If no pixel of the row is on that
+     * side of the edge {@link Long#MAX_VALUE} is returned.
+     * 
+     * @param ax
+     *            the X coordinate of the first point of the edge
+     * @param ay
+     *            the Y coordinate of the first point of the edge
+     * @param bx
+     *            the X coordinate of the second point of the edge
+     * @param by
+     *            the Y coordinate of the second point of the edge
+     * @param y
+     *            the Y coordinate of the row
+     * @param limit
+     *            the X coordinate of the current leftmost pixel
+     * @return the X coordinate of the new leftmost pixel
+     */
+    private static long leftLimit(
+            int ax,
+            int ay,
+            int bx,
+            int by,
+            int y,
+            long limit) {
+        // edge function of the row is a * x + c
+        long a = (long) ay - by;
+        long c = ((long) bx - ax) * ((long) y - ay) - a * ax;
+
+        if (a > 0) {
+            return Math.max(limit, -Math.floorDiv(c, a));
+        } else if (a == 0 && c < 0) {
+            return Long.MAX_VALUE;
         }
+        return limit;
     }
 
     /**
-     * Draws a filled triangle which top side is flat.
+     * Returns the X coordinate of the rightmost pixel of the row y which is
+     * both left of the given limit and on the non-negative side of the edge
+     * from point (ax, ay) to point (bx, by).
      * 
-     * @param r
-     *            raster on which this method will draw
-     * @param x1
-     *            the X coordinate of the first corner.
-     * @param y1
-     *            the Y coordinate of the first corner.
-     * @param x2
-     *            the X coordinate of the second corner.
-     * @param y2
-     *            the Y coordinate of the second corner.
-     * @param x3
-     *            the X coordinate of the third corner.
-     * @param y3
-     *            the Y coordinate of the third corner.
+     * @param ax
+     *            the X coordinate of the first point of the edge
+     * @param ay
+     *            the Y coordinate of the first point of the edge
+     * @param bx
+     *            the X coordinate of the second point of the edge
+     * @param by
+     *            the Y coordinate of the second point of the edge
+     * @param y
+     *            the Y coordinate of the row
+     * @param limit
+     *            the X coordinate of the current rightmost pixel
+     * @return the X coordinate of the new rightmost pixel
      */
-    private void fillTopFlatTriangle(
-            BWRaster r,
-            int x1,
-            int y1,
-            int x2,
-            int y2,
-            int x3,
-            int y3) {
-        double invslope1 = ((double) (x3 - x1)) / ((double) (y3 - y1));
-        double invslope2 = ((double) (x3 - x2)) / ((double) (y3 - y2));
-
-        double curx1 = x3;
-        double curx2 = x3;
-
-        for (int scanlineY = y3; scanlineY > y1; scanlineY--) {
-            curx1 -= invslope1;
-            curx2 -= invslope2;
-            new Line((int) curx1, scanlineY, (int) curx2, scanlineY).draw(r);
+    private static long rightLimit(
+            int ax,
+            int ay,
+            int bx,
+            int by,
+            int y,
+            long limit) {
+        long a = (long) ay - by;
+        long c = ((long) bx - ax) * ((long) y - ay) - a * ax;
+
+        if (a < 0) {
+            return Math.min(limit, Math.floorDiv(c, -a));
         }
+        return limit;
     }
 
     /**
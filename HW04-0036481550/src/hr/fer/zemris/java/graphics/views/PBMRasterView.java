@@ -0,0 +1,171 @@
+package hr.fer.zemris.java.graphics.views;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.WritableByteChannel;
+
+import hr.fer.zemris.java.graphics.metrics.Instrumentation;
+import hr.fer.zemris.java.graphics.raster.BWRaster;
+import hr.fer.zemris.java.graphics.raster.PackedBWRaster;
+
+/**
+ * {@code PBMRasterView} writes the raster to a channel as a binary Netpbm
+ * bitmap (P4 format). Every pixel is a single bit, turned on pixels are
+ * written as ones (black) and every row is padded to a whole byte.
+ * <p>
+ * Bytes are collected in a direct buffer which is reused by all calls to
+ * {@link #produce(BWRaster)}, so a view must not be used from multiple
+ * threads at the same time. Pixels of a {@link PackedBWRaster} are copied a
+ * word at a time.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see hr.fer.zemris.java.graphics.io.PBMRasterLoader
+ */
+public class PBMRasterView implements RasterView {
+
+    /**
+     * Default capacity of the buffer in bytes.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Channel to which the bitmap is written.
+     */
+    private WritableByteChannel channel;
+
+    /**
+     * Buffer collecting bytes before they are written to the channel.
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * Creates a new {@code PBMRasterView} which writes to the given channel.
+     * 
+     * @param channel
+     *            channel to which bitmaps are written
+     */
+    public PBMRasterView(WritableByteChannel channel) {
+        if (channel == null) {
+            throw new IllegalArgumentException(
+                    "You can't provide null as argument!");
+        }
+
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+
+    /**
+     * Writes the raster to the channel. Channel is not closed.
+     * 
+     * @param raster
+     *            raster to be written
+     * @return {@code null} for all inputs
+     * @throws UncheckedIOException
+     *             if writing fails
+     */
+    @Override
+    public Object produce(BWRaster raster) {
+        if (raster == null) {
+            throw new IllegalArgumentException(
+                    "You can't provide null as argument!");
+        }
+
+        int width = raster.getWidth();
+        int height = raster.getHeight();
+        int rowBytes = (width + 7) >>> 3;
+
+        if (buffer.capacity() < rowBytes) {
+            buffer = ByteBuffer.allocateDirect(rowBytes);
+        }
+        buffer.clear();
+
+        try {
+            String header = "P4\n" + width + " " + height + "\n";
+            buffer.put(header.getBytes(StandardCharsets.US_ASCII));
+
+            for (int y = 0; y < height; y++) {
+                if (buffer.remaining() < rowBytes) {
+                    flush();
+                }
+
+                if (raster instanceof PackedBWRaster) {
+                    putRow((PackedBWRaster) raster, y);
+                } else {
+                    putRow(raster, y);
+                }
+            }
+            flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return null;
+    }
+
+    /**
+     * Puts bytes of the row y of the raster into the buffer.
+     * 
+     * @param raster
+     *            raster to be written
+     * @param y
+     *            the Y coordinate of the row
+     */
+    private void putRow(BWRaster raster, int y) {
+        int width = raster.getWidth();
+
+        for (int x = 0; x < width; x += 8) {
+            int value = 0;
+            for (int i = 0; i < 8; i++) {
+                value <<= 1;
+                if (x + i < width && raster.isTurnedOn(x + i, y)) {
+                    value |= 1;
+                }
+            }
+            buffer.put((byte) value);
+        }
+    }
+
+    /**
+     * Puts bytes of the row y of the packed raster into the buffer. The first
+     * pixel of a word is its lowest bit, but the highest bit of a byte in the
+     * bitmap, so words are reversed and written in big-endian byte order.
+     * 
+     * @param raster
+     *            raster to be written
+     * @param y
+     *            the Y coordinate of the row
+     */
+    private void putRow(PackedBWRaster raster, int y) {
+        int rowBytes = (raster.getWidth() + 7) >>> 3;
+        int index = raster.wordIndex(0, y);
+
+        for (; rowBytes >= 8; rowBytes -= 8, index++) {
+            buffer.putLong(Long.reverse(raster.getWord(index)));
+        }
+
+        if (rowBytes > 0) {
+            long word = Long.reverse(raster.getWord(index));
+            for (int i = 0; i < rowBytes; i++, word <<= 8) {
+                buffer.put((byte) (word >>> 56));
+            }
+        }
+    }
+
+    /**
+     * Writes all bytes from the buffer to the channel and empties the buffer.
+     * 
+     * @throws IOException
+     *             if writing fails
+     */
+    private void flush() throws IOException {
+        buffer.flip();
+        Instrumentation.viewBytesWritten(buffer.remaining());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+}
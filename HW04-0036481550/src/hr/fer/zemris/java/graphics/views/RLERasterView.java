@@ -0,0 +1,208 @@
+package hr.fer.zemris.java.graphics.views;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+import hr.fer.zemris.java.graphics.io.VarInt;
+import hr.fer.zemris.java.graphics.metrics.Instrumentation;
+import hr.fer.zemris.java.graphics.raster.BWRaster;
+import hr.fer.zemris.java.graphics.raster.PackedBWRaster;
+
+/**
+ * {@code RLERasterView} writes the raster to a channel in a run-length
+ * encoded format. Format starts with the {@link #MAGIC} bytes followed by
+ * width and height of the raster. Every row is then written as lengths of
+ * alternating runs of turned off and turned on pixels, starting with a run of
+ * turned off pixels which is empty if the first pixel of the row is turned
+ * on. Lengths of the runs of a row add up to its width. All numbers are
+ * written in the format of {@link VarInt}.
+ * <p>
+ * Runs are written through a buffer of fixed size which is reused by all
+ * calls to {@link #produce(BWRaster)}, so memory used doesn't depend on the
+ * size of the raster and a view must not be used from multiple threads at the
+ * same time. Runs of a {@link PackedBWRaster} are found a word at a time.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see hr.fer.zemris.java.graphics.io.RLERasterDecoder
+ */
+public class RLERasterView implements RasterView {
+
+    /**
+     * Bytes at the start of the format.
+     */
+    public static final byte[] MAGIC = { 'B', 'W', 'R', 'L' };
+
+    /**
+     * Capacity of the buffer in bytes.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Channel to which the runs are written.
+     */
+    private WritableByteChannel channel;
+
+    /**
+     * Buffer collecting bytes before they are written to the channel.
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * Creates a new {@code RLERasterView} which writes to the given channel.
+     * 
+     * @param channel
+     *            channel to which runs are written
+     */
+    public RLERasterView(WritableByteChannel channel) {
+        if (channel == null) {
+            throw new IllegalArgumentException(
+                    "You can't provide null as argument!");
+        }
+
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+
+    /**
+     * Writes the raster to the channel. Channel is not closed.
+     * 
+     * @param raster
+     *            raster to be written
+     * @return {@code null} for all inputs
+     * @throws UncheckedIOException
+     *             if writing fails
+     */
+    @Override
+    public Object produce(BWRaster raster) {
+        if (raster == null) {
+            throw new IllegalArgumentException(
+                    "You can't provide null as argument!");
+        }
+
+        int width = raster.getWidth();
+        int height = raster.getHeight();
+        buffer.clear();
+
+        try {
+            buffer.put(MAGIC);
+            put(width);
+            put(height);
+
+            for (int y = 0; y < height; y++) {
+                boolean on = false;
+                for (int x = 0; x < width;) {
+                    int next = raster instanceof PackedBWRaster
+                            ? nextChange((PackedBWRaster) raster, x, y, on)
+                            : nextChange(raster, x, y, on);
+
+                    put(next - x);
+                    x = next;
+                    on = !on;
+                }
+            }
+            flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the X coordinate of the first pixel of the row y, starting from
+     * x, whose state differs from the given one, or the width of the raster
+     * if there is no such pixel.
+     * 
+     * @param raster
+     *            raster to be written
+     * @param x
+     *            the X coordinate of the first pixel to be checked
+     * @param y
+     *            the Y coordinate of the row
+     * @param on
+     *            state of the current run
+     * @return the X coordinate of the first pixel of the next run
+     */
+    private static int nextChange(BWRaster raster, int x, int y, boolean on) {
+        int width = raster.getWidth();
+
+        while (x < width && raster.isTurnedOn(x, y) == on) {
+            x++;
+        }
+        return x;
+    }
+
+    /**
+     * Returns the X coordinate of the first pixel of the row y, starting from
+     * x, whose state differs from the given one, or the width of the raster
+     * if there is no such pixel. Whole words are skipped while they match the
+     * state.
+     * 
+     * @param raster
+     *            raster to be written
+     * @param x
+     *            the X coordinate of the first pixel to be checked
+     * @param y
+     *            the Y coordinate of the row
+     * @param on
+     *            state of the current run
+     * @return the X coordinate of the first pixel of the next run
+     */
+    private static int nextChange(
+            PackedBWRaster raster,
+            int x,
+            int y,
+            boolean on) {
+        int width = raster.getWidth();
+        int index = raster.wordIndex(x, y);
+        long flip = on ? -1L : 0L;
+
+        // bits of the differing pixels, ignoring pixels left of x
+        long word = (raster.getWord(index) ^ flip) & (-1L << x);
+        int base = x & ~63;
+
+        while (word == 0L) {
+            base += 64;
+            if (base >= width) {
+                return width;
+            }
+            word = raster.getWord(++index) ^ flip;
+        }
+
+        return Math.min(width, base + Long.numberOfTrailingZeros(word));
+    }
+
+    /**
+     * Puts the number into the buffer, first writing the buffer to the
+     * channel if it is almost full.
+     * 
+     * @param value
+     *            the number
+     * @throws IOException
+     *             if writing fails
+     */
+    private void put(int value) throws IOException {
+        if (buffer.remaining() < VarInt.MAX_LENGTH) {
+            flush();
+        }
+        VarInt.put(buffer, value);
+    }
+
+    /**
+     * Writes all bytes from the buffer to the channel and empties the buffer.
+     * 
+     * @throws IOException
+     *             if writing fails
+     */
+    private void flush() throws IOException {
+        buffer.flip();
+        Instrumentation.viewBytesWritten(buffer.remaining());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+}
@@ -1,10 +1,30 @@
 package hr.fer.zemris.java.graphics.views;
 
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+import hr.fer.zemris.java.graphics.metrics.Instrumentation;
 import hr.fer.zemris.java.graphics.raster.BWRaster;
+import hr.fer.zemris.java.graphics.raster.PackedBWRaster;
 
 /**
  * {@code SimpleRasterView} produces visual representation of given raster and
- * outputs it through standard output.
+ * outputs it through standard output or any other given writer or stream.
+ * Every row of the raster is preceded by a line separator.
+ * <p>
+ * Rows are built in a buffer which is reused by all calls to
+ * {@link #produce(BWRaster)} and written as a whole, so a view must not be
+ * used from multiple threads at the same time. Pixels of a
+ * {@link PackedBWRaster} are converted to characters a word at a time.
+ * <p>
+ * When metrics are enabled, bytes written by a view created from a stream
+ * are counted after they have been encoded. Output of a view created from a
+ * writer isn't counted, because its encoding is unknown.
  * 
  * @author Karlo Vrbić
  * @version 1.0
@@ -22,49 +42,244 @@ public class SimpleRasterView implements RasterView {
     private char offSign;
 
     /**
-     * Creates a new {@code SimpleRasterView} object from on and off signs.
+     * Writer to which rows are written.
+     */
+    private Writer out;
+
+    /**
+     * Buffer holding a line separator followed by a row.
+     */
+    private char[] buffer;
+
+    /**
+     * Creates a new {@code SimpleRasterView} object from on and off signs
+     * which writes to the given writer.
      * 
+     * @param out
+     *            writer to which rows are written
      * @param onSign
      *            character representing turned on pixel.
      * @param offSign
      *            character representing turned off pixel.
      */
-    public SimpleRasterView(char onSign, char offSign) {
+    public SimpleRasterView(Writer out, char onSign, char offSign) {
+        if (out == null) {
+            throw new IllegalArgumentException(
+                    "You can't provide null as argument!");
+        }
+
+        this.out = out;
         this.onSign = onSign;
         this.offSign = offSign;
+        this.buffer = System.lineSeparator().toCharArray();
+    }
+
+    /**
+     * Creates a new {@code SimpleRasterView} object from on and off signs
+     * which writes to the given stream using the default charset.
+     * 
+     * @param out
+     *            stream to which rows are written
+     * @param onSign
+     *            character representing turned on pixel.
+     * @param offSign
+     *            character representing turned off pixel.
+     */
+    public SimpleRasterView(OutputStream out, char onSign, char offSign) {
+        this(writerFor(out), onSign, offSign);
     }
 
     /**
      * Creates a new {@code SimpleRasterView} object with '*' as on and '.' as
-     * off sign.
+     * off sign which writes to the given writer.
+     * 
+     * @param out
+     *            writer to which rows are written
+     */
+    public SimpleRasterView(Writer out) {
+        this(out, '*', '.');
+    }
+
+    /**
+     * Creates a new {@code SimpleRasterView} object with '*' as on and '.' as
+     * off sign which writes to the given stream using the default charset.
+     * 
+     * @param out
+     *            stream to which rows are written
+     */
+    public SimpleRasterView(OutputStream out) {
+        this(out, '*', '.');
+    }
+
+    /**
+     * Creates a new {@code SimpleRasterView} object from on and off signs
+     * which writes to standard output.
+     * 
+     * @param onSign
+     *            character representing turned on pixel.
+     * @param offSign
+     *            character representing turned off pixel.
+     */
+    public SimpleRasterView(char onSign, char offSign) {
+        this(System.out, onSign, offSign);
+    }
+
+    /**
+     * Creates a new {@code SimpleRasterView} object with '*' as on and '.' as
+     * off sign which writes to standard output.
      */
     public SimpleRasterView() {
         this('*', '.');
     }
 
     /**
-     * Produces a visual representation of the raster
+     * Produces a visual representation of the raster. Writer is flushed, but
+     * not closed, after the last row.
      * 
      * @param raster
      *            Raster to be visualized
      * @return {@code null} for all inputs
+     * @throws UncheckedIOException
+     *             if writing fails
      */
     @Override
     public Object produce(BWRaster raster) {
+        if (raster == null) {
+            throw new IllegalArgumentException(
+                    "You can't provide null as argument!");
+        }
+
         int width = raster.getWidth();
         int height = raster.getHeight();
+        int offset = System.lineSeparator().length();
 
-        for (int y = 0; y < height; y++) {
-            System.out.println();
-            for (int x = 0; x < width; x++) {
-                if (raster.isTurnedOn(x, y)) {
-                    System.out.print(onSign);
+        if (buffer.length < offset + width) {
+            buffer = Arrays.copyOf(buffer, offset + width);
+        }
+
+        try {
+            for (int y = 0; y < height; y++) {
+                if (raster instanceof PackedBWRaster) {
+                    fillRow((PackedBWRaster) raster, y, offset);
                 } else {
-                    System.out.print(offSign);
+                    fillRow(raster, y, offset);
                 }
+                out.write(buffer, 0, offset + width);
             }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
         return null;
     }
 
+    /**
+     * Writes characters of the row y of the raster into the buffer, starting
+     * at the given offset.
+     * 
+     * @param raster
+     *            raster to be visualized
+     * @param y
+     *            the Y coordinate of the row
+     * @param offset
+     *            position of the first pixel in the buffer
+     */
+    private void fillRow(BWRaster raster, int y, int offset) {
+        int width = raster.getWidth();
+
+        for (int x = 0; x < width; x++) {
+            buffer[offset + x] = raster.isTurnedOn(x, y) ? onSign : offSign;
+        }
+    }
+
+    /**
+     * Writes characters of the row y of the packed raster into the buffer,
+     * starting at the given offset. Words with all pixels turned off or all
+     * turned on are filled without looking at single bits.
+     * 
+     * @param raster
+     *            raster to be visualized
+     * @param y
+     *            the Y coordinate of the row
+     * @param offset
+     *            position of the first pixel in the buffer
+     */
+    private void fillRow(PackedBWRaster raster, int y, int offset) {
+        int width = raster.getWidth();
+        int index = raster.wordIndex(0, y);
+
+        for (int x = 0; x < width; x += 64, index++) {
+            long word = raster.getWord(index);
+            int from = offset + x;
+            int to = from + Math.min(64, width - x);
+
+            if (word == 0L) {
+                Arrays.fill(buffer, from, to, offSign);
+            } else if (word == -1L) {
+                Arrays.fill(buffer, from, to, onSign);
+            } else {
+                for (int i = from; i < to; i++, word >>>= 1) {
+                    buffer[i] = (word & 1L) != 0 ? onSign : offSign;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a writer which writes to the given stream using the default
+     * charset.
+     * 
+     * @param out
+     *            stream to be written to
+     * @return writer writing to the stream
+     */
+    private static Writer writerFor(OutputStream out) {
+        if (out == null) {
+            throw new IllegalArgumentException(
+                    "You can't provide null as argument!");
+        }
+
+        if (Instrumentation.ENABLED) {
+            out = new CountingOutputStream(out);
+        }
+        return new OutputStreamWriter(out);
+    }
+
+    /**
+     * Output stream which reports the number of bytes written through it as
+     * output of a view.
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        /**
+         * Creates a new {@code CountingOutputStream} which writes to the given
+         * stream.
+         * 
+         * @param out
+         *            stream to be written to
+         */
+        public CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            Instrumentation.viewBytesWritten(1);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            Instrumentation.viewBytesWritten(len);
+        }
+
+    }
+
 }
@@ -0,0 +1,103 @@
+package hr.fer.zemris.java.graphics.shapes;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.graphics.raster.BWRaster;
+import hr.fer.zemris.java.graphics.raster.BWRasterBits;
+import hr.fer.zemris.java.graphics.raster.Bounds;
+
+@SuppressWarnings("javadoc")
+public class CompiledShapeTest {
+
+	private static final GeometricShape[] SHAPES = {
+			new Rectangle(-5, 3, 20, 7), new Square(30, 30, 9),
+			new Ellipse(40, 20, 25, 11), new Circle(10, 35, 12),
+			new Triangle(5, 2, 70, 25, 20, 39), new Line(0, 39, 79, 0),
+			new Line(3, 0, 9, 39), new GeometricShape() {
+
+				@Override
+				public boolean containsPoint(int x, int y) {
+					return getBounds().contains(x, y) && (x + y) % 3 == 0;
+				}
+
+				@Override
+				public Bounds getBounds() {
+					return new Bounds(50, 5, 20, 20);
+				}
+			} };
+
+	@Test
+	public void testCompiledShapeDrawsSamePixels() {
+		for (GeometricShape shape : SHAPES) {
+			CompiledShape compiled = shape.compile();
+
+			BWRaster expected = new BWRasterBits(80, 40);
+			BWRaster actual = new BWRasterBits(80, 40);
+			shape.draw(expected);
+			compiled.draw(actual);
+
+			assertEquals(shape.getBounds(), compiled.getBounds());
+			for (int y = 0; y < 40; y++) {
+				for (int x = 0; x < 80; x++) {
+					assertEquals(expected.isTurnedOn(x, y),
+							actual.isTurnedOn(x, y));
+					assertEquals(shape.containsPoint(x, y),
+							compiled.containsPoint(x, y));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testCompileIsCached() {
+		Circle circle = new Circle(10, 10, 5);
+		CompiledShape compiled = circle.compile();
+
+		assertSame(compiled, circle.compile());
+		assertSame(compiled, compiled.compile());
+		assertEquals(11, compiled.getSpanCount());
+	}
+
+	@Test
+	public void testTranslateAndOffset() {
+		Ellipse ellipse = new Ellipse(20, 15, 12, 6);
+		CompiledShape moved = ellipse.compile().translate(-7, 4);
+
+		BWRaster translated = new BWRasterBits(60, 40);
+		BWRaster offset = new BWRasterBits(60, 40);
+		moved.draw(translated);
+		ellipse.compile().draw(offset, -7, 4);
+
+		assertEquals(new Bounds(1, 13, 25, 13), moved.getBounds());
+		for (int y = 0; y < 40; y++) {
+			for (int x = 0; x < 60; x++) {
+				assertEquals(ellipse.containsPoint(x + 7, y - 4),
+						translated.isTurnedOn(x, y));
+				assertEquals(ellipse.containsPoint(x + 7, y - 4),
+						offset.isTurnedOn(x, y));
+				assertEquals(ellipse.containsPoint(x + 7, y - 4),
+						moved.containsPoint(x, y));
+			}
+		}
+	}
+
+	@Test
+	public void testFlipMode() {
+		BWRaster raster = new BWRasterBits(80, 40);
+		raster.enableFlipMode();
+
+		CompiledShape triangle = new Triangle(5, 2, 70, 25, 20, 39)
+				.compile();
+		triangle.draw(raster);
+		triangle.draw(raster, 0, 0);
+
+		for (int y = 0; y < 40; y++) {
+			for (int x = 0; x < 80; x++) {
+				assertFalse(raster.isTurnedOn(x, y));
+			}
+		}
+	}
+
+}
@@ -2,8 +2,15 @@ package hr.fer.zemris.java.graphics.shapes;
 
 import static org.junit.Assert.*;
 
+import java.math.BigInteger;
+import java.util.Random;
+
 import org.junit.Test;
 
+import hr.fer.zemris.java.graphics.raster.BWRaster;
+import hr.fer.zemris.java.graphics.raster.BWRasterBits;
+import hr.fer.zemris.java.graphics.raster.Bounds;
+
 @SuppressWarnings("javadoc")
 public class GeometricShapeTest {
 
@@ -44,4 +51,428 @@ public class GeometricShapeTest {
 		assertFalse(square.containsPoint(4, 5));
 		assertFalse(square.containsPoint(5, 5));
 	}
+
+	@Test
+	public void testEllipseContainsPoint() {
+		Ellipse ellipse = new Ellipse(10, 10, 5, 3);
+
+		assertTrue(ellipse.containsPoint(10, 10));
+		assertTrue(ellipse.containsPoint(5, 10));
+		assertTrue(ellipse.containsPoint(15, 10));
+		assertTrue(ellipse.containsPoint(10, 7));
+		assertTrue(ellipse.containsPoint(10, 13));
+
+		assertFalse(ellipse.containsPoint(4, 10));
+		assertFalse(ellipse.containsPoint(16, 10));
+		assertFalse(ellipse.containsPoint(10, 6));
+		assertFalse(ellipse.containsPoint(10, 14));
+		assertFalse(ellipse.containsPoint(15, 13));
+	}
+
+	@Test
+	public void testCircleContainsPoint() {
+		Circle circle = new Circle(0, 0, 5);
+
+		assertTrue(circle.containsPoint(3, 4));
+		assertTrue(circle.containsPoint(-3, -4));
+		assertTrue(circle.containsPoint(0, -5));
+		assertFalse(circle.containsPoint(4, 4));
+		assertFalse(circle.containsPoint(-5, 1));
+	}
+
+	@Test
+	public void testFarAwayPointsAreNotContained() {
+		Circle circle = new Circle(0, 0, 10);
+
+		assertFalse(circle.containsPoint(Integer.MAX_VALUE, 0));
+		assertFalse(circle.containsPoint(-2000000000, 0));
+		assertFalse(circle.containsPoint(Integer.MIN_VALUE, 0));
+		assertFalse(circle.containsPoint(0, Integer.MAX_VALUE));
+		assertFalse(new Ellipse(0, 0, 10, 0).containsPoint(Integer.MAX_VALUE,
+				0));
+	}
+
+	@Test
+	public void testHugeCircleContainsPoint() {
+		Circle circle = new Circle(0, 0, 60000);
+
+		assertTrue(circle.containsPoint(30000, 30000));
+		assertTrue(circle.containsPoint(42426, -42426));
+		assertFalse(circle.containsPoint(42427, 42427));
+		assertTrue(circle.containsPoint(-60000, 0));
+		assertFalse(circle.containsPoint(-60001, 0));
+
+		Circle huge = new Circle(0, 0, 1000000000);
+		assertTrue(huge.containsPoint(600000000, 800000000));
+		assertFalse(huge.containsPoint(600000001, 800000000));
+		assertTrue(huge.containsPoint(-1000000000, 0));
+		assertFalse(huge.containsPoint(Integer.MAX_VALUE, 0));
+	}
+
+	@Test
+	public void testEllipseContainsDrawnPixels() {
+		Ellipse[] ellipses = { new Ellipse(20, 15, 12, 7),
+				new Ellipse(20, 15, 3, 14), new Circle(5, 5, 9),
+				new Ellipse(20, 15, 6, 0), new Ellipse(20, 15, 0, 4) };
+
+		for (Ellipse ellipse : ellipses) {
+			BWRaster raster = new BWRasterBits(40, 30);
+			ellipse.draw(raster);
+
+			for (int y = 0; y < 30; y++) {
+				for (int x = 0; x < 40; x++) {
+					assertEquals(raster.isTurnedOn(x, y),
+							ellipse.containsPoint(x, y));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testBigEllipseContainsPointIsExact() {
+		Random random = new Random(8);
+
+		for (int i = 0; i < 100000; i++) {
+			int a = 46341 + random.nextInt(Integer.MAX_VALUE - 46341);
+			int b = 46341 + random.nextInt(Integer.MAX_VALUE - 46341);
+			Ellipse ellipse = new Ellipse(0, 0, a, b);
+
+			// points close to the edge, where rounding would be visible
+			int dy = random.nextInt(b + 1);
+			double edge = a * Math.sqrt(1 - ((double) dy / b) * dy / b);
+			int dx = (int) Math.min(a,
+					Math.max(0, edge + random.nextInt(5) - 2));
+
+			BigInteger left = BigInteger.valueOf(b).pow(2)
+					.multiply(BigInteger.valueOf(dx).pow(2))
+					.add(BigInteger.valueOf(a).pow(2)
+							.multiply(BigInteger.valueOf(dy).pow(2)));
+			BigInteger right = BigInteger.valueOf(a).pow(2)
+					.multiply(BigInteger.valueOf(b).pow(2));
+
+			assertEquals(left.compareTo(right) <= 0,
+					ellipse.containsPoint(dx, -dy));
+		}
+	}
+
+	@Test
+	public void testHugeEllipseCoversRaster() {
+		Ellipse[] ellipses = { new Circle(5, 5, 60000),
+				new Circle(-40000, 5, 60000), new Ellipse(5, 5, 1000000000, 7),
+				new Circle(5, 5, 1000000000) };
+
+		for (Ellipse ellipse : ellipses) {
+			BWRaster raster = new BWRasterBits(10, 10);
+			ellipse.draw(raster);
+
+			for (int y = 0; y < 10; y++) {
+				for (int x = 0; x < 10; x++) {
+					assertTrue(raster.isTurnedOn(x, y));
+					assertTrue(ellipse.containsPoint(x, y));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testHugeEllipseContainsDrawnPixels() {
+		Ellipse[] ellipses = { new Circle(30000, 60010, 60000),
+				new Ellipse(-99980, 15, 100000, 70000),
+				new Ellipse(20, -999999990, 5, 1000000000) };
+
+		for (Ellipse ellipse : ellipses) {
+			BWRaster raster = new BWRasterBits(40, 30);
+			ellipse.draw(raster);
+
+			for (int y = 0; y < 30; y++) {
+				for (int x = 0; x < 40; x++) {
+					assertEquals(raster.isTurnedOn(x, y),
+							ellipse.containsPoint(x, y));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testShapesBeyondIntRange() {
+		GeometricShape[] shapes = {
+				new Triangle(-2000000000, 0, 2000000000, 0, 0, 50),
+				new Triangle(0, -2000000000, 35, 0, 0, 2000000000),
+				new Circle(0, 0, 1100000000),
+				new Circle(1500000000, 1500000000, 2140000000),
+				new Ellipse(20, 15, 2000000000, 2000000000),
+				new Rectangle(10, 0, Integer.MAX_VALUE, 5),
+				new Rectangle(0, 10, 5, Integer.MAX_VALUE),
+				new Rectangle(-2000000000, -2000000000, Integer.MAX_VALUE,
+						Integer.MAX_VALUE) };
+
+		for (GeometricShape shape : shapes) {
+			BWRaster raster = new BWRasterBits(40, 30);
+			shape.draw(raster);
+
+			assertTrue(shape.getBounds().contains(0, 0)
+					|| shape.getBounds().contains(10, 0)
+					|| shape.getBounds().contains(0, 10));
+			boolean drawn = false;
+			for (int y = 0; y < 30; y++) {
+				for (int x = 0; x < 40; x++) {
+					assertEquals(shape.containsPoint(x, y),
+							raster.isTurnedOn(x, y));
+					drawn |= raster.isTurnedOn(x, y);
+				}
+			}
+			assertTrue(drawn);
+		}
+	}
+
+	@Test
+	public void testTriangleContainsPoint() {
+		Triangle triangle = new Triangle(0, 0, 10, 0, 0, 10);
+
+		assertTrue(triangle.containsPoint(0, 0));
+		assertTrue(triangle.containsPoint(10, 0));
+		assertTrue(triangle.containsPoint(5, 5));
+		assertTrue(triangle.containsPoint(2, 3));
+
+		assertFalse(triangle.containsPoint(6, 5));
+		assertFalse(triangle.containsPoint(-1, 0));
+		assertFalse(triangle.containsPoint(0, 11));
+		assertFalse(triangle.containsPoint(11, 0));
+	}
+
+	@Test
+	public void testTriangleContainsDrawnPixels() {
+		Triangle[] triangles = { new Triangle(3, 2, 35, 9, 12, 27),
+				new Triangle(12, 27, 35, 9, 3, 2),
+				new Triangle(-10, 5, 50, 5, 20, 40),
+				new Triangle(5, 5, 30, 5, 17, 5),
+				new Triangle(2, 2, 14, 26, 8, 14),
+				new Triangle(7, 7, 7, 7, 7, 7) };
+
+		for (Triangle triangle : triangles) {
+			BWRaster raster = new BWRasterBits(40, 30);
+			triangle.draw(raster);
+
+			for (int y = 0; y < 30; y++) {
+				for (int x = 0; x < 40; x++) {
+					assertEquals(triangle.containsPoint(x, y),
+							raster.isTurnedOn(x, y));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testTriangleInFlipMode() {
+		BWRaster raster = new BWRasterBits(40, 30);
+		raster.enableFlipMode();
+
+		Triangle triangle = new Triangle(3, 2, 35, 9, 12, 27);
+		triangle.draw(raster);
+
+		for (int y = 0; y < 30; y++) {
+			for (int x = 0; x < 40; x++) {
+				assertEquals(triangle.containsPoint(x, y),
+						raster.isTurnedOn(x, y));
+			}
+		}
+	}
+
+	@Test
+	public void testLineMatchesBresenham() {
+		Random random = new Random(42);
+
+		for (int i = 0; i < 200; i++) {
+			int x1 = random.nextInt(60) - 10;
+			int y1 = random.nextInt(50) - 10;
+			int x2 = random.nextInt(60) - 10;
+			int y2 = random.nextInt(50) - 10;
+
+			BWRaster expected = new BWRasterBits(40, 30);
+			bresenham(expected, x1, y1, x2, y2);
+
+			Line line = new Line(x1, y1, x2, y2);
+			BWRaster raster = new BWRasterBits(40, 30);
+			line.draw(raster);
+
+			for (int y = 0; y < 30; y++) {
+				for (int x = 0; x < 40; x++) {
+					assertEquals(expected.isTurnedOn(x, y),
+							raster.isTurnedOn(x, y));
+					assertEquals(expected.isTurnedOn(x, y),
+							line.containsPoint(x, y));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testLineCanBeDrawnTwice() {
+		Line line = new Line(3, 4, 35, 17);
+		BWRaster raster = new BWRasterBits(40, 30);
+		raster.enableFlipMode();
+
+		line.draw(raster);
+		assertTrue(line.containsPoint(35, 17));
+		line.draw(raster);
+
+		for (int y = 0; y < 30; y++) {
+			for (int x = 0; x < 40; x++) {
+				assertFalse(raster.isTurnedOn(x, y));
+			}
+		}
+	}
+
+	@Test
+	public void testLongLineIsClipped() {
+		Line line = new Line(-1_000_000_000, -999_999_990, 1_000_000_000,
+				1_000_000_010);
+		BWRaster raster = new BWRasterBits(40, 30);
+		line.draw(raster);
+
+		for (int y = 0; y < 30; y++) {
+			for (int x = 0; x < 40; x++) {
+				assertEquals(line.containsPoint(x, y),
+						raster.isTurnedOn(x, y));
+			}
+		}
+		assertTrue(raster.isTurnedOn(0, 10));
+		assertTrue(raster.isTurnedOn(19, 29));
+	}
+
+	@Test
+	public void testLineWithEndpointsNearIntLimits() {
+		Line[] lines = { new Line(-2000000000, 10, 2000000000, 10),
+				new Line(-1200000000, 0, 1200000000, 63),
+				new Line(5, Integer.MIN_VALUE, 5, Integer.MAX_VALUE),
+				new Line(Integer.MIN_VALUE, Integer.MIN_VALUE,
+						Integer.MAX_VALUE, Integer.MAX_VALUE),
+				new Line(Integer.MAX_VALUE, Integer.MIN_VALUE + 20,
+						Integer.MIN_VALUE + 40, Integer.MAX_VALUE) };
+
+		for (Line line : lines) {
+			BWRaster raster = new BWRasterBits(40, 64);
+			line.draw(raster);
+
+			boolean drawn = false;
+			for (int y = 0; y < 64; y++) {
+				for (int x = 0; x < 40; x++) {
+					assertEquals(line.containsPoint(x, y),
+							raster.isTurnedOn(x, y));
+					drawn |= raster.isTurnedOn(x, y);
+				}
+			}
+			assertTrue(drawn);
+		}
+	}
+
+	private static void bresenham(BWRaster r, int x1, int y1, int x2,
+			int y2) {
+		int d = 0;
+		int dy = Math.abs(y2 - y1);
+		int dx = Math.abs(x2 - x1);
+		int ix = x1 < x2 ? 1 : -1;
+		int iy = y1 < y2 ? 1 : -1;
+
+		if (dy <= dx) {
+			for (;;) {
+				if (r.getBounds().contains(x1, y1)) {
+					r.turnOn(x1, y1);
+				}
+				if (x1 == x2) {
+					break;
+				}
+				x1 += ix;
+				d += 2 * dy;
+				if (d > dx) {
+					y1 += iy;
+					d -= 2 * dx;
+				}
+			}
+		} else {
+			for (;;) {
+				if (r.getBounds().contains(x1, y1)) {
+					r.turnOn(x1, y1);
+				}
+				if (y1 == y2) {
+					break;
+				}
+				y1 += iy;
+				d += 2 * dx;
+				if (d > dy) {
+					x1 += ix;
+					d -= 2 * dy;
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testBounds() {
+		assertEquals(new Bounds(2, 3, 4, 5),
+				new Rectangle(2, 3, 4, 5).getBounds());
+		assertEquals(new Bounds(5, 7, 11, 7),
+				new Ellipse(10, 10, 5, 3).getBounds());
+		assertEquals(new Bounds(-4, -4, 9, 9),
+				new Circle(0, 0, 4).getBounds());
+		assertEquals(new Bounds(1, 1, 10, 201),
+				new Triangle(1, 1, 10, 10, 8, 201).getBounds());
+	}
+
+	@Test
+	public void testBoundsAreSaturated() {
+		Bounds wide = Bounds.fromCorners(-3000000000L, -5, 3000000000L, 5);
+		assertEquals(Integer.MAX_VALUE, wide.getMaxX());
+		assertEquals(Integer.MAX_VALUE, wide.getWidth());
+		assertEquals(0, wide.getX());
+		assertEquals(-5, wide.getY());
+
+		Bounds far = new Bounds(10, -3, Integer.MAX_VALUE, 100);
+		assertEquals(Integer.MAX_VALUE, far.getMaxX());
+		assertEquals(new Bounds(10, 0, 30, 20),
+				far.intersection(new Bounds(0, 0, 40, 20)));
+		assertEquals(Integer.MAX_VALUE, new Bounds(0, Integer.MAX_VALUE - 3,
+				1, 100).getMaxY());
+		assertTrue(Bounds.fromCorners(3000000000L, 0, 4000000000L, 10)
+				.isEmpty());
+	}
+
+	@Test
+	public void testDefaultDrawUsesBounds() {
+		GeometricShape cross = new GeometricShape() {
+
+			@Override
+			public boolean containsPoint(int x, int y) {
+				return (x == 5 && y >= 3 && y <= 7)
+						|| (y == 5 && x >= 3 && x <= 7);
+			}
+
+			@Override
+			public Bounds getBounds() {
+				return new Bounds(3, 3, 5, 5);
+			}
+		};
+
+		BWRaster raster = new BWRasterBits(10, 10);
+		cross.draw(raster);
+
+		for (int y = 0; y < 10; y++) {
+			for (int x = 0; x < 10; x++) {
+				assertEquals(cross.containsPoint(x, y),
+						raster.isTurnedOn(x, y));
+			}
+		}
+	}
+
+	@Test
+	public void testRectangleIsClippedToRaster() {
+		BWRaster raster = new BWRasterBits(10, 10);
+		new Rectangle(-5, 8, 8, 100).draw(raster);
+
+		for (int y = 0; y < 10; y++) {
+			for (int x = 0; x < 10; x++) {
+				assertEquals(x < 3 && y >= 8, raster.isTurnedOn(x, y));
+			}
+		}
+	}
 }
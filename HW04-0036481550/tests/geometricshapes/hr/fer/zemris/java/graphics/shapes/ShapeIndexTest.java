@@ -0,0 +1,175 @@
+package hr.fer.zemris.java.graphics.shapes;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.graphics.raster.Bounds;
+
+@SuppressWarnings("javadoc")
+public class ShapeIndexTest {
+
+	@Test
+	public void testQueriesMatchLinearSearch() {
+		Random random = new Random(3);
+		GeometricShape[] shapes = randomShapes(random, 2000);
+		ShapeIndex index = new ShapeIndex(shapes, 32);
+
+		assertEquals(shapes.length, index.size());
+
+		for (int i = 0; i < 500; i++) {
+			int x = random.nextInt(1200) - 100;
+			int y = random.nextInt(1200) - 100;
+
+			List<GeometricShape> expected = new ArrayList<>();
+			for (GeometricShape shape : shapes) {
+				if (shape.containsPoint(x, y)) {
+					expected.add(shape);
+				}
+			}
+
+			assertEquals(expected, index.shapesAt(x, y));
+			assertSame(expected.isEmpty() ? null
+					: expected.get(expected.size() - 1),
+					index.topmostAt(x, y));
+		}
+
+		for (int i = 0; i < 100; i++) {
+			Bounds region = new Bounds(random.nextInt(1200) - 100,
+					random.nextInt(1200) - 100, random.nextInt(300),
+					random.nextInt(300));
+
+			List<GeometricShape> expected = new ArrayList<>();
+			for (GeometricShape shape : shapes) {
+				if (shape.getBounds().intersects(region)) {
+					expected.add(shape);
+				}
+			}
+
+			assertEquals(expected, index.shapesIn(region));
+		}
+	}
+
+	@Test
+	public void testRemoveAndReplace() {
+		Rectangle bottom = new Rectangle(0, 0, 100, 100);
+		Circle middle = new Circle(50, 50, 10);
+		Rectangle top = new Rectangle(40, 40, 5, 5);
+
+		ShapeIndex index = new ShapeIndex();
+		index.addAll(new GeometricShape[] { bottom, middle, top });
+		assertSame(top, index.topmostAt(44, 44));
+
+		assertTrue(index.remove(top));
+		assertFalse(index.remove(top));
+		assertSame(middle, index.topmostAt(44, 44));
+
+		Circle moved = new Circle(500, 500, 10);
+		index.replace(middle, moved);
+		assertSame(bottom, index.topmostAt(44, 44));
+		assertSame(moved, index.topmostAt(500, 505));
+
+		index.add(top);
+		index.replace(bottom, new Rectangle(490, 490, 20, 20));
+		assertEquals(3, index.size());
+		assertEquals(2, index.shapesAt(500, 500).size());
+		assertSame(moved, index.topmostAt(500, 500));
+	}
+
+	@Test
+	public void testLargeShape() {
+		ShapeIndex index = new ShapeIndex(8);
+		Rectangle huge = new Rectangle(-10_000, -10_000, 20_000, 20_000);
+		Circle small = new Circle(5, 5, 2);
+
+		index.add(huge);
+		index.add(small);
+
+		assertEquals(2, index.shapesAt(5, 5).size());
+		assertSame(small, index.topmostAt(5, 5));
+		assertSame(huge, index.topmostAt(9_000, -9_000));
+		assertEquals(2, index.shapesIn(new Bounds(4, 4, 1, 1)).size());
+	}
+
+	@Test
+	public void testShapesOfAllSizesAfterRemoval() {
+		Random random = new Random(16);
+		GeometricShape[] shapes = new GeometricShape[3000];
+		for (int i = 0; i < shapes.length; i++) {
+			int size = 1 << random.nextInt(31);
+			shapes[i] = new Rectangle(random.nextInt() >> 1,
+					random.nextInt() >> 1, size, 1 + random.nextInt(size));
+		}
+
+		ShapeIndex index = new ShapeIndex(shapes, 4);
+		List<GeometricShape> left = new ArrayList<>();
+		for (GeometricShape shape : shapes) {
+			if (random.nextBoolean()) {
+				assertTrue(index.remove(shape));
+			} else {
+				left.add(shape);
+			}
+		}
+		assertEquals(left.size(), index.size());
+
+		for (int i = 0; i < 2000; i++) {
+			GeometricShape shape = left.get(random.nextInt(left.size()));
+			Bounds bounds = shape.getBounds();
+			int x = bounds.getX() + random.nextInt(bounds.getWidth());
+			int y = bounds.getY() + random.nextInt(bounds.getHeight());
+
+			List<GeometricShape> expected = new ArrayList<>();
+			for (GeometricShape candidate : left) {
+				if (candidate.containsPoint(x, y)) {
+					expected.add(candidate);
+				}
+			}
+
+			assertEquals(expected, index.shapesAt(x, y));
+			assertEquals(expected, index.shapesIn(new Bounds(x, y, 1, 1)));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDuplicateShape() {
+		ShapeIndex index = new ShapeIndex();
+		Circle circle = new Circle(0, 0, 1);
+
+		index.add(circle);
+		index.add(circle);
+	}
+
+	private static GeometricShape[] randomShapes(Random random, int count) {
+		GeometricShape[] shapes = new GeometricShape[count];
+
+		for (int i = 0; i < count; i++) {
+			int x = random.nextInt(1000);
+			int y = random.nextInt(1000);
+
+			switch (i % 4) {
+			case 0:
+				shapes[i] = new Rectangle(x, y, random.nextInt(80) + 1,
+						random.nextInt(80) + 1);
+				break;
+			case 1:
+				shapes[i] = new Ellipse(x, y, random.nextInt(40),
+						random.nextInt(40));
+				break;
+			case 2:
+				shapes[i] = new Triangle(x, y, x + random.nextInt(100) - 50,
+						y + random.nextInt(100) - 50,
+						x + random.nextInt(100) - 50,
+						y + random.nextInt(100) - 50);
+				break;
+			default:
+				shapes[i] = new Rectangle(x - 300, y, 900, 2);
+			}
+		}
+		return shapes;
+	}
+
+}
@@ -0,0 +1,195 @@
+package hr.fer.zemris.java.graphics.io;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.graphics.raster.BWRaster;
+import hr.fer.zemris.java.graphics.raster.BWRasterBits;
+
+@SuppressWarnings("javadoc")
+public class BinarySceneTest {
+
+	@Test
+	public void testSignedVarInt() {
+		int[] values = { 0, 1, -1, 63, -64, 64, -65, 1000, -1000,
+				Integer.MAX_VALUE, Integer.MIN_VALUE };
+		ByteBuffer buffer = ByteBuffer.allocate(
+				values.length * VarInt.MAX_LENGTH);
+
+		for (int value : values) {
+			VarInt.putSigned(buffer, value);
+		}
+		assertEquals(1 + 1 + 1 + 1 + 1 + 2 + 2 + 2 + 2 + 5 + 5,
+				buffer.position());
+
+		buffer.flip();
+		for (int value : values) {
+			assertEquals(value, VarInt.getSigned(buffer));
+		}
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		SceneRecorder expected = new SceneRecorder();
+		ByteBuffer binary = write(expected, new Random(3), 10000);
+
+		SceneRecorder actual = new SceneRecorder();
+		assertEquals(10000, BinarySceneLoader.load(binary, actual));
+		assertEquals(expected.commands, actual.commands);
+		assertFalse(binary.hasRemaining());
+	}
+
+	@Test
+	public void testConvertTextScene() throws IOException {
+		String text = "5\n"
+				+ "FLIP\n"
+				+ "RECTANGLE 0 0 10 20\n"
+				+ "CIRCLE 20 20 6\n"
+				+ "TRIANGLE 0 0 30 0 0 -100\n"
+				+ "FLIP\n";
+		Path textFile = Files.createTempFile("scene", ".txt");
+		Path binaryFile = Files.createTempFile("scene", ".bin");
+
+		try {
+			Files.write(textFile, text.getBytes(StandardCharsets.US_ASCII));
+			assertEquals(5, SceneConverter.convert(textFile, binaryFile));
+			assertTrue(Files.size(binaryFile) < Files.size(textFile));
+
+			SceneRecorder fromText = new SceneRecorder();
+			SceneRecorder fromBinary = new SceneRecorder();
+			SceneReader.read(textFile, fromText);
+			BinarySceneLoader.load(binaryFile, fromBinary);
+			assertEquals(fromText.commands, fromBinary.commands);
+
+			BWRaster expected = new BWRasterBits(40, 40);
+			BWRaster actual = new BWRasterBits(40, 40);
+			SceneReader.read(textFile, new SceneRenderer(expected));
+			BinarySceneLoader.load(binaryFile, new SceneRenderer(actual));
+			for (int y = 0; y < 40; y++) {
+				for (int x = 0; x < 40; x++) {
+					assertEquals(
+							expected.isTurnedOn(x, y),
+							actual.isTurnedOn(x, y));
+				}
+			}
+		} finally {
+			Files.delete(textFile);
+			Files.delete(binaryFile);
+		}
+	}
+
+	@Test
+	public void testLoadFileInWindows() throws IOException {
+		SceneRecorder expected = new SceneRecorder();
+		ByteBuffer binary = write(expected, new Random(23), 10000);
+		Path file = Files.createTempFile("scene", ".bin");
+
+		try {
+			Files.write(file, binary.array());
+			int[] windows = { BinarySceneLoader.MAX_COMMAND_LENGTH, 100, 4099,
+					binary.limit() - 1, binary.limit() };
+
+			for (int window : windows) {
+				SceneRecorder actual = new SceneRecorder();
+				try (FileChannel channel = FileChannel.open(file)) {
+					assertEquals(10000, BinarySceneLoader.load(channel,
+							actual, window));
+				}
+				assertEquals(expected.commands, actual.commands);
+			}
+
+			Files.write(file, Arrays.copyOf(binary.array(),
+					binary.limit() - 1));
+			try (FileChannel channel = FileChannel.open(file)) {
+				BinarySceneLoader.load(channel, new SceneRecorder(), 100);
+				fail("Truncated scene should be invalid!");
+			} catch (IOException e) {
+				// expected
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testInvalidScenes() {
+		byte[][] scenes = {
+				{},
+				{ 'B', 'W' },
+				{ 'B', 'W', 'S', 'X' },
+				{ 'B', 'W', 'S', 'C', 0 },
+				{ 'B', 'W', 'S', 'C', 7 },
+				{ 'B', 'W', 'S', 'C', 4, 1, 2 },
+				{ 'B', 'W', 'S', 'C', 4, 1, 2, (byte) 0xFF },
+				{ 'B', 'W', 'S', 'C', 4, 1, 2, -1, -1, -1, -1, 0x10 } };
+
+		for (int i = 0; i < scenes.length; i++) {
+			try {
+				BinarySceneLoader.load(
+						ByteBuffer.wrap(scenes[i]),
+						new SceneRecorder());
+				fail("Scene " + i + " should be invalid!");
+			} catch (IOException e) {
+				// expected
+			}
+		}
+	}
+
+	private static ByteBuffer write(
+			SceneRecorder recorder,
+			Random random,
+			int count) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		BinarySceneWriter writer = new BinarySceneWriter(
+				Channels.newChannel(out));
+
+		SceneHandler[] handlers = { recorder, writer };
+		for (int i = 0; i < count; i++) {
+			int kind = random.nextInt(6);
+			int[] p = new int[6];
+			for (int j = 0; j < p.length; j++) {
+				p[j] = random.nextBoolean() ? random.nextInt()
+						: random.nextInt(200) - 100;
+			}
+
+			for (SceneHandler handler : handlers) {
+				switch (kind) {
+					case 0:
+						handler.rectangle(p[0], p[1], p[2], p[3]);
+						break;
+					case 1:
+						handler.square(p[0], p[1], p[2]);
+						break;
+					case 2:
+						handler.ellipse(p[0], p[1], p[2], p[3]);
+						break;
+					case 3:
+						handler.circle(p[0], p[1], p[2]);
+						break;
+					case 4:
+						handler.triangle(p[0], p[1], p[2], p[3], p[4], p[5]);
+						break;
+					default:
+						handler.flip();
+						break;
+				}
+			}
+		}
+		writer.flush();
+
+		return ByteBuffer.wrap(out.toByteArray());
+	}
+
+}
@@ -0,0 +1,132 @@
+package hr.fer.zemris.java.graphics.io;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.graphics.raster.BWRaster;
+import hr.fer.zemris.java.graphics.raster.BWRasterBits;
+import hr.fer.zemris.java.graphics.raster.BWRasterMem;
+import hr.fer.zemris.java.graphics.shapes.Circle;
+import hr.fer.zemris.java.graphics.shapes.Triangle;
+import hr.fer.zemris.java.graphics.views.PBMRasterView;
+
+@SuppressWarnings("javadoc")
+public class PBMRasterLoaderTest {
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		BWRaster[] rasters = { new BWRasterBits(150, 37),
+				new BWRasterMem(150, 37), new BWRasterBits(128, 5) };
+
+		for (BWRaster raster : rasters) {
+			new Circle(60, 18, 15).draw(raster);
+			new Triangle(0, 0, 149, 4, 30, 36).draw(raster);
+
+			Path file = Files.createTempFile("raster", ".pbm");
+			try {
+				try (FileChannel channel = FileChannel.open(file,
+						StandardOpenOption.WRITE)) {
+					new PBMRasterView(channel).produce(raster);
+				}
+
+				String header = "P4\n" + raster.getWidth() + " "
+						+ raster.getHeight() + "\n";
+				assertEquals(header.length()
+						+ (raster.getWidth() + 7) / 8 * raster.getHeight(),
+						Files.size(file));
+
+				BWRaster loaded = PBMRasterLoader.load(file);
+				assertRastersEqual(raster, loaded);
+			} finally {
+				Files.delete(file);
+			}
+		}
+	}
+
+	@Test
+	public void testHeaderWithComment() throws IOException {
+		Path file = Files.createTempFile("raster", ".pbm");
+		try {
+			byte[] header = "P4 # comment\n10\t2\n"
+					.getBytes(StandardCharsets.US_ASCII);
+			byte[] bytes = new byte[header.length + 4];
+			System.arraycopy(header, 0, bytes, 0, header.length);
+			bytes[header.length] = (byte) 0x81;
+			bytes[header.length + 1] = (byte) 0xFF;
+			bytes[header.length + 3] = (byte) 0x40;
+			Files.write(file, bytes);
+
+			BWRaster raster = PBMRasterLoader.load(file);
+			assertEquals(10, raster.getWidth());
+			assertEquals(2, raster.getHeight());
+			for (int x = 0; x < 10; x++) {
+				assertEquals(x == 0 || x >= 7, raster.isTurnedOn(x, 0));
+				assertEquals(x == 9, raster.isTurnedOn(x, 1));
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testMagicNumberWithoutSeparator() throws IOException {
+		Path file = Files.createTempFile("raster", ".pbm");
+		try {
+			String[] headers = { "P410 10\n", "P4", "P4x 10 10\n" };
+			for (String header : headers) {
+				byte[] bytes = Arrays.copyOf(
+						header.getBytes(StandardCharsets.US_ASCII),
+						header.length() + 20);
+				Files.write(file, bytes);
+
+				try {
+					PBMRasterLoader.load(file);
+					fail("Header \"" + header + "\" should be invalid!");
+				} catch (IOException e) {
+					// expected
+				}
+			}
+
+			Files.write(file, Arrays.copyOf(
+					"P4#\n8 1\n".getBytes(StandardCharsets.US_ASCII), 10));
+			assertEquals(8, PBMRasterLoader.load(file).getWidth());
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testTruncatedFile() throws IOException {
+		Path file = Files.createTempFile("raster", ".pbm");
+		try {
+			Files.write(file,
+					"P4\n100 100\n".getBytes(StandardCharsets.US_ASCII));
+			PBMRasterLoader.load(file);
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	private static void assertRastersEqual(BWRaster expected,
+			BWRaster actual) {
+		assertEquals(expected.getWidth(), actual.getWidth());
+		assertEquals(expected.getHeight(), actual.getHeight());
+
+		for (int y = 0; y < expected.getHeight(); y++) {
+			for (int x = 0; x < expected.getWidth(); x++) {
+				assertEquals(expected.isTurnedOn(x, y),
+						actual.isTurnedOn(x, y));
+			}
+		}
+	}
+
+}
@@ -0,0 +1,151 @@
+package hr.fer.zemris.java.graphics.io;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.graphics.raster.BWRaster;
+import hr.fer.zemris.java.graphics.raster.BWRasterBits;
+import hr.fer.zemris.java.graphics.raster.BWRasterMem;
+import hr.fer.zemris.java.graphics.shapes.Circle;
+import hr.fer.zemris.java.graphics.shapes.Rectangle;
+import hr.fer.zemris.java.graphics.shapes.Triangle;
+import hr.fer.zemris.java.graphics.views.RLERasterView;
+
+@SuppressWarnings("javadoc")
+public class RLERasterDecoderTest {
+
+	@Test
+	public void testVarInt() {
+		ByteBuffer buffer = ByteBuffer.allocate(100);
+		int[] values = { 0, 1, 127, 128, 300, 16383, 16384,
+				Integer.MAX_VALUE };
+
+		for (int value : values) {
+			int position = buffer.position();
+			VarInt.put(buffer, value);
+			assertEquals(VarInt.length(value), buffer.position() - position);
+		}
+
+		buffer.flip();
+		for (int value : values) {
+			assertEquals(value, VarInt.get(buffer));
+		}
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		BWRaster[] rasters = { new BWRasterBits(200, 70),
+				new BWRasterMem(200, 70), new BWRasterBits(64, 3) };
+
+		for (BWRaster raster : rasters) {
+			new Rectangle(0, 0, 64, 2).draw(raster);
+			new Circle(100, 35, 30).draw(raster);
+			new Triangle(10, 60, 199, 0, 150, 69).draw(raster);
+
+			byte[] bytes = encode(raster);
+			RLERasterDecoder decoder = new RLERasterDecoder(
+					Channels.newChannel(new ByteArrayInputStream(bytes)));
+
+			assertEquals(raster.getWidth(), decoder.getWidth());
+			assertEquals(raster.getHeight(), decoder.getHeight());
+			assertRastersEqual(raster, decoder.decode());
+		}
+	}
+
+	@Test
+	public void testEmptyRowTakesFewBytes() throws IOException {
+		byte[] bytes = encode(new BWRasterBits(1000, 1000));
+
+		assertEquals(RLERasterView.MAGIC.length + 2 + 2 + 1000 * 2,
+				bytes.length);
+	}
+
+	@Test
+	public void testDecodeIntoWithOffset() throws IOException {
+		BWRaster source = new BWRasterBits(20, 10);
+		new Rectangle(0, 0, 20, 10).draw(source);
+
+		BWRaster target = new BWRasterBits(30, 30);
+		target.enableFlipMode();
+		new Rectangle(0, 0, 30, 30).draw(target);
+
+		new RLERasterDecoder(Channels.newChannel(
+				new ByteArrayInputStream(encode(source))))
+						.decodeInto(target, 15, -5);
+
+		for (int y = 0; y < 30; y++) {
+			for (int x = 0; x < 30; x++) {
+				assertEquals(!(x >= 15 && y < 5), target.isTurnedOn(x, y));
+			}
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testTruncatedStream() throws IOException {
+		BWRaster raster = new BWRasterBits(100, 100);
+		new Circle(50, 50, 30).draw(raster);
+
+		byte[] bytes = encode(raster);
+		new RLERasterDecoder(Channels.newChannel(new ByteArrayInputStream(
+				Arrays.copyOf(bytes, bytes.length / 2)))).decode();
+	}
+
+	@Test
+	public void testInvalidRasterSize() {
+		int[][] sizes = { { 0, 10 }, { 10, 0 }, { 0, 0 } };
+
+		for (int[] size : sizes) {
+			ByteBuffer header = ByteBuffer.allocate(32);
+			header.put(RLERasterView.MAGIC);
+			VarInt.put(header, size[0]);
+			VarInt.put(header, size[1]);
+			header.flip();
+
+			try {
+				new RLERasterDecoder(Channels.newChannel(
+						new ByteArrayInputStream(header.array(), 0,
+								header.limit())));
+				fail("Raster " + size[0] + "x" + size[1] + " was accepted!");
+			} catch (IOException e) {
+				assertEquals("Invalid raster size!", e.getMessage());
+			}
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testRasterTooBigToDecode() throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(32);
+		header.put(RLERasterView.MAGIC);
+		VarInt.put(header, Integer.MAX_VALUE);
+		VarInt.put(header, Integer.MAX_VALUE);
+		header.flip();
+
+		new RLERasterDecoder(Channels.newChannel(new ByteArrayInputStream(
+				header.array(), 0, header.limit()))).decode();
+	}
+
+	private static byte[] encode(BWRaster raster) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new RLERasterView(Channels.newChannel(out)).produce(raster);
+		return out.toByteArray();
+	}
+
+	private static void assertRastersEqual(BWRaster expected,
+			BWRaster actual) {
+		for (int y = 0; y < expected.getHeight(); y++) {
+			for (int x = 0; x < expected.getWidth(); x++) {
+				assertEquals(expected.isTurnedOn(x, y),
+						actual.isTurnedOn(x, y));
+			}
+		}
+	}
+
+}
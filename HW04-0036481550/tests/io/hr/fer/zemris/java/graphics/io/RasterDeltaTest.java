@@ -0,0 +1,137 @@
+package hr.fer.zemris.java.graphics.io;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.graphics.raster.BWRaster;
+import hr.fer.zemris.java.graphics.raster.BWRasterBits;
+import hr.fer.zemris.java.graphics.raster.BWRasterMem;
+import hr.fer.zemris.java.graphics.raster.BWRasterTiled;
+import hr.fer.zemris.java.graphics.shapes.Circle;
+import hr.fer.zemris.java.graphics.shapes.Rectangle;
+import hr.fer.zemris.java.graphics.shapes.Triangle;
+
+@SuppressWarnings("javadoc")
+public class RasterDeltaTest {
+
+	@Test
+	public void testApplyTurnsFirstFrameIntoSecond() {
+		Random random = new Random(7);
+		BWRaster[][] pairs = {
+				{ new BWRasterBits(300, 90), new BWRasterBits(300, 90) },
+				{ new BWRasterTiled(300, 90), new BWRasterBits(300, 90) },
+				{ new BWRasterMem(300, 90), new BWRasterBits(300, 90) } };
+
+		for (BWRaster[] pair : pairs) {
+			for (int frame = 0; frame < 10; frame++) {
+				BWRaster from = pair[frame % 2];
+				BWRaster to = pair[1 - frame % 2];
+
+				to.clear();
+				drawRandomScene(to, random);
+
+				RasterDelta delta = RasterDelta.between(from, to);
+				BWRaster patched = copy(from);
+				delta.apply(patched);
+
+				assertRastersEqual(to, patched);
+			}
+		}
+	}
+
+	@Test
+	public void testEqualRastersGiveEmptyDelta() {
+		BWRaster first = new BWRasterBits(100, 100);
+		BWRaster second = new BWRasterTiled(100, 100);
+		new Circle(50, 50, 20).draw(first);
+		new Circle(50, 50, 20).draw(second);
+
+		RasterDelta delta = RasterDelta.between(first, second);
+		assertTrue(delta.isEmpty());
+		assertEquals(0, delta.getChangedPixels());
+	}
+
+	@Test
+	public void testSpansOfMovedRectangle() {
+		BWRaster first = new BWRasterBits(200, 10);
+		BWRaster second = new BWRasterBits(200, 10);
+		new Rectangle(10, 2, 100, 3).draw(first);
+		new Rectangle(20, 2, 100, 3).draw(second);
+
+		RasterDelta delta = RasterDelta.between(first, second);
+		assertEquals(6, delta.getSpanCount());
+		assertEquals(60, delta.getChangedPixels());
+	}
+
+	@Test
+	public void testEncodeDecode() {
+		BWRaster first = new BWRasterBits(500, 200);
+		BWRaster second = new BWRasterBits(500, 200);
+		drawRandomScene(first, new Random(1));
+		drawRandomScene(second, new Random(2));
+
+		RasterDelta delta = RasterDelta.between(first, second);
+		ByteBuffer buffer = delta.encode();
+		RasterDelta decoded = RasterDelta.decode(buffer);
+
+		assertFalse(buffer.hasRemaining());
+		assertEquals(delta.getSpanCount(), decoded.getSpanCount());
+		assertEquals(delta.getChangedPixels(), decoded.getChangedPixels());
+
+		decoded.apply(first);
+		assertRastersEqual(second, first);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDifferentSizes() {
+		RasterDelta.between(new BWRasterBits(10, 10),
+				new BWRasterBits(10, 11));
+	}
+
+	private static void drawRandomScene(BWRaster raster, Random random) {
+		int width = raster.getWidth();
+		int height = raster.getHeight();
+
+		for (int i = 0; i < 6; i++) {
+			new Rectangle(random.nextInt(width), random.nextInt(height),
+					random.nextInt(width) + 1, random.nextInt(20) + 1)
+							.draw(raster);
+			new Circle(random.nextInt(width), random.nextInt(height),
+					random.nextInt(30)).draw(raster);
+			new Triangle(random.nextInt(width), random.nextInt(height),
+					random.nextInt(width), random.nextInt(height),
+					random.nextInt(width), random.nextInt(height))
+							.draw(raster);
+			raster.enableFlipMode();
+		}
+		raster.disableFlipMode();
+	}
+
+	private static BWRaster copy(BWRaster raster) {
+		BWRaster copy = new BWRasterBits(raster.getWidth(),
+				raster.getHeight());
+		for (int y = 0; y < raster.getHeight(); y++) {
+			for (int x = 0; x < raster.getWidth(); x++) {
+				if (raster.isTurnedOn(x, y)) {
+					copy.turnOn(x, y);
+				}
+			}
+		}
+		return copy;
+	}
+
+	private static void assertRastersEqual(BWRaster expected,
+			BWRaster actual) {
+		for (int y = 0; y < expected.getHeight(); y++) {
+			for (int x = 0; x < expected.getWidth(); x++) {
+				assertEquals(expected.isTurnedOn(x, y),
+						actual.isTurnedOn(x, y));
+			}
+		}
+	}
+
+}
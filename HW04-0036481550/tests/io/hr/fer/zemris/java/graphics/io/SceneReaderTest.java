@@ -0,0 +1,177 @@
+package hr.fer.zemris.java.graphics.io;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.graphics.raster.BWRaster;
+import hr.fer.zemris.java.graphics.raster.BWRasterBits;
+import hr.fer.zemris.java.graphics.shapes.Circle;
+import hr.fer.zemris.java.graphics.shapes.Ellipse;
+import hr.fer.zemris.java.graphics.shapes.Rectangle;
+import hr.fer.zemris.java.graphics.shapes.Square;
+import hr.fer.zemris.java.graphics.shapes.Triangle;
+
+@SuppressWarnings("javadoc")
+public class SceneReaderTest {
+
+	private static final String SCENE = "7\n"
+			+ "FLIP\n"
+			+ "RECTANGLE 0 0 10 20\n"
+			+ "square 3 -4 10\r\n"
+			+ "Ellipse  10\t10 5 10\n"
+			+ "CIRCLE 20 20 +6 ignored\n"
+			+ "TRIANGLE 0 0 30 0 0 30\n"
+			+ "FLIP";
+
+	private static final List<String> COMMANDS = Arrays.asList(
+			"flip",
+			"rectangle 0 0 10 20",
+			"square 3 -4 10",
+			"ellipse 10 10 5 10",
+			"circle 20 20 6",
+			"triangle 0 0 30 0 0 30",
+			"flip");
+
+	@Test
+	public void testReadFromBuffer() throws IOException {
+		SceneRecorder recorder = new SceneRecorder();
+		ByteBuffer buffer = ByteBuffer.wrap(bytes(SCENE));
+
+		assertEquals(7, new SceneReader(buffer).read(recorder));
+		assertEquals(COMMANDS, recorder.commands);
+		assertEquals(0, buffer.position());
+	}
+
+	@Test
+	public void testReadFromChannelByteByByte() throws IOException {
+		SceneRecorder recorder = new SceneRecorder();
+
+		assertEquals(7, new SceneReader(slowChannel(SCENE)).read(recorder));
+		assertEquals(COMMANDS, recorder.commands);
+	}
+
+	@Test
+	public void testReadFromFile() throws IOException {
+		Path file = Files.createTempFile("scene", ".txt");
+		try {
+			Files.write(file, bytes(SCENE));
+
+			SceneRecorder recorder = new SceneRecorder();
+			assertEquals(7, SceneReader.read(file, recorder));
+			assertEquals(COMMANDS, recorder.commands);
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testLinesAfterLastCommandAreIgnored() throws IOException {
+		SceneRecorder recorder = new SceneRecorder();
+		String scene = "1\nCIRCLE 1 2 3\nnot a shape\n";
+
+		new SceneReader(ByteBuffer.wrap(bytes(scene))).read(recorder);
+		assertEquals(Arrays.asList("circle 1 2 3"), recorder.commands);
+	}
+
+	@Test
+	public void testRendererDrawsLikeShapes() throws IOException {
+		BWRaster expected = new BWRasterBits(64, 64);
+		expected.enableFlipMode();
+		new Rectangle(0, 0, 10, 20).draw(expected);
+		new Square(3, -4, 10).draw(expected);
+		new Ellipse(10, 10, 5, 10).draw(expected);
+		new Circle(20, 20, 6).draw(expected);
+		expected.disableFlipMode();
+		new Triangle(0, 0, 30, 0, 0, 30).draw(expected);
+
+		BWRaster actual = new BWRasterBits(64, 64);
+		new SceneReader(slowChannel(SCENE)).read(new SceneRenderer(actual));
+
+		for (int y = 0; y < 64; y++) {
+			for (int x = 0; x < 64; x++) {
+				assertEquals(
+						expected.isTurnedOn(x, y),
+						actual.isTurnedOn(x, y));
+			}
+		}
+	}
+
+	@Test
+	public void testInvalidScenes() {
+		String[] scenes = {
+				"",
+				"x\n",
+				"-1\n",
+				"2\nFLIP\n",
+				"1\nHEXAGON 1 2 3\n",
+				"1\nCIRCLES 1 2 3\n",
+				"1\nRECTANGLEX 1 2 3 4\n",
+				"1\nCIRCLE 1 2\n",
+				"1\nCIRCLE 1 a 3\n",
+				"1\nCIRCLE 1 2 2147483648\n",
+				"1\n\n" };
+
+		for (String scene : scenes) {
+			try {
+				new SceneReader(ByteBuffer.wrap(bytes(scene)))
+						.read(new SceneRecorder());
+				fail("Scene \"" + scene + "\" should be invalid!");
+			} catch (IOException e) {
+				assertTrue(e.getMessage().startsWith("Line "));
+			}
+		}
+	}
+
+	@Test
+	public void testExtremeNumbers() throws IOException {
+		SceneRecorder recorder = new SceneRecorder();
+		String scene = "1\nCIRCLE -2147483648 2147483647 0\n";
+
+		new SceneReader(ByteBuffer.wrap(bytes(scene))).read(recorder);
+		assertEquals(
+				Arrays.asList("circle -2147483648 2147483647 0"),
+				recorder.commands);
+	}
+
+	private static byte[] bytes(String s) {
+		return s.getBytes(StandardCharsets.US_ASCII);
+	}
+
+	private static ReadableByteChannel slowChannel(String scene) {
+		ByteArrayInputStream in = new ByteArrayInputStream(bytes(scene));
+
+		return new ReadableByteChannel() {
+
+			@Override
+			public boolean isOpen() {
+				return true;
+			}
+
+			@Override
+			public void close() {
+			}
+
+			@Override
+			public int read(ByteBuffer dst) {
+				int b = in.read();
+				if (b < 0) {
+					return -1;
+				}
+				dst.put((byte) b);
+				return 1;
+			}
+		};
+	}
+
+}
@@ -0,0 +1,44 @@
+package hr.fer.zemris.java.graphics.io;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@SuppressWarnings("javadoc")
+class SceneRecorder implements SceneHandler {
+
+	List<String> commands = new ArrayList<>();
+
+	@Override
+	public void rectangle(int x, int y, int width, int height) {
+		commands.add("rectangle " + x + " " + y + " " + width + " "
+				+ height);
+	}
+
+	@Override
+	public void square(int x, int y, int size) {
+		commands.add("square " + x + " " + y + " " + size);
+	}
+
+	@Override
+	public void ellipse(int x, int y, int horizontal, int vertical) {
+		commands.add("ellipse " + x + " " + y + " " + horizontal + " "
+				+ vertical);
+	}
+
+	@Override
+	public void circle(int x, int y, int radius) {
+		commands.add("circle " + x + " " + y + " " + radius);
+	}
+
+	@Override
+	public void triangle(int x1, int y1, int x2, int y2, int x3, int y3) {
+		commands.add("triangle " + x1 + " " + y1 + " " + x2 + " " + y2
+				+ " " + x3 + " " + y3);
+	}
+
+	@Override
+	public void flip() {
+		commands.add("flip");
+	}
+
+}
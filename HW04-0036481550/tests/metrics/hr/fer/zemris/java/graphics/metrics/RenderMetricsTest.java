@@ -0,0 +1,120 @@
+package hr.fer.zemris.java.graphics.metrics;
+
+import static org.junit.Assert.*;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.graphics.raster.BWRasterBits;
+import hr.fer.zemris.java.graphics.shapes.Circle;
+import hr.fer.zemris.java.graphics.shapes.Rectangle;
+
+@SuppressWarnings("javadoc")
+public class RenderMetricsTest {
+
+	@Test
+	public void testCounters() {
+		RenderMetrics metrics = new RenderMetrics();
+		metrics.addPixels(3, false);
+		metrics.addSpan(10, true);
+		metrics.addSpan(5, false);
+		metrics.addViewBytes(100);
+
+		MetricsSnapshot snapshot = metrics.snapshot();
+		assertEquals(18, snapshot.getPixelsWritten());
+		assertEquals(10, snapshot.getPixelsFlipped());
+		assertEquals(2, snapshot.getSpansWritten());
+		assertEquals(100, snapshot.getViewBytesWritten());
+	}
+
+	@Test
+	public void testDrawLatencies() {
+		RenderMetrics metrics = new RenderMetrics();
+		metrics.addDraw(Circle.class, 1);
+		metrics.addDraw(Circle.class, 3);
+		metrics.addDraw(Circle.class, 100);
+		metrics.addDraw(Circle.class, 1000);
+		metrics.addDraw(Rectangle.class, 0);
+
+		LatencySnapshot circle = metrics.snapshot().getDrawLatencies()
+				.get("Circle");
+		assertEquals(4, circle.getCount());
+		assertEquals(1104, circle.getTotalNanos());
+		assertEquals(276, circle.getMeanNanos());
+		assertEquals(1000, circle.getMaxNanos());
+		assertEquals(3, circle.getMedianNanos());
+		assertEquals(1000, circle.getPercentile99Nanos());
+		assertEquals(1, circle.getBuckets()[1]);
+		assertEquals(1, circle.getBuckets()[2]);
+
+		LatencySnapshot rectangle = metrics.snapshot().getDrawLatencies()
+				.get("Rectangle");
+		assertEquals(1, rectangle.getCount());
+		assertEquals(0, rectangle.getPercentile99Nanos());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidPercentile() {
+		new LatencyHistogram().snapshot("Circle").getPercentileNanos(101);
+	}
+
+	@Test
+	public void testReset() {
+		RenderMetrics metrics = new RenderMetrics();
+		metrics.addSpan(10, true);
+		metrics.addDraw(Circle.class, 50);
+		metrics.reset();
+
+		MetricsSnapshot snapshot = metrics.snapshot();
+		assertEquals(0, snapshot.getPixelsWritten());
+		assertEquals(0, snapshot.getSpansWritten());
+		assertEquals(0, snapshot.getDrawLatencies().get("Circle").getCount());
+	}
+
+	@Test
+	public void testMXBean() throws Exception {
+		RenderMetrics metrics = new RenderMetrics();
+		metrics.addSpan(7, false);
+		metrics.addDraw(Circle.class, 42);
+
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName name = new ObjectName(
+				"hr.fer.zemris.java.graphics:type=RenderMetricsTest");
+		server.registerMBean(metrics, name);
+		try {
+			assertEquals(7L, server.getAttribute(name, "PixelsWritten"));
+
+			TabularData latencies = (TabularData) server.getAttribute(
+					name,
+					"DrawLatencies");
+			CompositeData row = latencies.get(new Object[] { "Circle" });
+			CompositeData circle = (CompositeData) row.get("value");
+			assertEquals(1L, circle.get("count"));
+			assertEquals(42L, circle.get("maxNanos"));
+
+			String dump = (String) server.invoke(name, "dump", null, null);
+			assertTrue(dump.contains("Circle"));
+
+			server.invoke(name, "reset", null, null);
+			assertEquals(0L, server.getAttribute(name, "PixelsWritten"));
+		} finally {
+			server.unregisterMBean(name);
+		}
+	}
+
+	@Test
+	public void testHooksAreDisabledByDefault() {
+		assertFalse(Instrumentation.ENABLED);
+
+		new Rectangle(0, 0, 10, 10).draw(new BWRasterBits(20, 20));
+		assertEquals(0, Instrumentation.snapshot().getPixelsWritten());
+		assertTrue(Instrumentation.snapshot().getDrawLatencies().isEmpty());
+	}
+
+}
@@ -0,0 +1,175 @@
+package hr.fer.zemris.java.graphics.raster;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class BWRasterBitsTest {
+
+	@Test
+	public void testTurnOnAndOff() {
+		BWRaster raster = new BWRasterBits(130, 3);
+
+		raster.turnOn(0, 0);
+		raster.turnOn(63, 1);
+		raster.turnOn(64, 1);
+		raster.turnOn(129, 2);
+
+		assertTrue(raster.isTurnedOn(0, 0));
+		assertTrue(raster.isTurnedOn(63, 1));
+		assertTrue(raster.isTurnedOn(64, 1));
+		assertTrue(raster.isTurnedOn(129, 2));
+
+		assertFalse(raster.isTurnedOn(1, 0));
+		assertFalse(raster.isTurnedOn(0, 1));
+		assertFalse(raster.isTurnedOn(65, 1));
+
+		raster.turnOff(63, 1);
+		assertFalse(raster.isTurnedOn(63, 1));
+		assertTrue(raster.isTurnedOn(64, 1));
+	}
+
+	@Test
+	public void testFlipMode() {
+		BWRaster raster = new BWRasterBits(100, 100);
+
+		raster.turnOn(70, 50);
+		raster.enableFlipMode();
+		raster.turnOn(70, 50);
+		raster.turnOn(71, 50);
+
+		assertFalse(raster.isTurnedOn(70, 50));
+		assertTrue(raster.isTurnedOn(71, 50));
+
+		raster.disableFlipMode();
+		raster.turnOn(71, 50);
+		assertTrue(raster.isTurnedOn(71, 50));
+	}
+
+	@Test
+	public void testOutOfBoundsIsIgnored() {
+		BWRaster raster = new BWRasterBits(10, 10);
+
+		raster.turnOn(-1, 0);
+		raster.turnOn(10, 0);
+		raster.turnOn(0, 10);
+
+		for (int y = 0; y < 10; y++) {
+			for (int x = 0; x < 10; x++) {
+				assertFalse(raster.isTurnedOn(x, y));
+			}
+		}
+		assertFalse(raster.isTurnedOn(10, 0));
+	}
+
+	@Test
+	public void testClear() {
+		BWRaster raster = new BWRasterBits(10, 10);
+
+		raster.turnOn(3, 3);
+		raster.clear();
+
+		assertFalse(raster.isTurnedOn(3, 3));
+	}
+
+	@Test
+	public void testSpans() {
+		BWRaster raster = new BWRasterBits(200, 2);
+
+		raster.turnOnSpan(-5, 130, 0);
+		for (int x = 0; x < 200; x++) {
+			assertEquals(x < 130, raster.isTurnedOn(x, 0));
+		}
+
+		raster.turnOffSpan(63, 65, 0);
+		assertTrue(raster.isTurnedOn(62, 0));
+		assertFalse(raster.isTurnedOn(63, 0));
+		assertFalse(raster.isTurnedOn(64, 0));
+		assertTrue(raster.isTurnedOn(65, 0));
+
+		raster.flipSpan(60, 70, 0);
+		assertFalse(raster.isTurnedOn(62, 0));
+		assertTrue(raster.isTurnedOn(63, 0));
+		assertFalse(raster.isTurnedOn(69, 0));
+		assertTrue(raster.isTurnedOn(70, 0));
+
+		for (int x = 0; x < 200; x++) {
+			assertFalse(raster.isTurnedOn(x, 1));
+		}
+	}
+
+	@Test
+	public void testSpansMatchPixelOperations() {
+		Random random = new Random(42);
+		BWRaster packed = new BWRasterBits(150, 4);
+		BWRaster reference = new BWRasterMem(150, 4);
+
+		for (int i = 0; i < 1000; i++) {
+			int x0 = random.nextInt(170) - 10;
+			int x1 = x0 + random.nextInt(100);
+			int y = random.nextInt(4);
+			int operation = random.nextInt(3);
+
+			if (random.nextBoolean()) {
+				packed.enableFlipMode();
+				reference.enableFlipMode();
+			} else {
+				packed.disableFlipMode();
+				reference.disableFlipMode();
+			}
+
+			for (int x = Math.max(x0, 0); x < Math.min(x1, 150); x++) {
+				if (operation == 0) {
+					reference.turnOn(x, y);
+				} else if (operation == 1) {
+					reference.turnOff(x, y);
+				} else if (reference.isTurnedOn(x, y)) {
+					reference.turnOff(x, y);
+				} else {
+					reference.turnOn(x, y);
+				}
+			}
+			if (operation == 0) {
+				packed.turnOnSpan(x0, x1, y);
+			} else if (operation == 1) {
+				packed.turnOffSpan(x0, x1, y);
+			} else {
+				packed.flipSpan(x0, x1, y);
+			}
+
+			for (int y2 = 0; y2 < 4; y2++) {
+				for (int x = 0; x < 150; x++) {
+					assertEquals(
+							reference.isTurnedOn(x, y2),
+							packed.isTurnedOn(x, y2));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testDirtyRegion() {
+		BWRaster raster = new BWRasterBits(200, 100);
+
+		assertTrue(raster.getDirtyRegion().isEmpty());
+
+		raster.turnOn(10, 20);
+		raster.turnOnSpan(100, 150, 30);
+		assertEquals(new Bounds(10, 20, 140, 11), raster.getDirtyRegion());
+
+		raster.clear();
+		assertFalse(raster.isTurnedOn(10, 20));
+		assertFalse(raster.isTurnedOn(120, 30));
+		assertEquals(new Bounds(10, 20, 140, 11), raster.getDirtyRegion());
+
+		raster.turnOn(0, 99);
+		assertEquals(new Bounds(0, 20, 150, 80), raster.getDirtyRegion());
+
+		raster.clear();
+		raster.clear();
+		assertTrue(raster.getDirtyRegion().isEmpty());
+	}
+}
@@ -0,0 +1,61 @@
+package hr.fer.zemris.java.graphics.raster;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class BWRasterConcurrentTest {
+
+	@Test
+	public void testConcurrentUpdatesOfTheSameWords() throws InterruptedException {
+		int threads = 4;
+		BWRaster raster = new BWRasterConcurrent(128, 64);
+		raster.enableFlipMode();
+
+		Thread[] workers = new Thread[threads];
+		for (int t = 0; t < threads; t++) {
+			int offset = t;
+			workers[t] = new Thread(() -> {
+				for (int repeat = 0; repeat < 101; repeat++) {
+					for (int y = 0; y < 64; y++) {
+						for (int x = offset; x < 128; x += threads) {
+							raster.turnOn(x, y);
+						}
+					}
+				}
+			});
+			workers[t].start();
+		}
+		for (Thread worker : workers) {
+			worker.join();
+		}
+
+		for (int y = 0; y < 64; y++) {
+			for (int x = 0; x < 128; x++) {
+				assertTrue(raster.isTurnedOn(x, y));
+			}
+		}
+	}
+
+	@Test
+	public void testClearWithoutTrackingChangedPixels() {
+		PackedBWRaster raster = new BWRasterConcurrent(100, 70);
+		assertFalse(raster.tracksDirtyRegion());
+		assertTrue(new BWRasterBits(100, 70).tracksDirtyRegion());
+
+		raster.turnOn(99, 69);
+		raster.turnOnSpan(3, 90, 10);
+		raster.setWord(raster.wordIndex(64, 40), -1L);
+		assertEquals(raster.getBounds(), raster.getDirtyRegion());
+
+		raster.clear();
+		assertEquals(raster.getBounds(), raster.getDirtyRegion());
+		for (int y = 0; y < 70; y++) {
+			for (int x = 0; x < 100; x++) {
+				assertFalse(raster.isTurnedOn(x, y));
+			}
+		}
+	}
+
+}
@@ -0,0 +1,91 @@
+package hr.fer.zemris.java.graphics.raster;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.graphics.shapes.Ellipse;
+import hr.fer.zemris.java.graphics.shapes.Rectangle;
+
+@SuppressWarnings("javadoc")
+public class BWRasterMappedTest {
+
+	@Test
+	public void testDrawsLikeBWRasterBits() throws IOException {
+		BWRaster expected = new BWRasterBits(300, 200);
+
+		try (BWRasterMapped raster = new BWRasterMapped(300, 200)) {
+			raster.enableFlipMode();
+			expected.enableFlipMode();
+
+			new Rectangle(10, 10, 200, 100).draw(raster);
+			new Rectangle(10, 10, 200, 100).draw(expected);
+			new Ellipse(150, 100, 120, 80).draw(raster);
+			new Ellipse(150, 100, 120, 80).draw(expected);
+
+			assertEquals(expected.toString(), raster.toString());
+		}
+	}
+
+	@Test
+	public void testTemporaryFileIsDeleted() throws IOException {
+		BWRasterMapped raster = new BWRasterMapped(10, 10);
+		Path file = raster.getFile();
+
+		assertTrue(Files.exists(file));
+		raster.close();
+		assertFalse(Files.exists(file));
+	}
+
+	@Test
+	public void testInvalidSizeLeavesNoTemporaryFile() throws IOException {
+		int[][] sizes = { { 0, 10 }, { 10, -1 }, { Integer.MAX_VALUE, 65 } };
+		long before = countTemporaryFiles();
+
+		for (int[] size : sizes) {
+			try {
+				new BWRasterMapped(size[0], size[1]).close();
+				fail("Raster " + size[0] + "x" + size[1] + " was created!");
+			} catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+				// expected
+			}
+		}
+
+		assertEquals(before, countTemporaryFiles());
+	}
+
+	@Test
+	public void testContentsArePersisted() throws IOException {
+		Path file = Files.createTempFile("bwraster", ".bin");
+
+		try {
+			try (BWRasterMapped raster = new BWRasterMapped(file, 100, 3)) {
+				raster.turnOn(99, 2);
+			}
+			try (BWRasterMapped raster = new BWRasterMapped(file, 100, 3)) {
+				assertTrue(raster.isTurnedOn(99, 2));
+				assertFalse(raster.isTurnedOn(98, 2));
+
+				raster.clear();
+				assertFalse(raster.isTurnedOn(99, 2));
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+	private static long countTemporaryFiles() throws IOException {
+		Path directory = Paths.get(System.getProperty("java.io.tmpdir"));
+
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.filter(file -> file.getFileName().toString()
+					.startsWith("bwraster")).count();
+		}
+	}
+
+}
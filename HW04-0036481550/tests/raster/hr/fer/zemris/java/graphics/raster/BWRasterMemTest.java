@@ -0,0 +1,121 @@
+package hr.fer.zemris.java.graphics.raster;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class BWRasterMemTest {
+
+	@Test
+	public void testClearAfterPixelWrites() {
+		for (boolean flip : new boolean[] { false, true }) {
+			BWRaster raster = new BWRasterMem(70, 40);
+			if (flip) {
+				raster.enableFlipMode();
+			}
+
+			raster.turnOn(0, 0);
+			raster.turnOn(69, 39);
+			raster.turnOn(30, 20);
+			raster.turnOn(30, 20);
+			raster.turnOn(31, 20);
+			raster.turnOn(5, 5);
+			raster.turnOff(5, 5);
+			assertFalse(raster.isTurnedOn(5, 5));
+			assertEquals(!flip, raster.isTurnedOn(30, 20));
+
+			raster.clear();
+			assertAllOff(raster);
+
+			raster.turnOn(12, 7);
+			raster.clear();
+			assertAllOff(raster);
+		}
+	}
+
+	@Test
+	public void testClearAfterSpanWrites() {
+		Random random = new Random(5);
+
+		for (boolean flip : new boolean[] { false, true }) {
+			BWRaster raster = new BWRasterMem(150, 30);
+			if (flip) {
+				raster.enableFlipMode();
+			}
+
+			for (int round = 0; round < 20; round++) {
+				for (int i = 0; i < 50; i++) {
+					int x0 = random.nextInt(170) - 10;
+					int x1 = x0 + random.nextInt(100);
+					int y = random.nextInt(30);
+
+					switch (random.nextInt(3)) {
+					case 0:
+						raster.turnOnSpan(x0, x1, y);
+						break;
+					case 1:
+						raster.turnOffSpan(x0, x1, y);
+						break;
+					default:
+						raster.flipSpan(x0, x1, y);
+					}
+				}
+
+				raster.clear();
+				assertAllOff(raster);
+			}
+		}
+	}
+
+	@Test
+	public void testDirtyRegion() {
+		for (boolean flip : new boolean[] { false, true }) {
+			BWRaster raster = new BWRasterMem(200, 100);
+			if (flip) {
+				raster.enableFlipMode();
+			}
+
+			assertTrue(raster.getDirtyRegion().isEmpty());
+
+			raster.turnOn(10, 20);
+			raster.flipSpan(100, 150, 30);
+			assertEquals(new Bounds(10, 20, 140, 11), raster.getDirtyRegion());
+
+			raster.clear();
+			assertAllOff(raster);
+			assertEquals(new Bounds(10, 20, 140, 11), raster.getDirtyRegion());
+
+			raster.turnOffSpan(-5, 3, 99);
+			assertEquals(new Bounds(0, 20, 150, 80), raster.getDirtyRegion());
+
+			raster.clear();
+			raster.clear();
+			assertTrue(raster.getDirtyRegion().isEmpty());
+		}
+	}
+
+	@Test
+	public void testClearRasterCreatedFromPixels() {
+		boolean[][] pixels = new boolean[3][4];
+		pixels[0][0] = true;
+		pixels[2][3] = true;
+
+		BWRaster raster = new BWRasterMem(pixels);
+		assertEquals(new Bounds(0, 0, 4, 3), raster.getDirtyRegion());
+
+		raster.clear();
+		assertAllOff(raster);
+	}
+
+	private static void assertAllOff(BWRaster raster) {
+		for (int y = 0; y < raster.getHeight(); y++) {
+			for (int x = 0; x < raster.getWidth(); x++) {
+				assertFalse(raster.isTurnedOn(x, y));
+			}
+		}
+	}
+
+}
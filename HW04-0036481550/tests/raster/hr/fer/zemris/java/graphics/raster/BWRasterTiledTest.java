@@ -0,0 +1,56 @@
+package hr.fer.zemris.java.graphics.raster;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.graphics.shapes.Ellipse;
+import hr.fer.zemris.java.graphics.shapes.Rectangle;
+import hr.fer.zemris.java.graphics.shapes.Triangle;
+
+@SuppressWarnings("javadoc")
+public class BWRasterTiledTest {
+
+	@Test
+	public void testOnlyTouchedTilesAreAllocated() {
+		BWRasterTiled raster = new BWRasterTiled(10000, 10000);
+
+		assertEquals(0, raster.getTileCount());
+		assertFalse(raster.isTurnedOn(5000, 5000));
+
+		raster.turnOn(5000, 5000);
+		raster.turnOn(5001, 5063);
+		assertEquals(2, raster.getTileCount());
+		assertTrue(raster.isTurnedOn(5000, 5000));
+		assertTrue(raster.isTurnedOn(5001, 5063));
+
+		raster.turnOff(0, 0);
+		assertEquals(2, raster.getTileCount());
+
+		raster.clear();
+		assertEquals(0, raster.getTileCount());
+		assertFalse(raster.isTurnedOn(5000, 5000));
+	}
+
+	@Test
+	public void testDrawsLikeBWRasterBits() {
+		BWRaster tiled = new BWRasterTiled(250, 150);
+		BWRaster expected = new BWRasterBits(250, 150);
+
+		for (BWRaster raster : new BWRaster[] { tiled, expected }) {
+			raster.enableFlipMode();
+			new Rectangle(20, 5, 200, 100).draw(raster);
+			new Ellipse(100, 80, 90, 60).draw(raster);
+			new Triangle(0, 0, 249, 20, 120, 149).draw(raster);
+		}
+
+		assertEquals(expected.toString(), tiled.toString());
+
+		tiled.clear();
+		expected.clear();
+		new Rectangle(70, 70, 10, 10).draw(tiled);
+		new Rectangle(70, 70, 10, 10).draw(expected);
+
+		assertEquals(expected.toString(), tiled.toString());
+	}
+}
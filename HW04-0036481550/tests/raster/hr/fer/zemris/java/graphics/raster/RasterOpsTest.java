@@ -0,0 +1,203 @@
+package hr.fer.zemris.java.graphics.raster;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.graphics.shapes.Circle;
+import hr.fer.zemris.java.graphics.shapes.Rectangle;
+import hr.fer.zemris.java.graphics.shapes.Triangle;
+
+@SuppressWarnings("javadoc")
+public class RasterOpsTest {
+
+	@Test
+	public void testOperationsMatchPixelByPixel() {
+		Random random = new Random(23);
+		String[] types = { "bits", "tiled", "concurrent", "mem" };
+
+		for (int round = 0; round < 200; round++) {
+			CompositeOperation operation = CompositeOperation.values()[
+					random.nextInt(CompositeOperation.values().length)];
+			int width = 1 + random.nextInt(300);
+			int height = 1 + random.nextInt(40);
+
+			BWRaster source = newRaster(
+					types[random.nextInt(types.length)],
+					1 + random.nextInt(300),
+					1 + random.nextInt(40));
+			BWRaster destination = newRaster(
+					types[random.nextInt(types.length)],
+					width,
+					height);
+			fill(source, random);
+			fill(destination, random);
+
+			int dx = random.nextInt(200) - 100;
+			int dy = random.nextInt(40) - 20;
+			Bounds clip = random.nextBoolean() ? destination.getBounds()
+					: new Bounds(random.nextInt(width) - 10,
+							random.nextInt(height) - 5,
+							random.nextInt(width + 20),
+							random.nextInt(height + 10));
+
+			boolean[][] expected = expected(source, destination, operation,
+					dx, dy, clip);
+			RasterOps.composite(source, destination, operation, dx, dy, clip);
+
+			assertPixels(expected, destination);
+		}
+	}
+
+	@Test
+	public void testCompositeWithItself() {
+		Random random = new Random(29);
+
+		for (int round = 0; round < 50; round++) {
+			BWRaster raster = newRaster(
+					random.nextBoolean() ? "bits" : "mem",
+					200,
+					50);
+			fill(raster, random);
+
+			int dx = random.nextInt(100) - 50;
+			int dy = random.nextInt(20) - 10;
+			BWRaster copy = newRaster("bits", 200, 50);
+			RasterOps.composite(raster, copy, CompositeOperation.OR);
+
+			boolean[][] expected = expected(copy, raster,
+					CompositeOperation.XOR, dx, dy, raster.getBounds());
+			RasterOps.composite(raster, raster, CompositeOperation.XOR, dx,
+					dy, raster.getBounds());
+
+			assertPixels(expected, raster);
+		}
+	}
+
+	@Test
+	public void testFlipModeIsIgnored() {
+		BWRaster source = new BWRasterBits(100, 100);
+		BWRaster destination = new BWRasterBits(100, 100);
+		new Rectangle(10, 10, 50, 50).draw(source);
+		new Rectangle(10, 10, 50, 50).draw(destination);
+
+		destination.enableFlipMode();
+		RasterOps.composite(source, destination, CompositeOperation.OR);
+
+		assertTrue(destination.isTurnedOn(30, 30));
+		assertFalse(destination.isTurnedOn(5, 5));
+	}
+
+	@Test
+	public void testChangedPixelsAreCleared() {
+		BWRaster source = new BWRasterBits(500, 300);
+		BWRaster destination = new BWRasterTiled(500, 300);
+		new Circle(250, 150, 100).draw(source);
+
+		RasterOps.composite(source, destination, CompositeOperation.NOT, 0,
+				0, new Bounds(100, 50, 300, 200));
+		assertTrue(destination.isTurnedOn(100, 50));
+		assertFalse(destination.isTurnedOn(250, 150));
+		assertTrue(destination.getDirtyRegion().contains(399, 249));
+
+		destination.clear();
+		for (int y = 0; y < 300; y++) {
+			for (int x = 0; x < 500; x++) {
+				assertFalse(destination.isTurnedOn(x, y));
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNullOperation() {
+		RasterOps.composite(new BWRasterBits(1, 1), new BWRasterBits(1, 1),
+				null);
+	}
+
+	private static BWRaster newRaster(String type, int width, int height) {
+		switch (type) {
+			case "bits":
+				return new BWRasterBits(width, height);
+			case "tiled":
+				return new BWRasterTiled(width, height);
+			case "concurrent":
+				return new BWRasterConcurrent(width, height);
+			default:
+				return new BWRasterMem(width, height);
+		}
+	}
+
+	private static void fill(BWRaster raster, Random random) {
+		for (int i = 0; i < 5; i++) {
+			int x = random.nextInt(raster.getWidth());
+			int y = random.nextInt(raster.getHeight());
+			raster.enableFlipMode();
+			new Triangle(x, y, x + random.nextInt(200) - 100,
+					y + random.nextInt(60) - 30, x + random.nextInt(200) - 100,
+					y + random.nextInt(60) - 30).draw(raster);
+			new Circle(x, y, random.nextInt(30)).draw(raster);
+		}
+		raster.disableFlipMode();
+	}
+
+	private static boolean[][] expected(
+			BWRaster source,
+			BWRaster destination,
+			CompositeOperation operation,
+			int dx,
+			int dy,
+			Bounds clip) {
+		int width = destination.getWidth();
+		int height = destination.getHeight();
+		boolean[][] pixels = new boolean[height][width];
+
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				boolean d = destination.isTurnedOn(x, y);
+				int sx = x - dx;
+				int sy = y - dy;
+
+				if (!clip.contains(x, y) || sx < 0
+						|| sx >= source.getWidth() || sy < 0
+						|| sy >= source.getHeight()) {
+					pixels[y][x] = d;
+					continue;
+				}
+
+				boolean s = source.isTurnedOn(sx, sy);
+				switch (operation) {
+					case AND:
+						pixels[y][x] = d && s;
+						break;
+					case OR:
+						pixels[y][x] = d || s;
+						break;
+					case XOR:
+						pixels[y][x] = d ^ s;
+						break;
+					case AND_NOT:
+						pixels[y][x] = d && !s;
+						break;
+					default:
+						pixels[y][x] = !s;
+						break;
+				}
+			}
+		}
+		return pixels;
+	}
+
+	private static void assertPixels(boolean[][] expected, BWRaster raster) {
+		for (int y = 0; y < expected.length; y++) {
+			for (int x = 0; x < expected[y].length; x++) {
+				assertEquals(
+						"Pixel (" + x + ", " + y + ")",
+						expected[y][x],
+						raster.isTurnedOn(x, y));
+			}
+		}
+	}
+
+}
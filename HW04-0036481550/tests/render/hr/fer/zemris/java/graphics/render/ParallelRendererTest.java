@@ -0,0 +1,72 @@
+package hr.fer.zemris.java.graphics.render;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.graphics.raster.BWRaster;
+import hr.fer.zemris.java.graphics.raster.BWRasterBits;
+import hr.fer.zemris.java.graphics.raster.BWRasterMem;
+import hr.fer.zemris.java.graphics.raster.BWRasterTiled;
+import hr.fer.zemris.java.graphics.shapes.Circle;
+import hr.fer.zemris.java.graphics.shapes.Ellipse;
+import hr.fer.zemris.java.graphics.shapes.GeometricShape;
+import hr.fer.zemris.java.graphics.shapes.Rectangle;
+import hr.fer.zemris.java.graphics.shapes.Triangle;
+
+@SuppressWarnings("javadoc")
+public class ParallelRendererTest {
+
+	private static GeometricShape[] randomShapes(int count, int size) {
+		Random random = new Random(7);
+		GeometricShape[] shapes = new GeometricShape[count];
+
+		for (int i = 0; i < count; i++) {
+			int x = random.nextInt(size);
+			int y = random.nextInt(size);
+
+			switch (i % 4) {
+				case 0:
+					shapes[i] = new Rectangle(x, y, 1 + random.nextInt(100),
+							1 + random.nextInt(100));
+					break;
+				case 1:
+					shapes[i] = new Ellipse(x, y, random.nextInt(80),
+							random.nextInt(80));
+					break;
+				case 2:
+					shapes[i] = new Circle(x, y, random.nextInt(50));
+					break;
+				default:
+					shapes[i] = new Triangle(x, y, random.nextInt(size),
+							random.nextInt(size), random.nextInt(size),
+							random.nextInt(size));
+					break;
+			}
+		}
+
+		return shapes;
+	}
+
+	@Test
+	public void testMatchesSequentialDrawingInFlipMode() {
+		GeometricShape[] shapes = randomShapes(200, 300);
+
+		BWRaster expected = new BWRasterMem(300, 300);
+		expected.enableFlipMode();
+		for (GeometricShape shape : shapes) {
+			shape.draw(expected);
+		}
+
+		BWRaster[] rasters = { new BWRasterMem(300, 300),
+				new BWRasterBits(300, 300), new BWRasterTiled(300, 300) };
+		for (BWRaster raster : rasters) {
+			raster.enableFlipMode();
+			new ParallelRenderer().render(shapes, raster);
+
+			assertEquals(expected.toString(), raster.toString());
+		}
+	}
+}
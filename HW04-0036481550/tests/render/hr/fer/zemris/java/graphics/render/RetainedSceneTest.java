@@ -0,0 +1,178 @@
+package hr.fer.zemris.java.graphics.render;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.graphics.raster.BWRaster;
+import hr.fer.zemris.java.graphics.raster.BWRasterBits;
+import hr.fer.zemris.java.graphics.raster.BWRasterMem;
+import hr.fer.zemris.java.graphics.raster.BWRasterTiled;
+import hr.fer.zemris.java.graphics.raster.Bounds;
+import hr.fer.zemris.java.graphics.shapes.Circle;
+import hr.fer.zemris.java.graphics.shapes.Ellipse;
+import hr.fer.zemris.java.graphics.shapes.GeometricShape;
+import hr.fer.zemris.java.graphics.shapes.Line;
+import hr.fer.zemris.java.graphics.shapes.Rectangle;
+import hr.fer.zemris.java.graphics.shapes.Triangle;
+
+@SuppressWarnings("javadoc")
+public class RetainedSceneTest {
+
+	private static final int SIZE = 300;
+
+	@Test
+	public void testEditsMatchFullRedraw() {
+		BWRaster[] rasters = { new BWRasterBits(SIZE, SIZE),
+				new BWRasterMem(SIZE, SIZE), new BWRasterTiled(SIZE, SIZE) };
+
+		for (BWRaster raster : rasters) {
+			Random random = new Random(17);
+			RetainedScene scene = new RetainedScene(raster, 32);
+			List<GeometricShape> shapes = new ArrayList<>();
+			List<Boolean> flips = new ArrayList<>();
+
+			for (int i = 0; i < 200; i++) {
+				GeometricShape shape = randomShape(random);
+				boolean flip = random.nextBoolean();
+				scene.add(shape, flip);
+				shapes.add(shape);
+				flips.add(flip);
+			}
+			scene.render();
+			assertMatchesFullRedraw(raster, shapes, flips);
+
+			for (int edit = 0; edit < 100; edit++) {
+				int i = random.nextInt(shapes.size());
+
+				switch (random.nextInt(3)) {
+					case 0:
+						GeometricShape moved = scene.move(
+								shapes.get(i),
+								random.nextInt(41) - 20,
+								random.nextInt(41) - 20);
+						shapes.set(i, moved);
+						break;
+					case 1:
+						assertTrue(scene.remove(shapes.remove(i)));
+						flips.remove(i);
+						break;
+					default:
+						GeometricShape shape = randomShape(random);
+						boolean flip = random.nextBoolean();
+						scene.add(shape, flip);
+						shapes.add(shape);
+						flips.add(flip);
+						break;
+				}
+
+				if (edit % 7 == 0) {
+					scene.render();
+					assertMatchesFullRedraw(raster, shapes, flips);
+				}
+			}
+
+			scene.render();
+			assertMatchesFullRedraw(raster, shapes, flips);
+			assertEquals(shapes.size(), scene.size());
+		}
+	}
+
+	@Test
+	public void testMoveInvalidatesOnlyAffectedArea() {
+		BWRaster raster = new BWRasterBits(SIZE, SIZE);
+		RetainedScene scene = new RetainedScene(raster);
+
+		GeometricShape far = new Rectangle(200, 200, 50, 50);
+		GeometricShape small = new Circle(20, 20, 5);
+		scene.add(far);
+		scene.add(small, true);
+		assertEquals(2, scene.render());
+		assertTrue(scene.getInvalidRegions().isEmpty());
+
+		GeometricShape moved = scene.move(small, 3, 0);
+		assertTrue(scene.isFlipped(moved));
+		assertFalse(scene.contains(small));
+		assertEquals(1, scene.getInvalidRegions().size());
+		assertEquals(
+				new Bounds(15, 15, 14, 11),
+				scene.getInvalidRegions().get(0));
+
+		assertEquals(1, scene.render());
+		assertTrue(raster.isTurnedOn(28, 20));
+		assertFalse(raster.isTurnedOn(15, 20));
+		assertTrue(raster.isTurnedOn(220, 220));
+	}
+
+	@Test
+	public void testDistantChangesStaySeparate() {
+		RetainedScene scene = new RetainedScene(new BWRasterBits(SIZE, SIZE));
+		scene.render();
+
+		scene.add(new Rectangle(0, 0, 10, 10));
+		scene.add(new Rectangle(100, 100, 10, 10));
+		scene.add(new Rectangle(10, 5, 10, 10));
+		assertEquals(2, scene.getInvalidRegions().size());
+		assertTrue(scene.getInvalidRegions().contains(
+				new Bounds(0, 0, 20, 15)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMoveUnknownShape() {
+		RetainedScene scene = new RetainedScene(new BWRasterBits(10, 10));
+		scene.move(new Circle(1, 1, 1), 1, 1);
+	}
+
+	private static void assertMatchesFullRedraw(
+			BWRaster raster,
+			List<GeometricShape> shapes,
+			List<Boolean> flips) {
+		BWRaster expected = new BWRasterBits(SIZE, SIZE);
+		for (int i = 0; i < shapes.size(); i++) {
+			if (flips.get(i)) {
+				expected.enableFlipMode();
+			} else {
+				expected.disableFlipMode();
+			}
+			shapes.get(i).draw(expected);
+		}
+
+		for (int y = 0; y < SIZE; y++) {
+			for (int x = 0; x < SIZE; x++) {
+				assertEquals(
+						"Pixel (" + x + ", " + y + ")",
+						expected.isTurnedOn(x, y),
+						raster.isTurnedOn(x, y));
+			}
+		}
+	}
+
+	private static GeometricShape randomShape(Random random) {
+		int x = random.nextInt(SIZE + 40) - 20;
+		int y = random.nextInt(SIZE + 40) - 20;
+
+		switch (random.nextInt(5)) {
+			case 0:
+				return new Rectangle(x, y, 1 + random.nextInt(60),
+						1 + random.nextInt(60));
+			case 1:
+				return new Ellipse(x, y, random.nextInt(30),
+						random.nextInt(30));
+			case 2:
+				return new Circle(x, y, random.nextInt(25));
+			case 3:
+				return new Triangle(x, y, x + random.nextInt(80) - 40,
+						y + random.nextInt(80) - 40,
+						x + random.nextInt(80) - 40,
+						y + random.nextInt(80) - 40);
+			default:
+				return new Line(x, y, x + random.nextInt(100) - 50,
+						y + random.nextInt(100) - 50);
+		}
+	}
+
+}
@@ -0,0 +1,106 @@
+package hr.fer.zemris.java.graphics.render;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.graphics.raster.BWRaster;
+import hr.fer.zemris.java.graphics.raster.BWRasterBits;
+import hr.fer.zemris.java.graphics.raster.BWRasterMem;
+import hr.fer.zemris.java.graphics.raster.BWRasterTiled;
+import hr.fer.zemris.java.graphics.shapes.Circle;
+import hr.fer.zemris.java.graphics.shapes.Ellipse;
+import hr.fer.zemris.java.graphics.shapes.GeometricShape;
+import hr.fer.zemris.java.graphics.shapes.Line;
+import hr.fer.zemris.java.graphics.shapes.Rectangle;
+import hr.fer.zemris.java.graphics.shapes.Triangle;
+
+@SuppressWarnings("javadoc")
+public class TiledRendererTest {
+
+	private static GeometricShape[] randomShapes(int count, int size) {
+		Random random = new Random(11);
+		GeometricShape[] shapes = new GeometricShape[count];
+
+		for (int i = 0; i < count; i++) {
+			int x = random.nextInt(size + 100) - 50;
+			int y = random.nextInt(size + 100) - 50;
+
+			switch (i % 5) {
+				case 0:
+					shapes[i] = new Rectangle(x, y, 1 + random.nextInt(150),
+							1 + random.nextInt(150));
+					break;
+				case 1:
+					shapes[i] = new Ellipse(x, y, random.nextInt(80),
+							random.nextInt(80));
+					break;
+				case 2:
+					shapes[i] = new Circle(x, y, random.nextInt(50));
+					break;
+				case 3:
+					shapes[i] = new Line(x, y, random.nextInt(size),
+							random.nextInt(size));
+					break;
+				default:
+					shapes[i] = new Triangle(x, y, random.nextInt(size),
+							random.nextInt(size), random.nextInt(size),
+							random.nextInt(size));
+					break;
+			}
+		}
+
+		return shapes;
+	}
+
+	@Test
+	public void testMatchesSequentialDrawingInFlipMode() {
+		GeometricShape[] shapes = randomShapes(300, 330);
+
+		BWRaster expected = new BWRasterMem(330, 300);
+		expected.enableFlipMode();
+		for (GeometricShape shape : shapes) {
+			shape.draw(expected);
+		}
+
+		BWRaster[] rasters = { new BWRasterMem(330, 300),
+				new BWRasterBits(330, 300), new BWRasterTiled(330, 300) };
+		TiledRenderer[] renderers = { new TiledRenderer(),
+				new TiledRenderer(new ForkJoinPool(4), 1) };
+
+		for (TiledRenderer renderer : renderers) {
+			for (BWRaster raster : rasters) {
+				raster.clear();
+				raster.enableFlipMode();
+				renderer.render(Arrays.asList(shapes), raster);
+
+				assertEquals(expected.toString(), raster.toString());
+			}
+		}
+	}
+
+	@Test
+	public void testDirtyRegion() {
+		BWRaster raster = new BWRasterBits(1000, 1000);
+		new TiledRenderer(new ForkJoinPool(4), 64).render(
+				new GeometricShape[] { new Rectangle(10, 20, 500, 30),
+						new Circle(700, 700, 50) },
+				raster);
+
+		assertEquals(10, raster.getDirtyRegion().getX());
+		assertEquals(20, raster.getDirtyRegion().getY());
+		assertEquals(751, raster.getDirtyRegion().getMaxX());
+		assertEquals(751, raster.getDirtyRegion().getMaxY());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNullShape() {
+		new TiledRenderer().render(new GeometricShape[] { null },
+				new BWRasterBits(10, 10));
+	}
+
+}
@@ -0,0 +1,76 @@
+package hr.fer.zemris.java.graphics.views;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.graphics.raster.BWRaster;
+import hr.fer.zemris.java.graphics.raster.BWRasterBits;
+import hr.fer.zemris.java.graphics.raster.BWRasterMem;
+import hr.fer.zemris.java.graphics.shapes.Circle;
+import hr.fer.zemris.java.graphics.shapes.Rectangle;
+
+@SuppressWarnings("javadoc")
+public class SimpleRasterViewTest {
+
+	private static final String NL = System.lineSeparator();
+
+	@Test
+	public void testProduceToWriter() {
+		BWRaster raster = new BWRasterMem(6, 3);
+		new Rectangle(1, 1, 3, 1).draw(raster);
+
+		StringWriter out = new StringWriter();
+		new SimpleRasterView(out).produce(raster);
+
+		assertEquals(NL + "......" + NL + ".***.." + NL + "......",
+				out.toString());
+	}
+
+	@Test
+	public void testProduceToStream() {
+		BWRaster raster = new BWRasterBits(3, 2);
+		raster.turnOn(2, 0);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		RasterView view = new SimpleRasterView(out, 'X', '_');
+		view.produce(raster);
+		view.produce(raster);
+
+		String image = NL + "__X" + NL + "___";
+		assertEquals(image + image, out.toString());
+	}
+
+	@Test
+	public void testPackedRasterMatchesPixels() {
+		int width = 150;
+		int height = 40;
+		BWRaster packed = new BWRasterBits(width, height);
+		BWRaster mem = new BWRasterMem(width, height);
+
+		for (BWRaster raster : new BWRaster[] { packed, mem }) {
+			new Rectangle(0, 5, 140, 10).draw(raster);
+			new Circle(70, 20, 18).draw(raster);
+			raster.enableFlipMode();
+			new Rectangle(60, 0, 80, 40).draw(raster);
+		}
+
+		StringWriter packedOut = new StringWriter();
+		StringWriter memOut = new StringWriter();
+		new SimpleRasterView(packedOut).produce(packed);
+		new SimpleRasterView(memOut).produce(mem);
+
+		assertEquals(memOut.toString(), packedOut.toString());
+		assertEquals(height * (NL.length() + width),
+				packedOut.toString().length());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNullWriter() {
+		new SimpleRasterView((StringWriter) null);
+	}
+
+}